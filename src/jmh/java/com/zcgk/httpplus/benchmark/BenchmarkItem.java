@@ -0,0 +1,25 @@
+package com.zcgk.httpplus.benchmark;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 基准测试 返回值元素
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+@Data
+public class BenchmarkItem {
+
+    private long id;
+
+    private String name;
+
+    private double price;
+
+    private String description;
+
+}
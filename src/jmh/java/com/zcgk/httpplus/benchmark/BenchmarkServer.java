@@ -0,0 +1,81 @@
+package com.zcgk.httpplus.benchmark;
+
+import com.zcgk.httpplus.config.Constants4Http;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/****************************************************
+ *
+ * 基准测试 本地 http 服务
+ *      内嵌 Tomcat，监听随机端口。
+ *      /obj、/list 返回对应格式的响应体，参数 size 为字节数，type=string 时 Content-Type 为 text/plain。
+ *      post 请求体读取后丢弃
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+public class BenchmarkServer {
+
+    private final Tomcat tomcat = new Tomcat();
+
+    public void start() throws IOException, LifecycleException {
+        tomcat.setBaseDir(Files.createTempDirectory("hclient-benchmark").toString());
+        tomcat.setPort(0);
+
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "payload", new PayloadServlet());
+        context.addServletMappingDecoded("/*", "payload");
+
+        tomcat.getConnector();
+        tomcat.start();
+    }
+
+
+    public void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+
+    public int getPort() {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+
+    private static final class PayloadServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            String responseDataType = req.getPathInfo() == null ? req.getServletPath() : req.getPathInfo();
+            byte[] body = Payloads.get(responseDataType.substring(1), Integer.parseInt(req.getParameter("size")));
+
+            resp.setContentType(Constants4Http.RESPONSE_TYPE_4_STRING.equals(req.getParameter("type"))
+                    ? "text/plain;charset=UTF-8" : "application/json;charset=UTF-8");
+            resp.setContentLength(body.length);
+            resp.getOutputStream().write(body);
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            byte[] buffer = new byte[8192];
+            try (InputStream in = req.getInputStream()) {
+                while (in.read(buffer) >= 0) {
+                    // 丢弃请求体
+                }
+            }
+            doGet(req, resp);
+        }
+    }
+}
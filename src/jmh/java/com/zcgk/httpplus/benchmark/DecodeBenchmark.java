@@ -0,0 +1,67 @@
+package com.zcgk.httpplus.benchmark;
+
+import com.zcgk.httpplus.config.Constants4Http;
+import com.zcgk.httpplus.core.decode.EnvelopeResponseExtractor;
+import com.zcgk.httpplus.core.decode.ResponseEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * 解码基准测试：不经过网络，直接从内存中的响应体解码，用于比较 json 处理方式的改动
+ *      java -jar target/benchmarks.jar DecodeBenchmark -prof gc
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+    @Param({"obj", "list"})
+    private String responseDataType;
+
+    @Param({"1024", "102400", "1048576", "10485760"})
+    private int payloadSize;
+
+    private byte[] body;
+    private EnvelopeResponseExtractor<List<BenchmarkItem>> extractor;
+
+    @Setup
+    public void setup() {
+        body = Payloads.get(responseDataType, payloadSize);
+
+        Map<String, String> resultMap = Collections.singletonMap("code", "200");
+        extractor = Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)
+                ? EnvelopeResponseExtractor.objAsList(BenchmarkItem.class, resultMap, "data")
+                : EnvelopeResponseExtractor.list(BenchmarkItem.class, resultMap, "data");
+    }
+
+
+    @Benchmark
+    public ResponseEnvelope<List<BenchmarkItem>> decode() {
+        return extractor.extractData(new ByteArrayInputStream(body), MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,90 @@
+package com.zcgk.httpplus.benchmark;
+
+import com.zcgk.httpplus.config.Constants4Http;
+import com.zcgk.httpplus.core.endpoint.Endpoint;
+import com.zcgk.httpplus.core.endpoint.EndpointBuilder;
+import com.zcgk.httpplus.core.utils.HClientUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * getApi 基准测试
+ *      responseType × responseDataType × 响应体字节数，吞吐量及耗时分位数；
+ *      endpoint 为同一请求使用预编译接口描述的对照
+ *      java -jar target/benchmarks.jar GetApiBenchmark -prof gc
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetApiBenchmark {
+
+    @Param({"json", "string"})
+    private String responseType;
+
+    @Param({"obj", "list"})
+    private String responseDataType;
+
+    @Param({"1024", "102400", "1048576", "10485760"})
+    private int payloadSize;
+
+    private String url;
+    private Map<String, Object> paramMap;
+    private Map<String, String> resultMap;
+    private Endpoint<BenchmarkItem> endpoint;
+
+    @Setup
+    public void setup(ServerState server) {
+        url = server.baseUrl() + "/{responseDataType}?size={size}&type={type}";
+
+        paramMap = new HashMap<>();
+        paramMap.put("responseDataType", responseDataType);
+        paramMap.put("size", payloadSize);
+        paramMap.put("type", responseType);
+
+        resultMap = Collections.singletonMap("code", "200");
+
+        EndpointBuilder<Object> builder = HClientUtils.endpoint(url).get();
+        builder = Constants4Http.RESPONSE_TYPE_4_STRING.equals(responseType) ? builder.string() : builder.json();
+        endpoint = (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)
+                ? builder.obj(BenchmarkItem.class) : builder.list(BenchmarkItem.class))
+                .success("code", "200")
+                .data("data")
+                .build();
+    }
+
+
+    @Benchmark
+    public List<BenchmarkItem> getApi() {
+        return HClientUtils.getApi(url, BenchmarkItem.class, paramMap, resultMap, "data", responseType, responseDataType);
+    }
+
+
+    @Benchmark
+    public List<BenchmarkItem> endpoint() {
+        return endpoint.call(paramMap);
+    }
+}
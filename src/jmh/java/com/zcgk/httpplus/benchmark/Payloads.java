@@ -0,0 +1,72 @@
+package com.zcgk.httpplus.benchmark;
+
+import com.zcgk.httpplus.config.Constants4Http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/****************************************************
+ *
+ * 基准测试 响应体
+ *      格式为 {"code":"200","msg":"ok","data":...}，按 返回单个/多个 与 字节数 生成并缓存
+ *      obj：data 为单个对象，以 description 字段补足字节数
+ *      list：data 为数组，每个元素约 100 字节
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+public final class Payloads {
+
+    private static final Map<String, byte[]> CACHE = new ConcurrentHashMap<>();
+
+    private Payloads() {
+    }
+
+
+    /**
+     * @param responseDataType obj or list
+     * @param size 字节数
+     * @return 响应体
+     */
+    public static byte[] get(String responseDataType, int size) {
+        return CACHE.computeIfAbsent(responseDataType + ":" + size, key -> build(responseDataType, size));
+    }
+
+
+    private static byte[] build(String responseDataType, int size) {
+        StringBuilder body = new StringBuilder(size + 128);
+        body.append("{\"code\":\"200\",\"msg\":\"ok\",\"data\":");
+
+        if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
+            int padding = Math.max(0, size - body.length() - 80);
+            appendItem(body, 1, padding);
+        } else {
+            body.append('[');
+            for (int i = 0; body.length() < size - 100; i++) {
+                if (i > 0) {
+                    body.append(',');
+                }
+                appendItem(body, i, 24);
+            }
+            body.append(']');
+        }
+
+        body.append('}');
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    private static void appendItem(StringBuilder body, long id, int descriptionLength) {
+        body.append("{\"id\":").append(id)
+                .append(",\"name\":\"item-").append(id)
+                .append("\",\"price\":").append(id % 1000).append(".5")
+                .append(",\"description\":\"");
+        for (int i = 0; i < descriptionLength; i++) {
+            body.append((char) ('a' + i % 26));
+        }
+        body.append("\"}");
+    }
+}
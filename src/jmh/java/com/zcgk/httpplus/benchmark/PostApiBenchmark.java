@@ -0,0 +1,117 @@
+package com.zcgk.httpplus.benchmark;
+
+import com.zcgk.httpplus.core.encode.UploadFile;
+import com.zcgk.httpplus.core.utils.HClientUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * postApi 基准测试
+ *      requestParamType × responseType × responseDataType × 响应体字节数，吞吐量及耗时分位数。
+ *      传参方式为 file 时上传 uploadSize 字节的临时文件，其他传参方式忽略 uploadSize（可用 -p uploadSize=0 只跑一组）
+ *      java -jar target/benchmarks.jar PostApiBenchmark -prof gc
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostApiBenchmark {
+
+    @Param({"form/url", "x-www-form-urlencoded", "json", "file"})
+    private String requestParamType;
+
+    @Param({"json", "string"})
+    private String responseType;
+
+    @Param({"obj", "list"})
+    private String responseDataType;
+
+    @Param({"1024", "102400", "1048576", "10485760"})
+    private int payloadSize;
+
+    /**
+     * 上传文件字节数，仅传参方式为 file 时使用
+     */
+    @Param({"102400", "10485760"})
+    private int uploadSize;
+
+    private String url;
+    private Path uploadFile;
+    private Map<String, Object> paramMap;
+    private Map<String, String> resultMap;
+
+    @Setup
+    public void setup(ServerState server) throws IOException {
+        url = server.baseUrl() + "/" + responseDataType + "?size=" + payloadSize + "&type=" + responseType;
+
+        paramMap = new HashMap<>();
+        paramMap.put("name", "benchmark");
+        paramMap.put("page", 1);
+        paramMap.put("tags", "a,b,c");
+        if ("file".equals(requestParamType)) {
+            uploadFile = createUploadFile(uploadSize);
+            paramMap.put("file", UploadFile.of(uploadFile));
+        }
+
+        resultMap = Collections.singletonMap("code", "200");
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (uploadFile != null) {
+            Files.deleteIfExists(uploadFile);
+            uploadFile = null;
+        }
+    }
+
+
+    @Benchmark
+    public List<BenchmarkItem> postApi() {
+        return HClientUtils.postApi(url, BenchmarkItem.class, paramMap, resultMap, "data",
+                requestParamType, responseType, responseDataType);
+    }
+
+
+    private static Path createUploadFile(int size) throws IOException {
+        Path file = Files.createTempFile("post-api-benchmark", ".bin");
+        byte[] chunk = new byte[64 * 1024];
+        Arrays.fill(chunk, (byte) 'x');
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int written = 0; written < size; written += chunk.length) {
+                out.write(chunk, 0, Math.min(chunk.length, size - written));
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,42 @@
+package com.zcgk.httpplus.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/****************************************************
+ *
+ * 基准测试 共享的本地 http 服务
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+@State(Scope.Benchmark)
+public class ServerState {
+
+    private BenchmarkServer server;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        server = new BenchmarkServer();
+        server.start();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        server.stop();
+    }
+
+
+    /**
+     * @return 服务地址。如：http://127.0.0.1:8080
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getPort();
+    }
+}
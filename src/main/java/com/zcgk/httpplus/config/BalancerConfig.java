@@ -0,0 +1,50 @@
+package com.zcgk.httpplus.config;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 客户端负载均衡配置
+ *      每次请求随机取两个可用实例，选择 负载（耗时 EWMA * (进行中请求数 + 1)）较低的一个；
+ *      连续失败 consecutiveFailures 次的实例被摘除 ejectMillis * 摘除次数，到期后恢复，恢复后成功一次即清零摘除次数。
+ *      失败指 连接失败、超时、5xx
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+@Data
+public class BalancerConfig {
+
+    /**
+     * 耗时 EWMA 的衰减时间常数（毫秒），越小越快反映最近的耗时
+     */
+    private long decayMillis = 10000L;
+
+    /**
+     * 连续失败多少次后摘除实例
+     */
+    private int consecutiveFailures = 5;
+
+    /**
+     * 首次摘除时长（毫秒）
+     */
+    private long ejectMillis = 30000L;
+
+    /**
+     * 摘除时长上限（毫秒）
+     */
+    private long maxEjectMillis = 300000L;
+
+    /**
+     * 同一服务最多摘除的实例比例（百分比），至少保留的实例不被摘除
+     */
+    private int maxEjectionPercent = 50;
+
+    /**
+     * 从文件加载实例列表时，检查文件是否修改的间隔（毫秒）
+     */
+    private long reloadIntervalMillis = 5000L;
+
+}
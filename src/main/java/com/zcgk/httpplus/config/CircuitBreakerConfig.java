@@ -0,0 +1,47 @@
+package com.zcgk.httpplus.config;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 熔断配置，按 host:port 分别熔断
+ *      最近 slidingWindowSize 次请求中失败比例达到阈值时熔断，熔断期间直接失败；
+ *      熔断 openMillis 后放行少量试探请求，全部成功则恢复，任一失败则继续熔断。
+ *      失败指 连接失败、超时、5xx，4xx 及返回值判断不成功不计为失败
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+@Data
+public class CircuitBreakerConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * 失败比例阈值（百分比）
+     */
+    private int failureRateThreshold = 50;
+
+    /**
+     * 统计最近的请求数
+     */
+    private int slidingWindowSize = 20;
+
+    /**
+     * 请求数达到该值后才计算失败比例
+     */
+    private int minimumNumberOfCalls = 10;
+
+    /**
+     * 熔断时长（毫秒）
+     */
+    private long openMillis = 30000L;
+
+    /**
+     * 熔断结束后放行的试探请求数
+     */
+    private int permittedCallsInHalfOpen = 1;
+
+}
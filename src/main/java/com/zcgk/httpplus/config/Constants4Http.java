@@ -12,10 +12,11 @@ package com.zcgk.httpplus.config;
 public class Constants4Http {
 
     /**
-     * 接口返回类型： json or string
+     * 接口返回类型： json or string or smile（二进制 json，服务端不支持时按 json 解码）
      */
     public static final String RESPONSE_TYPE_4_JSON = "json";
     public static final String RESPONSE_TYPE_4_STRING = "string";
+    public static final String RESPONSE_TYPE_4_SMILE = "smile";
 
 
     /**
@@ -33,4 +34,11 @@ public class Constants4Http {
     public static final String REQUEST_PARAM_TYPE_4_JSON = "json";
     public static final String REQUEST_PARAM_TYPE_4_FILE = "file";
 
+
+    /**
+     * 阻塞引擎传输协议： http/1.1 连接池、 HTTP/2 多路复用（https 经 ALPN 协商，http 为 h2c）
+     */
+    public static final String PROTOCOL_4_HTTP1 = "http1";
+    public static final String PROTOCOL_4_H2 = "h2";
+
 }
@@ -0,0 +1,81 @@
+package com.zcgk.httpplus.config;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * http 客户端引擎配置
+ *      连接池、keep-alive、空闲连接回收、传输协议等参数
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 09:30
+ * @version 1.0
+ **************************************************/
+@Data
+public class HClientConfig {
+
+    /**
+     * 连接池最大连接数
+     */
+    private int maxTotal = 200;
+
+    /**
+     * 每个路由（host:port）最大连接数
+     */
+    private int maxPerRoute = 50;
+
+    /**
+     * 从连接池获取连接的最大等待时间（毫秒）
+     */
+    private int connectionRequestTimeout = 5000;
+
+    /**
+     * 建立连接超时时间（毫秒）。小于等于0 不超时
+     */
+    private int connectTimeout = 5000;
+
+    /**
+     * 读取超时时间（毫秒），即两次收到数据的最大间隔。小于等于0 不超时
+     */
+    private int readTimeout = 30000;
+
+    /**
+     * 服务端未返回 Keep-Alive 头时，连接保持的默认时长（毫秒）
+     */
+    private long keepAliveMillis = 30000L;
+
+    /**
+     * 空闲连接超过该时长（秒）后被后台线程回收
+     */
+    private long idleEvictSeconds = 30L;
+
+    /**
+     * 连接空闲超过该时长（毫秒）后，复用前先做一次有效性校验
+     */
+    private int validateAfterInactivityMillis = 2000;
+
+    /**
+     * 是否发送 Accept-Encoding: gzip,deflate 并自动解压响应
+     */
+    private boolean contentCompression = true;
+
+    /**
+     * json 请求体不小于该字节数时以 gzip 压缩发送，阻塞、非阻塞请求均生效。小于等于0 不压缩（需服务端支持 Content-Encoding: gzip 请求体）
+     */
+    private int requestCompressionThreshold = -1;
+
+    /**
+     * 阻塞引擎传输协议：http1 或 h2，见 Constants4Http.PROTOCOL_4_*。
+     *      h2 时 https 经 ALPN 协商 HTTP/2，http 以 h2c（不经 Upgrade，直接发送 HTTP/2 连接前言）访问，服务端均须支持 HTTP/2；
+     *      maxTotal、maxPerRoute、validateAfterInactivityMillis、keepAliveMillis 仅对 http1 生效
+     */
+    private String protocol = Constants4Http.PROTOCOL_4_HTTP1;
+
+    /**
+     * h2 时每个 host 最多建立的连接数。单个连接的并发流数由服务端 SETTINGS_MAX_CONCURRENT_STREAMS 决定，
+     *      所有连接的并发流都已用满时，新请求在负载最低的连接上排队
+     */
+    private int http2ConnectionsPerHost = 2;
+
+}
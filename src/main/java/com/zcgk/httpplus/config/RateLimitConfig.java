@@ -0,0 +1,63 @@
+package com.zcgk.httpplus.config;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 限流配置，按 host:port 分别限流
+ *      限速：令牌桶，每秒 permitsPerSecond 个请求，允许 burst 个突发；
+ *      并发：同时进行的请求数上限随响应耗时自适应（AIMD）。耗时未超过 无负载耗时 * latencyTolerance 时缓慢增加上限，
+ *      超过或 连接失败、超时、5xx 时按 backoffRatio 降低上限，上游变慢时主动减少压力，而不是继续堆积请求。
+ *      超出限制的请求最多等待 maxWaitMillis，仍无法发出时抛出 RateLimitedException。
+ *      耗时按整个请求计，含响应体读取，下载大文件的 host 应关闭 adaptive
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 23:40
+ * @version 1.0
+ **************************************************/
+@Data
+public class RateLimitConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * 每秒请求数。小于等于0 不限速
+     */
+    private double permitsPerSecond = 0D;
+
+    /**
+     * 允许的突发请求数。小于等于0 时为 permitsPerSecond（至少为 1）
+     */
+    private int burst = 0;
+
+    /**
+     * 是否自适应限制并发请求数
+     */
+    private boolean adaptive = true;
+
+    /**
+     * 初始并发上限
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 200;
+
+    /**
+     * 降低并发上限时的系数
+     */
+    private double backoffRatio = 0.9D;
+
+    /**
+     * 耗时超过 无负载耗时 的倍数时视为上游过载
+     */
+    private double latencyTolerance = 2.0D;
+
+    /**
+     * 超出限制时最长等待时间（毫秒）。小于等于0 不等待，直接拒绝。非阻塞请求只等待限速，并发超限时直接拒绝
+     */
+    private long maxWaitMillis = 50L;
+
+}
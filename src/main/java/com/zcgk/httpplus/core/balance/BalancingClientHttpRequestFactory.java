@@ -0,0 +1,195 @@
+package com.zcgk.httpplus.core.balance;
+
+import com.zcgk.httpplus.core.resilience.HClientResilience;
+import com.zcgk.httpplus.core.resilience.RequestScope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/****************************************************
+ *
+ * 阻塞请求的负载均衡
+ *      url 为 lb://服务名 时选择实例，以实例上的 url 创建请求；收到响应头时记录耗时，响应关闭时结束请求。
+ *      当前线程有 {@link RequestScope} 时，请求创建后未执行（如写请求体时异常）的在本次尝试结束时结束；
+ *      对冲请求先完成或总时限到期而中止的请求只结束，不计为实例失败。其余请求原样转发
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+public class BalancingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+
+    public BalancingClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+        this.delegate = delegate;
+    }
+
+
+    public ClientHttpRequestFactory getDelegate() {
+        return delegate;
+    }
+
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        if (!HClientBalancer.isBalanced(uri)) {
+            return delegate.createRequest(uri, httpMethod);
+        }
+
+        Selection selection = HClientBalancer.choose(uri);
+        ClientHttpRequest request;
+        try {
+            request = delegate.createRequest(selection.getUri(), httpMethod);
+        } catch (IOException | RuntimeException e) {
+            selection.onError();
+            throw e;
+        }
+        RequestScope scope = HClientResilience.current();
+        BalancedRequest balanced = request instanceof StreamingHttpOutputMessage
+                ? new StreamingBalancedRequest(request, selection, scope) : new BalancedRequest(request, selection, scope);
+        if (scope != null) {
+            scope.onClose(balanced::abandon);
+        }
+        return balanced;
+    }
+
+
+    private static class BalancedRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+        private final Selection selection;
+        private final RequestScope scope;
+
+        private boolean executed;
+
+        private BalancedRequest(ClientHttpRequest request, Selection selection, RequestScope scope) {
+            this.request = request;
+            this.selection = selection;
+            this.scope = scope;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            executed = true;
+            ClientHttpResponse response;
+            try {
+                response = request.execute();
+                selection.onResponse(response.getRawStatusCode());
+            } catch (IOException | RuntimeException e) {
+                if (scope != null && (scope.isCancelled() || scope.isExpired())) {
+                    // 由调用方中止，与实例是否健康无关
+                    selection.release();
+                } else {
+                    selection.onError();
+                }
+                throw e;
+            }
+            return new BalancedResponse(response, selection);
+        }
+
+        /**
+         * 本次尝试结束时请求仍未执行，结束请求
+         */
+        private void abandon() {
+            if (!executed) {
+                selection.release();
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+
+    /**
+     * 被包装的请求支持流式写入（不缓冲请求体）时，保持流式写入
+     */
+    private static final class StreamingBalancedRequest extends BalancedRequest implements StreamingHttpOutputMessage {
+
+        private final StreamingHttpOutputMessage streaming;
+
+        private StreamingBalancedRequest(ClientHttpRequest request, Selection selection, RequestScope scope) {
+            super(request, selection, scope);
+            this.streaming = (StreamingHttpOutputMessage) request;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            streaming.setBody(body);
+        }
+    }
+
+
+    private static final class BalancedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final Selection selection;
+
+        private BalancedResponse(ClientHttpResponse response, Selection selection) {
+            this.response = response;
+            this.selection = selection;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                selection.release();
+            }
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.zcgk.httpplus.core.balance;
+
+import com.zcgk.httpplus.config.BalancerConfig;
+import com.zcgk.httpplus.core.exception.NoAvailableInstanceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/****************************************************
+ *
+ * 客户端负载均衡
+ *      url 以 lb://服务名 开头时（如：lb://user-service/user?args={args}），每次请求从该服务的实例（base url）中选择一个，
+ *      以实例的 scheme、host、port 及 base path 替换 lb://服务名，重试、对冲时重新选择。
+ *      实例列表通过 {@link #register} 静态注册，或通过 {@link #load} 从 properties 文件加载（服务名=base url,base url），
+ *      文件修改后自动重新加载，未变化的实例保留负载状态。
+ *      每个实例是独立的 host:port，在共享的引擎中各自使用独立的连接池（阻塞引擎的 maxPerRoute、h2 的每 host 连接、Reactor Netty 的每地址连接池）；
+ *      熔断、限流、指标仍按服务名统计。选择策略见 {@link BalancerConfig}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+@Slf4j
+public final class HClientBalancer {
+
+    public static final String SCHEME = "lb";
+
+    /**
+     * 服务名 -> 实例
+     */
+    private static final Map<String, ServiceGroup> SERVICE_MAP = new ConcurrentHashMap<>();
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static volatile BalancerConfig config = new BalancerConfig();
+
+    /**
+     * 加载实例列表的文件，及其中的服务名
+     */
+    private static volatile Path file;
+    private static Set<String> fileServices = new HashSet<>();
+    private static volatile long fileModified;
+    private static volatile long fileCheckedAt;
+
+    private HClientBalancer() {
+    }
+
+
+    /**
+     * 设置负载均衡配置，已有的负载状态保留
+     *
+     * @param balancerConfig 配置
+     */
+    public static void configure(BalancerConfig balancerConfig) {
+        config = balancerConfig;
+    }
+
+
+    public static BalancerConfig config() {
+        return config;
+    }
+
+
+    /**
+     * 注册服务的实例列表，替换已有的列表，未变化的实例保留负载状态
+     *
+     * @param service 服务名。如：user-service
+     * @param baseUrls 实例的 base url。如：http://127.0.0.1:8080、http://127.0.0.2:8080/api
+     */
+    public static void register(String service, List<String> baseUrls) {
+        LOCK.lock();
+        try {
+            doRegister(service, baseUrls);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+
+    public static void unregister(String service) {
+        SERVICE_MAP.remove(service);
+    }
+
+
+    /**
+     * 从 properties 文件加载实例列表，每行一个服务：服务名=base url,base url。
+     *      文件修改后（每 reloadIntervalMillis 检查一次）自动重新加载，文件中删除的服务随之注销
+     *
+     * @param path 文件路径
+     * @throws IOException 读取失败
+     */
+    public static void load(Path path) throws IOException {
+        LOCK.lock();
+        try {
+            file = path;
+            reload(path);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+
+    /**
+     * @param uri url
+     * @return 是否为 lb://服务名 形式的 url
+     */
+    public static boolean isBalanced(URI uri) {
+        return uri != null && SCHEME.equalsIgnoreCase(uri.getScheme());
+    }
+
+
+    /**
+     * 为一次请求选择实例，请求结束时须调用 Selection 的 onResponse / onError 及 release
+     *
+     * @param uri lb://服务名/path?query
+     * @return 选中的实例
+     * @throws NoAvailableInstanceException 服务未注册实例
+     */
+    public static Selection choose(URI uri) {
+        checkFile();
+
+        String service = uri.getRawAuthority();
+        ServiceGroup group = service == null ? null : SERVICE_MAP.get(service);
+        if (group == null) {
+            throw new NoAvailableInstanceException(service);
+        }
+        ServiceInstance instance = group.choose(System.nanoTime());
+        return new Selection(group, instance, instance.resolve(uri));
+    }
+
+
+    /**
+     * 非阻塞请求：url 为 lb://服务名 时选择实例后发送，否则原样发送
+     *
+     * @param uri url
+     * @param exchange 以实际 url 发送请求
+     * @return response 重新订阅时重新选择实例
+     */
+    public static Mono<ClientResponse> exchange(URI uri, Function<URI, Mono<ClientResponse>> exchange) {
+        if (!isBalanced(uri)) {
+            return exchange.apply(uri);
+        }
+        return Mono.defer(() -> {
+            Selection selection = choose(uri);
+            return exchange.apply(selection.getUri())
+                    .doOnSuccess(response -> {
+                        if (response != null) {
+                            selection.onResponse(response.rawStatusCode());
+                        }
+                        selection.release();
+                    })
+                    .doOnError(e -> selection.onError())
+                    .doOnCancel(selection::release);
+        });
+    }
+
+
+    /**
+     * @return WebClient 过滤器，lb://服务名 的请求选择实例后发送
+     */
+    public static ExchangeFilterFunction filter() {
+        return (request, next) -> exchange(request.url(),
+                uri -> next.exchange(ClientRequest.from(request).url(uri).build()));
+    }
+
+
+    /**
+     * @return 服务名 -> 各实例当前的负载状态
+     */
+    public static Map<String, List<InstanceStats>> stats() {
+        long now = System.nanoTime();
+        Map<String, List<InstanceStats>> stats = new LinkedHashMap<>();
+        SERVICE_MAP.forEach((service, group) -> {
+            List<InstanceStats> list = new ArrayList<>();
+            for (ServiceInstance instance : group.getInstances()) {
+                list.add(instance.stats(now));
+            }
+            stats.put(service, list);
+        });
+        return stats;
+    }
+
+
+    private static void doRegister(String service, List<String> baseUrls) {
+        Map<String, ServiceInstance> existing = new LinkedHashMap<>();
+        ServiceGroup old = SERVICE_MAP.get(service);
+        if (old != null) {
+            for (ServiceInstance instance : old.getInstances()) {
+                existing.put(instance.getBaseUrl(), instance);
+            }
+        }
+
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            if (baseUrl == null || baseUrl.trim().isEmpty()) {
+                continue;
+            }
+            ServiceInstance instance = existing.get(baseUrl.trim());
+            instances.add(instance != null ? instance : new ServiceInstance(baseUrl));
+        }
+        if (instances.isEmpty()) {
+            SERVICE_MAP.remove(service);
+            return;
+        }
+        SERVICE_MAP.put(service, new ServiceGroup(service, instances.toArray(new ServiceInstance[0])));
+    }
+
+
+    /**
+     * 距上次检查超过 reloadIntervalMillis 时检查文件是否修改。重新加载失败时保留原实例列表
+     */
+    private static void checkFile() {
+        Path path = file;
+        if (path == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - fileCheckedAt < TimeUnit.MILLISECONDS.toNanos(config.getReloadIntervalMillis()) || !LOCK.tryLock()) {
+            return;
+        }
+        try {
+            fileCheckedAt = now;
+            if (Files.getLastModifiedTime(path).toMillis() != fileModified) {
+                reload(path);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("重新加载实例列表失败：{}", path, e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+
+    private static void reload(Path path) throws IOException {
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        Set<String> services = new HashSet<>();
+        for (String service : properties.stringPropertyNames()) {
+            List<String> baseUrls = new ArrayList<>();
+            for (String baseUrl : properties.getProperty(service).split(",")) {
+                baseUrls.add(baseUrl);
+            }
+            doRegister(service.trim(), baseUrls);
+            services.add(service.trim());
+        }
+        for (String service : fileServices) {
+            if (!services.contains(service)) {
+                SERVICE_MAP.remove(service);
+            }
+        }
+
+        fileServices = services;
+        fileModified = modified;
+        fileCheckedAt = System.nanoTime();
+    }
+}
@@ -0,0 +1,49 @@
+package com.zcgk.httpplus.core.balance;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 单个实例的负载均衡状态（快照），见 {@link HClientBalancer}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+@Data
+public class InstanceStats {
+
+    private String baseUrl;
+
+    /**
+     * 耗时 EWMA（毫秒），收到响应头计。尚无样本时为 0
+     */
+    private double latencyMillis;
+
+    /**
+     * 正在进行的请求数
+     */
+    private int inFlight;
+
+    /**
+     * 连续失败次数
+     */
+    private int consecutiveFailures;
+
+    /**
+     * 是否已摘除
+     */
+    private boolean ejected;
+
+    /**
+     * 累计请求数
+     */
+    private long requests;
+
+    /**
+     * 累计失败数
+     */
+    private long failures;
+
+}
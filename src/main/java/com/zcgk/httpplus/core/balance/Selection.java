@@ -0,0 +1,84 @@
+package com.zcgk.httpplus.core.balance;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/****************************************************
+ *
+ * 一次请求选中的实例
+ *      收到响应头时调用 onResponse，连接失败、超时时调用 onError；请求结束（响应关闭）时调用 release，可重复调用。
+ *      调用方主动中止（对冲请求先完成、总时限到期、取消订阅）或请求未发出时只调用 release，不计为失败
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+public final class Selection {
+
+    private final ServiceGroup group;
+    private final ServiceInstance instance;
+    private final URI uri;
+    private final long start;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+
+    Selection(ServiceGroup group, ServiceInstance instance, URI uri) {
+        this.group = group;
+        this.instance = instance;
+        this.uri = uri;
+        this.start = System.nanoTime();
+        instance.start();
+    }
+
+
+    /**
+     * @return 选中实例上的 url
+     */
+    public URI getUri() {
+        return uri;
+    }
+
+
+    public String getBaseUrl() {
+        return instance.getBaseUrl();
+    }
+
+
+    /**
+     * @param status 响应状态码，5xx 计为失败
+     */
+    public void onResponse(int status) {
+        long now = System.nanoTime();
+        if (status >= 500) {
+            failed(now - start, now);
+        } else {
+            instance.onSuccess(now - start, now, HClientBalancer.config());
+        }
+    }
+
+
+    /**
+     * 连接失败、超时等未收到响应，同时结束请求
+     */
+    public void onError() {
+        long now = System.nanoTime();
+        failed(-1L, now);
+        release();
+    }
+
+
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            instance.release();
+        }
+    }
+
+
+    private void failed(long rtt, long now) {
+        if (instance.onFailure(rtt, now, HClientBalancer.config())) {
+            group.tryEject(instance, now, HClientBalancer.config());
+        }
+    }
+}
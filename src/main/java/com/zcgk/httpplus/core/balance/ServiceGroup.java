@@ -0,0 +1,89 @@
+package com.zcgk.httpplus.core.balance;
+
+import com.zcgk.httpplus.config.BalancerConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/****************************************************
+ *
+ * 一个逻辑服务的全部实例
+ *      从未摘除的实例中随机取两个，选择负载较低的一个（power of two choices）；全部被摘除时在全部实例中选择
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+final class ServiceGroup {
+
+    private final String service;
+
+    private final ServiceInstance[] instances;
+
+
+    ServiceGroup(String service, ServiceInstance[] instances) {
+        this.service = service;
+        this.instances = instances;
+    }
+
+
+    String getService() {
+        return service;
+    }
+
+
+    ServiceInstance[] getInstances() {
+        return instances;
+    }
+
+
+    ServiceInstance choose(long now) {
+        if (instances.length == 1) {
+            return instances[0];
+        }
+
+        List<ServiceInstance> available = new ArrayList<>(instances.length);
+        for (ServiceInstance instance : instances) {
+            if (!instance.isEjected(now)) {
+                available.add(instance);
+            }
+        }
+        if (available.isEmpty()) {
+            for (ServiceInstance instance : instances) {
+                available.add(instance);
+            }
+        }
+        if (available.size() == 1) {
+            return available.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(available.size());
+        int second = random.nextInt(available.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = available.get(first);
+        ServiceInstance b = available.get(second);
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+
+    /**
+     * 实例达到摘除阈值时，未超过摘除比例上限则摘除
+     */
+    synchronized void tryEject(ServiceInstance instance, long now, BalancerConfig config) {
+        int ejected = 0;
+        for (ServiceInstance other : instances) {
+            if (other.isEjected(now)) {
+                ejected++;
+            }
+        }
+        int max = instances.length * Math.max(0, Math.min(100, config.getMaxEjectionPercent())) / 100;
+        if (ejected < max) {
+            instance.eject(now, config);
+        }
+    }
+}
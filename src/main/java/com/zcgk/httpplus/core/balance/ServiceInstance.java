@@ -0,0 +1,156 @@
+package com.zcgk.httpplus.core.balance;
+
+import com.zcgk.httpplus.config.BalancerConfig;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * 服务的一个实例（base url）及其负载状态
+ *      耗时为 peak EWMA：新样本大于当前值时直接取新样本，否则按距上次样本的时间指数衰减，实例变慢时立即生效；
+ *      尚无样本的实例有进行中请求时负载记为极大值，避免冷启动时所有请求涌向新实例
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+final class ServiceInstance {
+
+    private static final double PENALTY = Integer.MAX_VALUE;
+
+    private final String baseUrl;
+
+    /**
+     * scheme://authority/base path，不以 / 结尾
+     */
+    private final String prefix;
+
+    private double latency;
+    private long sampledAt;
+
+    private int inFlight;
+    private int consecutiveFailures;
+    private int ejections;
+    private long ejectedUntil;
+
+    private long requests;
+    private long failures;
+
+
+    ServiceInstance(String baseUrl) {
+        URI base = URI.create(baseUrl.trim());
+        if (base.getScheme() == null || base.getRawAuthority() == null) {
+            throw new IllegalArgumentException("invalid base url: " + baseUrl);
+        }
+        String path = base.getRawPath() == null ? "" : base.getRawPath();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        this.baseUrl = baseUrl.trim();
+        this.prefix = base.getScheme() + "://" + base.getRawAuthority() + path;
+    }
+
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+
+    /**
+     * @param uri lb://service/path?query
+     * @return 本实例上的 url
+     */
+    URI resolve(URI uri) {
+        StringBuilder builder = new StringBuilder(prefix);
+        if (uri.getRawPath() != null) {
+            builder.append(uri.getRawPath());
+        }
+        if (uri.getRawQuery() != null) {
+            builder.append('?').append(uri.getRawQuery());
+        }
+        return URI.create(builder.toString());
+    }
+
+
+    synchronized double cost() {
+        if (latency == 0D) {
+            return inFlight == 0 ? 0D : PENALTY + inFlight;
+        }
+        return latency * (inFlight + 1);
+    }
+
+
+    synchronized boolean isEjected(long now) {
+        return ejectedUntil - now > 0L;
+    }
+
+
+    synchronized void start() {
+        inFlight++;
+        requests++;
+    }
+
+
+    synchronized void release() {
+        inFlight = Math.max(0, inFlight - 1);
+    }
+
+
+    /**
+     * @param rtt 耗时（纳秒）
+     * @param now 当前时间
+     */
+    synchronized void onSuccess(long rtt, long now, BalancerConfig config) {
+        sample(rtt, now, config);
+        consecutiveFailures = 0;
+        ejections = 0;
+    }
+
+
+    /**
+     * @param rtt 耗时（纳秒），连接失败等无耗时时小于0
+     * @return 是否已达到摘除阈值
+     */
+    synchronized boolean onFailure(long rtt, long now, BalancerConfig config) {
+        if (rtt >= 0L) {
+            sample(rtt, now, config);
+        }
+        failures++;
+        consecutiveFailures++;
+        return consecutiveFailures >= Math.max(1, config.getConsecutiveFailures()) && !isEjected(now);
+    }
+
+
+    synchronized void eject(long now, BalancerConfig config) {
+        ejections++;
+        long millis = Math.min(config.getMaxEjectMillis(), config.getEjectMillis() * ejections);
+        ejectedUntil = now + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, millis));
+        consecutiveFailures = 0;
+    }
+
+
+    synchronized InstanceStats stats(long now) {
+        InstanceStats stats = new InstanceStats();
+        stats.setBaseUrl(baseUrl);
+        stats.setLatencyMillis(latency / 1_000_000D);
+        stats.setInFlight(inFlight);
+        stats.setConsecutiveFailures(consecutiveFailures);
+        stats.setEjected(isEjected(now));
+        stats.setRequests(requests);
+        stats.setFailures(failures);
+        return stats;
+    }
+
+
+    private void sample(long rtt, long now, BalancerConfig config) {
+        if (latency == 0D || rtt > latency) {
+            latency = rtt;
+        } else {
+            double decay = Math.exp(-(double) (now - sampledAt) / TimeUnit.MILLISECONDS.toNanos(Math.max(1L, config.getDecayMillis())));
+            latency = latency * decay + rtt * (1D - decay);
+        }
+        sampledAt = now;
+    }
+}
@@ -0,0 +1,183 @@
+package com.zcgk.httpplus.core.batch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/****************************************************
+ *
+ * 批量任务调度
+ *      按下标顺序派发异步任务，同时受 总并发数 与 单 host 并发数 限制；
+ *      任务完成后立即补位，不占用等待线程。结果按下标顺序返回
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 13:20
+ * @version 1.0
+ **************************************************/
+public class BatchScheduler<R> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final IntFunction<CompletableFuture<R>> task;
+    private final BiFunction<Integer, Throwable, R> onError;
+    private final int maxInFlight;
+    private final int maxPerHost;
+    private final String[] hosts;
+
+    /**
+     * 各 host 待派发的下标
+     */
+    private final Map<String, Deque<Integer>> pending = new LinkedHashMap<>();
+    private final Map<String, Integer> hostInFlight = new HashMap<>();
+    private int inFlight;
+    private int done;
+
+    /**
+     * 有线程正在派发。任务同步完成时不递归派发，由正在派发的线程继续补位
+     */
+    private boolean dispatching;
+
+    private final Object[] results;
+    private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+
+
+    private BatchScheduler(List<String> hosts, IntFunction<CompletableFuture<R>> task, BiFunction<Integer, Throwable, R> onError,
+                           int maxInFlight, int maxPerHost) {
+        this.task = task;
+        this.onError = onError;
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : Integer.MAX_VALUE;
+        this.maxPerHost = maxPerHost > 0 ? maxPerHost : Integer.MAX_VALUE;
+        this.hosts = hosts.toArray(new String[0]);
+        this.results = new Object[this.hosts.length];
+
+        for (int i = 0; i < this.hosts.length; i++) {
+            pending.computeIfAbsent(this.hosts[i], key -> new ArrayDeque<>()).add(i);
+        }
+    }
+
+
+    /**
+     * 执行批量任务
+     *
+     * @param hosts 每个任务对应的 host，决定单 host 并发数
+     * @param task 按下标创建异步任务
+     * @param onError 任务异常时，将异常转换为结果
+     * @param maxInFlight 总并发数。小于等于0 不限制
+     * @param maxPerHost 单 host 并发数。小于等于0 不限制
+     * @param <R> 结果类型
+     * @return 按下标顺序的结果
+     */
+    public static <R> CompletableFuture<List<R>> run(List<String> hosts, IntFunction<CompletableFuture<R>> task,
+                                                     BiFunction<Integer, Throwable, R> onError,
+                                                     int maxInFlight, int maxPerHost) {
+        if (hosts.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        BatchScheduler<R> scheduler = new BatchScheduler<>(hosts, task, onError, maxInFlight, maxPerHost);
+        scheduler.dispatch();
+        return scheduler.future;
+    }
+
+
+    /**
+     * 在并发额度内，按下标从小到大派发任务。已有线程在派发时直接返回，由该线程循环补位，
+     *      任务同步完成（如参数无效、熔断）时调用栈深度不随任务数增长
+     */
+    private void dispatch() {
+        lock.lock();
+        try {
+            if (dispatching) {
+                return;
+            }
+            dispatching = true;
+        } finally {
+            lock.unlock();
+        }
+
+        while (true) {
+            List<Integer> toStart = new ArrayList<>();
+
+            lock.lock();
+            try {
+                while (inFlight < maxInFlight) {
+                    Deque<Integer> next = null;
+                    for (Map.Entry<String, Deque<Integer>> entry : pending.entrySet()) {
+                        Deque<Integer> queue = entry.getValue();
+                        if (queue.isEmpty() || hostInFlight.getOrDefault(entry.getKey(), 0) >= maxPerHost) {
+                            continue;
+                        }
+                        if (next == null || queue.peekFirst() < next.peekFirst()) {
+                            next = queue;
+                        }
+                    }
+                    if (next == null) {
+                        break;
+                    }
+
+                    int index = next.pollFirst();
+                    inFlight++;
+                    hostInFlight.merge(hosts[index], 1, Integer::sum);
+                    toStart.add(index);
+                }
+                if (toStart.isEmpty()) {
+                    // 在同一锁内结束派发，其他线程此前完成的任务已计入额度
+                    dispatching = false;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // 锁外启动，任务完成的回调可能在当前线程执行
+            for (Integer index : toStart) {
+                start(index);
+            }
+        }
+    }
+
+
+    private void start(int index) {
+        CompletableFuture<R> taskFuture;
+        try {
+            taskFuture = task.apply(index);
+        } catch (Throwable e) {
+            taskFuture = new CompletableFuture<>();
+            taskFuture.completeExceptionally(e);
+        }
+
+        taskFuture.whenComplete((result, e) -> complete(index, e == null ? result : onError.apply(index, e)));
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private void complete(int index, R result) {
+        boolean finished;
+
+        lock.lock();
+        try {
+            results[index] = result;
+            inFlight--;
+            hostInFlight.merge(hosts[index], -1, Integer::sum);
+            finished = ++done == results.length;
+        } finally {
+            lock.unlock();
+        }
+
+        if (finished) {
+            future.complete((List<R>) Arrays.asList(results));
+        } else {
+            dispatch();
+        }
+    }
+}
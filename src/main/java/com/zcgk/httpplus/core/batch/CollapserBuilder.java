@@ -0,0 +1,121 @@
+package com.zcgk.httpplus.core.batch;
+
+import com.zcgk.httpplus.core.endpoint.Endpoint;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/****************************************************
+ *
+ * 请求合并 构建器
+ *      如：HClientUtils.collapser(usersEndpoint, User::getId).param("ids").windowMillis(2).maxBatchSize(100).build()
+ *      批量接口须返回多个（list）；key 的类型须与 keyExtractor 取出的类型一致（如同为 Long）。构建器本身非线程安全
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 02:10
+ * @version 1.0
+ **************************************************/
+public final class CollapserBuilder<K, T> {
+
+    private final Endpoint<T> endpoint;
+
+    private final Function<T, K> keyExtractor;
+
+    private Function<List<K>, Map<String, Object>> params;
+
+    private long windowMicros = TimeUnit.MILLISECONDS.toMicros(2L);
+
+    private int maxBatchSize = 100;
+
+
+    public CollapserBuilder(Endpoint<T> endpoint, Function<T, K> keyExtractor) {
+        this.endpoint = Objects.requireNonNull(endpoint, "endpoint");
+        this.keyExtractor = Objects.requireNonNull(keyExtractor, "keyExtractor");
+    }
+
+
+    /**
+     * 批量参数名。get 请求时 key 以逗号拼接作为 url 参数（如：?ids={ids}），post 请求时 key 列表作为请求体参数
+     *
+     * @param name 参数名。如：ids
+     */
+    public CollapserBuilder<K, T> param(String name) {
+        if (HttpMethod.GET.equals(endpoint.getMethod())) {
+            return params(keys -> {
+                Map<String, Object> paramMap = new HashMap<>();
+                paramMap.put(name, StringUtils.collectionToCommaDelimitedString(keys));
+                return paramMap;
+            });
+        }
+        return params(keys -> {
+            Map<String, Object> paramMap = new HashMap<>();
+            paramMap.put(name, new ArrayList<>(keys));
+            return paramMap;
+        });
+    }
+
+
+    /**
+     * 由一批 key 构建请求参数，含义同 {@link Endpoint#call} 的 paramMap
+     *
+     * @param params 参数构建
+     */
+    public CollapserBuilder<K, T> params(Function<List<K>, Map<String, Object>> params) {
+        this.params = params;
+        return this;
+    }
+
+
+    /**
+     * 收集 key 的时长（毫秒），默认 2
+     */
+    public CollapserBuilder<K, T> windowMillis(long windowMillis) {
+        this.windowMicros = TimeUnit.MILLISECONDS.toMicros(windowMillis);
+        return this;
+    }
+
+
+    /**
+     * 收集 key 的时长（微秒），用于亚毫秒级的窗口
+     */
+    public CollapserBuilder<K, T> windowMicros(long windowMicros) {
+        this.windowMicros = windowMicros;
+        return this;
+    }
+
+
+    /**
+     * 一批最多的 key 数，达到后立即发出，默认 100
+     */
+    public CollapserBuilder<K, T> maxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+
+    /**
+     * 构建。配置不符合规范时抛出 IllegalStateException
+     *
+     * @return collapser
+     */
+    public RequestCollapser<K, T> build() {
+        if (endpoint.isSingle()) {
+            throw new IllegalStateException("批量接口须返回多个，须以 list(clazz) 构建 endpoint");
+        }
+        if (params == null) {
+            throw new IllegalStateException("未指定批量参数，须调用 param(name) 或 params(function)");
+        }
+        if (windowMicros < 0L || maxBatchSize <= 0) {
+            throw new IllegalStateException("windowMillis 不能小于0，maxBatchSize 须大于0");
+        }
+        return new RequestCollapser<>(endpoint, keyExtractor, params, windowMicros, maxBatchSize);
+    }
+}
@@ -0,0 +1,194 @@
+package com.zcgk.httpplus.core.batch;
+
+import com.zcgk.httpplus.core.endpoint.Endpoint;
+import com.zcgk.httpplus.core.engine.VirtualThreadExecutor;
+import com.zcgk.httpplus.core.utils.HClientUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/****************************************************
+ *
+ * 请求合并
+ *      将短时间内按单个 key 发起的请求合并为一次批量请求：收集 windowMillis 毫秒内（或达到 maxBatchSize 个）的 key，
+ *      以批量接口请求一次，按 keyExtractor 从返回的 list 中取出各 key 对应的元素分别返回。
+ *      同一窗口内相同的 key 只请求一次。批量请求在虚拟线程上执行，经过超时、重试、熔断、负载均衡等，与 {@link Endpoint#call} 一致。
+ *      通过 {@link CollapserBuilder} 构建，应保存为常量重复使用
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 02:10
+ * @version 1.0
+ **************************************************/
+public final class RequestCollapser<K, T> {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = scheduler();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Endpoint<T> endpoint;
+    private final Function<T, K> keyExtractor;
+    private final Function<List<K>, Map<String, Object>> params;
+    private final long windowMicros;
+    private final int maxBatchSize;
+
+    /**
+     * 当前窗口内等待的 key，为 null 时没有进行中的窗口
+     */
+    private Map<K, CompletableFuture<T>> pending;
+    private ScheduledFuture<?> timer;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+
+    RequestCollapser(Endpoint<T> endpoint, Function<T, K> keyExtractor, Function<List<K>, Map<String, Object>> params,
+                     long windowMicros, int maxBatchSize) {
+        this.endpoint = endpoint;
+        this.keyExtractor = keyExtractor;
+        this.params = params;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+
+    /**
+     * 按 key 请求，阻塞等待所在批次完成
+     *
+     * @param key key
+     * @return 批量接口返回的 list 中 key 对应的元素，没有对应元素时为 null。
+     *      返回值判断不成功时抛出 EnvelopeMismatchException，与请求失败一样同批的 key 都以该异常结束
+     */
+    public T get(K key) {
+        try {
+            return getAsync(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * 按 key 请求，不阻塞
+     *
+     * @param key key
+     * @return future 完成值同 {@link #get}，批量请求异常时以该异常结束
+     */
+    public CompletableFuture<T> getAsync(K key) {
+        requests.incrementAndGet();
+        Map<K, CompletableFuture<T>> full = null;
+        CompletableFuture<T> future;
+
+        lock.lock();
+        try {
+            if (pending == null) {
+                pending = new LinkedHashMap<>();
+                Map<K, CompletableFuture<T>> window = pending;
+                timer = SCHEDULER.schedule(() -> flush(window), windowMicros, TimeUnit.MICROSECONDS);
+            }
+            future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = null;
+                timer.cancel(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+
+    /**
+     * @return 累计请求数（按 key 计）
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+
+    /**
+     * @return 累计发出的批量请求数
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+
+    /**
+     * 窗口到期。窗口已因达到 maxBatchSize 而发出时忽略
+     */
+    private void flush(Map<K, CompletableFuture<T>> window) {
+        lock.lock();
+        try {
+            if (pending != window) {
+                return;
+            }
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+        send(window);
+    }
+
+
+    private void send(Map<K, CompletableFuture<T>> batch) {
+        batches.incrementAndGet();
+        List<K> keys = new ArrayList<>(batch.keySet());
+        CompletableFuture<List<T>> response;
+        try {
+            // 返回值判断不成功时抛出异常，不能当作各 key 都没有对应元素
+            response = VirtualThreadExecutor.supply(() -> HClientUtils.callEnvelope(endpoint, params.apply(keys)).getData());
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+
+        response.whenComplete((tList, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                batch.values().forEach(future -> future.completeExceptionally(cause));
+                return;
+            }
+
+            Map<K, T> byKey = new HashMap<>();
+            if (tList != null) {
+                for (T t : tList) {
+                    if (t != null) {
+                        byKey.putIfAbsent(keyExtractor.apply(t), t);
+                    }
+                }
+            }
+            batch.forEach((key, future) -> future.complete(byKey.get(key)));
+        });
+    }
+
+
+    private static ScheduledThreadPoolExecutor scheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "hclient-collapser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,37 @@
+package com.zcgk.httpplus.core.cache;
+
+import lombok.Value;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/****************************************************
+ *
+ * 响应缓存 key
+ *      展开后的 url + 参数 + 解码方式，解码方式不同的调用不共享缓存。
+ *      paramMap、resultMap 须是调用方参数的副本，创建后不再修改，否则已缓存的条目无法命中或被错误命中
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 14:30
+ * @version 1.0
+ **************************************************/
+@Value
+public class CacheKey {
+
+    private String url;
+
+    private Map<String, Object> paramMap;
+
+    /**
+     * 返回值类型，已归一，见 BindingTypes
+     */
+    private Type type;
+
+    private Map<String, String> resultMap;
+
+    private String dataFieldName;
+
+    private String responseDataType;
+
+}
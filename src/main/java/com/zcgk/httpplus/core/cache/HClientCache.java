@@ -0,0 +1,254 @@
+package com.zcgk.httpplus.core.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/****************************************************
+ *
+ * get 请求响应缓存
+ *      按接口 url 模板注册后生效，缓存解码后的 List<T>，命中时既不发请求也不解码。
+ *      每个接口单独设置过期时间；总条数有上限，超出后按 W-TinyLFU 淘汰；
+ *      同一 key 并发未命中时只发起一次请求，其余调用等待同一结果。
+ *      另可注册为条件请求接口：保存响应的 ETag / Last-Modified，再次请求时服务端返回 304 则复用上次的解码结果。
+ *      返回的 list 是副本，但其中的元素与缓存共享（不深拷贝），调用方须将元素视为只读
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 14:30
+ * @version 1.0
+ **************************************************/
+public final class HClientCache {
+
+    /**
+     * 默认最大缓存条数
+     */
+    public static final long DEFAULT_MAX_ENTRIES = 10000L;
+
+    /**
+     * url 模板 -> 过期时间
+     */
+    private static final Map<String, Duration> TTL_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 条件请求的 url 模板
+     */
+    private static final Set<String> CONDITIONAL_SET = ConcurrentHashMap.newKeySet();
+
+    private static volatile AsyncCache<CacheKey, CacheValue> cache = build(DEFAULT_MAX_ENTRIES);
+
+    private static volatile Cache<CacheKey, Validated> validatedCache = buildValidated(DEFAULT_MAX_ENTRIES);
+
+    private HClientCache() {
+    }
+
+
+    /**
+     * 注册需要缓存的接口
+     *
+     * @param url 接口url，与 getApi 的 url 参数一致。如：http://127.0.0.1:8080/user?args={args}
+     * @param ttl 过期时间
+     */
+    public static void register(String url, Duration ttl) {
+        TTL_MAP.put(url, ttl);
+    }
+
+
+    /**
+     * 注册为条件请求接口。可与 {@link #register} 同时使用：过期后以条件请求重新校验
+     *
+     * @param url 接口url，与 getApi 的 url 参数一致
+     */
+    public static void registerConditional(String url) {
+        CONDITIONAL_SET.add(url);
+    }
+
+
+    /**
+     * 取消缓存及条件请求，已缓存的值在过期前仍可能被命中，需要时调用 {@link #invalidateAll()}
+     *
+     * @param url 接口url
+     */
+    public static void unregister(String url) {
+        TTL_MAP.remove(url);
+        CONDITIONAL_SET.remove(url);
+    }
+
+
+    /**
+     * 重建缓存并设置最大缓存条数，已缓存的值全部丢弃
+     *
+     * @param maxEntries 最大缓存条数
+     */
+    public static void configure(long maxEntries) {
+        cache = build(maxEntries);
+        validatedCache = buildValidated(maxEntries);
+    }
+
+
+    public static void invalidateAll() {
+        cache.synchronous().invalidateAll();
+        validatedCache.invalidateAll();
+    }
+
+
+    public static CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+
+    /**
+     * @param url 接口url
+     * @return 过期时间。未注册时为 null
+     */
+    public static Duration ttl(String url) {
+        return TTL_MAP.get(url);
+    }
+
+
+    /**
+     * @param url 接口url
+     * @return 是否为条件请求接口
+     */
+    public static boolean isConditional(String url) {
+        return CONDITIONAL_SET.contains(url);
+    }
+
+
+    /**
+     * @param key key
+     * @return 上次响应的校验值。没有时为 null
+     */
+    public static Validated validated(CacheKey key) {
+        return validatedCache.getIfPresent(key);
+    }
+
+
+    /**
+     * 保存响应的校验值及解码结果。etag 与 lastModified 均为空时不保存
+     *
+     * @param key key
+     * @param etag 响应头 ETag
+     * @param lastModified 响应头 Last-Modified
+     * @param data 解码结果
+     */
+    public static void putValidated(CacheKey key, String etag, String lastModified, List<?> data) {
+        if (etag == null && lastModified == null) {
+            return;
+        }
+        validatedCache.put(key, new Validated(etag, lastModified, data));
+    }
+
+
+    /**
+     * 读取缓存，未命中时调用 loader 并缓存其结果
+     *      loader 返回 null 或 [null]（请求失败）时不缓存，调用 loader 的线程及并发等待的调用均得到 loader 的原值
+     *
+     * @param key key
+     * @param ttl 过期时间
+     * @param loader 实际请求
+     * @param <T> 泛型
+     * @return list 为副本，调用方可增删；元素与缓存共享，不可修改
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> get(CacheKey key, Duration ttl, Supplier<List<T>> loader) {
+        // 在 compute 外加载：compute 持有 ConcurrentHashMap 的桶锁（synchronized），在其中请求会阻塞同桶的其他 key，
+        // 虚拟线程还会占住载体线程
+        CompletableFuture<CacheValue> created = new CompletableFuture<>();
+        CompletableFuture<CacheValue> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            List<T> tList;
+            try {
+                tList = loader.get();
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+            boolean failed = tList == null || (tList.size() == 1 && tList.get(0) == null);
+            if (failed) {
+                // 先移除再完成，其他调用不会命中失败的结果；已在等待的调用得到同一结果
+                cache.asMap().remove(key, created);
+                created.complete(new CacheValue(tList, 0L));
+                return tList;
+            }
+            created.complete(new CacheValue(tList, ttl.toNanos()));
+            return new ArrayList<>(tList);
+        }
+
+        CacheValue value;
+        try {
+            value = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        return value.data == null ? null : new ArrayList<>((List<T>) value.data);
+    }
+
+
+    private static AsyncCache<CacheKey, CacheValue> build(long maxEntries) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new CacheExpiry())
+                // 在首个未命中的调用线程中加载（见 get），其余并发调用等待同一 future
+                .executor(Runnable::run)
+                .recordStats()
+                .buildAsync();
+    }
+
+
+    private static Cache<CacheKey, Validated> buildValidated(long maxEntries) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+
+    private static final class CacheValue {
+
+        private final List<?> data;
+        private final long ttlNanos;
+
+        private CacheValue(List<?> data, long ttlNanos) {
+            this.data = data;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+
+    /**
+     * 按缓存值各自的过期时间过期，读取不续期
+     */
+    private static final class CacheExpiry implements Expiry<CacheKey, CacheValue> {
+
+        @Override
+        public long expireAfterCreate(CacheKey key, CacheValue value, long currentTime) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, CacheValue value, long currentTime, long currentDuration) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, CacheValue value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
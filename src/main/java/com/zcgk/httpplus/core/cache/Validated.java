@@ -0,0 +1,26 @@
+package com.zcgk.httpplus.core.cache;
+
+import lombok.Value;
+
+import java.util.List;
+
+/****************************************************
+ *
+ * 条件请求 -- 上次响应的校验值及解码结果
+ *      再次请求时带上 If-None-Match / If-Modified-Since，返回 304 时直接使用 data
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 15:10
+ * @version 1.0
+ **************************************************/
+@Value
+public class Validated {
+
+    private String etag;
+
+    private String lastModified;
+
+    private List<?> data;
+
+}
@@ -0,0 +1,61 @@
+package com.zcgk.httpplus.core.decode;
+
+import com.alibaba.fastjson.util.ParameterizedTypeImpl;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/****************************************************
+ *
+ * 返回值类型 归一
+ *      fastjson 按 Type 实例（IdentityHashMap）缓存反序列化器，每次新建的 ParameterizedType 都会重新解析泛型、
+ *      生成反序列化器，且不断累积在缓存中。此处将相等的 Type 归一为同一实例，同一类型只解析一次
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 23:20
+ * @version 1.0
+ **************************************************/
+public final class BindingTypes {
+
+    private static final ConcurrentMap<Type, Type> CANONICAL = new ConcurrentHashMap<>();
+
+    /**
+     * 元素类型 -> List<元素类型>
+     */
+    private static final ConcurrentMap<Type, Type> LIST_TYPES = new ConcurrentHashMap<>();
+
+    private BindingTypes() {
+    }
+
+
+    /**
+     * @param type 类型。Class 或 ParameterizedType 等
+     * @return 与 type 相等的唯一实例
+     */
+    public static Type canonical(Type type) {
+        if (type instanceof Class) {
+            // Class 本身唯一
+            return type;
+        }
+        Type existing = CANONICAL.putIfAbsent(type, type);
+        return existing == null ? type : existing;
+    }
+
+
+    /**
+     * @param elementType 元素类型
+     * @return List<elementType>，同一元素类型返回同一实例
+     */
+    public static Type listOf(Type elementType) {
+        Type element = canonical(elementType);
+        Type listType = LIST_TYPES.get(element);
+        if (listType == null) {
+            listType = LIST_TYPES.computeIfAbsent(element,
+                    e -> canonical(new ParameterizedTypeImpl(new Type[]{e}, null, List.class)));
+        }
+        return listType;
+    }
+}
@@ -0,0 +1,39 @@
+package com.zcgk.httpplus.core.decode;
+
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+import java.util.List;
+
+/****************************************************
+ *
+ * 响应体 编解码方式
+ *      按返回类型（responseType）选择，请求头 Accept 声明其 Content-Type；
+ *      响应的 Content-Type 属于其他已注册的编解码方式时，按响应实际格式解码。见 {@link EnvelopeCodecs}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 21:30
+ * @version 1.0
+ **************************************************/
+public interface EnvelopeCodec {
+
+    /**
+     * @return 名称，即返回类型。如：json
+     */
+    String getName();
+
+    /**
+     * @return 可解码的 Content-Type，首个优先
+     */
+    List<MediaType> getMediaTypes();
+
+    /**
+     * 开始读取响应体
+     *
+     * @param body 响应体，reader 关闭时关闭
+     * @param contentType 响应头 Content-Type。可为 null
+     * @return reader
+     */
+    EnvelopeReader open(InputStream body, MediaType contentType);
+}
@@ -0,0 +1,127 @@
+package com.zcgk.httpplus.core.decode;
+
+import com.zcgk.httpplus.config.Constants4Http;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/****************************************************
+ *
+ * 响应体 编解码方式 注册表
+ *      返回类型 json、string 均为 fastjson 解码，smile 为 jackson 二进制解码，可通过 register 扩展。
+ *      请求头 Accept 依次为：所选方式的首个 Content-Type、application/json、*\/*，服务端不支持二进制格式时仍可按 json 返回
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 21:30
+ * @version 1.0
+ **************************************************/
+public final class EnvelopeCodecs {
+
+    public static final EnvelopeCodec JSON = new JsonEnvelopeCodec();
+
+    public static final EnvelopeCodec SMILE = new SmileEnvelopeCodec();
+
+    /**
+     * 返回类型 -> 编解码方式
+     */
+    private static final Map<String, EnvelopeCodec> CODECS = new ConcurrentHashMap<>();
+
+    /**
+     * 按注册顺序，用于按响应 Content-Type 匹配
+     */
+    private static final List<EnvelopeCodec> REGISTERED = new CopyOnWriteArrayList<>();
+
+    /**
+     * 编解码方式 -> 请求头 Accept
+     */
+    private static final Map<EnvelopeCodec, List<MediaType>> ACCEPT_TYPES = new ConcurrentHashMap<>();
+
+    static {
+        register(JSON);
+        CODECS.put(Constants4Http.RESPONSE_TYPE_4_STRING, JSON);
+        register(SMILE);
+    }
+
+
+    private EnvelopeCodecs() {
+    }
+
+
+    /**
+     * 注册编解码方式，之后可以其名称作为返回类型。同名时覆盖
+     *
+     * @param codec 编解码方式
+     */
+    public static void register(EnvelopeCodec codec) {
+        Objects.requireNonNull(codec.getName(), "name");
+        EnvelopeCodec previous = CODECS.put(codec.getName(), codec);
+        if (previous != null) {
+            REGISTERED.remove(previous);
+        }
+        REGISTERED.add(codec);
+    }
+
+
+    /**
+     * @param responseType 返回类型
+     * @return codec 未注册时为 null
+     */
+    public static EnvelopeCodec of(String responseType) {
+        return responseType == null ? null : CODECS.get(responseType);
+    }
+
+
+    /**
+     * 按响应 Content-Type 选择解码方式
+     *      Content-Type 为空、属于 preferred 或不属于任何已注册方式时，使用 preferred（与原先不校验 Content-Type 一致）
+     *
+     * @param contentType 响应头 Content-Type
+     * @param preferred 返回类型对应的方式
+     * @return codec
+     */
+    public static EnvelopeCodec forContentType(MediaType contentType, EnvelopeCodec preferred) {
+        if (contentType == null || supports(preferred, contentType)) {
+            return preferred;
+        }
+        for (EnvelopeCodec codec : REGISTERED) {
+            if (supports(codec, contentType)) {
+                return codec;
+            }
+        }
+        return preferred;
+    }
+
+
+    /**
+     * @param codec 编解码方式
+     * @return 请求头 Accept
+     */
+    public static List<MediaType> acceptTypes(EnvelopeCodec codec) {
+        return ACCEPT_TYPES.computeIfAbsent(codec, c -> {
+            List<MediaType> types = new ArrayList<>(3);
+            types.add(c.getMediaTypes().get(0));
+            if (!types.contains(MediaType.APPLICATION_JSON)) {
+                types.add(MediaType.APPLICATION_JSON);
+            }
+            types.add(MediaType.ALL);
+            return Collections.unmodifiableList(types);
+        });
+    }
+
+
+    private static boolean supports(EnvelopeCodec codec, MediaType contentType) {
+        for (MediaType mediaType : codec.getMediaTypes()) {
+            if (mediaType.includes(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,288 @@
+package com.zcgk.httpplus.core.decode;
+
+import org.springframework.util.StringUtils;
+
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/****************************************************
+ *
+ * 接口返回值 流式解码
+ *      单次读取：只收集 resultMap 中的状态字段，dataFieldName 对应的值直接绑定为目标类型，
+ *      不再先构建完整的 JSONObject 再二次转换。json、smile 等格式均按此逻辑解码，见 {@link EnvelopeCodec}。
+ *      目标类型可为 Class 或泛型（如 Map<String, Foo>、List<Foo>），各类型的读取方式只创建一次，见 {@link BindingTypes}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 10:40
+ * @version 1.0
+ **************************************************/
+public final class EnvelopeDecoder {
+
+    /**
+     * 类型 -> 读取方式，类型已归一
+     */
+    private static final ConcurrentMap<Type, ValueReader<?>> OBJ_READERS = new ConcurrentHashMap<>();
+
+    /**
+     * 元素类型 -> List 读取方式，类型已归一
+     */
+    private static final ConcurrentMap<Type, ValueReader<?>> LIST_READERS = new ConcurrentHashMap<>();
+
+    private EnvelopeDecoder() {
+    }
+
+
+    /**
+     * 读取一个值
+     *
+     * @param <T> 泛型
+     */
+    @FunctionalInterface
+    public interface ValueReader<T> {
+
+        /**
+         * 从 reader 当前位置读取一个完整的值
+         *
+         * @param reader 响应体 reader
+         * @return 值
+         */
+        T read(EnvelopeReader reader);
+    }
+
+
+    /**
+     * 返回值为单个对象
+     *
+     * @param reader 响应体
+     * @param clazz t.class
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param <T> 泛型
+     * @return envelope
+     */
+    public static <T> ResponseEnvelope<T> decodeObj(Reader reader, Class<T> clazz, Map<String, String> resultMap, String dataFieldName) {
+        return decodeObj(reader, (Type) clazz, resultMap, dataFieldName);
+    }
+
+
+    /**
+     * 返回值为单个对象，类型可带泛型。如：new TypeReference<Map<String, Foo>>() {}.getType()
+     *
+     * @param reader 响应体
+     * @param type 类型
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param <T> 泛型
+     * @return envelope
+     */
+    public static <T> ResponseEnvelope<T> decodeObj(Reader reader, Type type, Map<String, String> resultMap, String dataFieldName) {
+        return decode(reader, resultMap, dataFieldName, EnvelopeDecoder.<T>objReader(type), EnvelopeDecoder.<T>dataReader(type));
+    }
+
+
+    /**
+     * 返回值为数组
+     *
+     * @param reader 响应体
+     * @param clazz t.class
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param <T> 泛型
+     * @return envelope
+     */
+    public static <T> ResponseEnvelope<List<T>> decodeList(Reader reader, Class<T> clazz, Map<String, String> resultMap, String dataFieldName) {
+        return decodeList(reader, (Type) clazz, resultMap, dataFieldName);
+    }
+
+
+    /**
+     * 返回值为数组，元素类型可带泛型
+     *
+     * @param reader 响应体
+     * @param elementType 元素类型
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param <T> 泛型
+     * @return envelope
+     */
+    public static <T> ResponseEnvelope<List<T>> decodeList(Reader reader, Type elementType, Map<String, String> resultMap, String dataFieldName) {
+        ValueReader<List<T>> listReader = listReader(elementType);
+        return decode(reader, resultMap, dataFieldName, listReader, listReader);
+    }
+
+
+    /**
+     * 解码
+     *      resultMap 或 dataFieldName 为空时，整个响应体即为返回值；
+     *      否则逐个字段读取，状态字段先于 data 出现且已判定失败时，data 不再绑定
+     *
+     * @param reader 响应体
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param rootReader 整个响应体的读取方式
+     * @param dataReader data 字段的读取方式
+     * @param <T> 泛型
+     * @return envelope
+     */
+    public static <T> ResponseEnvelope<T> decode(Reader reader, Map<String, String> resultMap, String dataFieldName,
+                                                 ValueReader<T> rootReader, ValueReader<T> dataReader) {
+        return decode(reader, SuccessPredicate.of(resultMap), dataFieldName, rootReader, dataReader);
+    }
+
+
+    /**
+     * 解码
+     *      predicate 为空或 dataFieldName 为空时，整个响应体即为返回值；
+     *      否则逐个字段读取，状态字段先于 data 出现且已判定失败时，data 不再绑定
+     *
+     * @param reader 响应体
+     * @param predicate 返回是否成功的判断条件
+     * @param dataFieldName 返回的 值字段名
+     * @param rootReader 整个响应体的读取方式
+     * @param dataReader data 字段的读取方式
+     * @param <T> 泛型
+     * @return envelope
+     */
+    public static <T> ResponseEnvelope<T> decode(Reader reader, SuccessPredicate predicate, String dataFieldName,
+                                                 ValueReader<T> rootReader, ValueReader<T> dataReader) {
+        return decode(JsonEnvelopeCodec.open(reader), predicate, dataFieldName, rootReader, dataReader);
+    }
+
+
+    /**
+     * 解码，格式由 reader 决定。见 {@link #decode(Reader, SuccessPredicate, String, ValueReader, ValueReader)}
+     *
+     * @param reader 响应体 reader，解码后关闭
+     * @param predicate 返回是否成功的判断条件
+     * @param dataFieldName 返回的 值字段名
+     * @param rootReader 整个响应体的读取方式
+     * @param dataReader data 字段的读取方式
+     * @param <T> 泛型
+     * @return envelope
+     */
+    public static <T> ResponseEnvelope<T> decode(EnvelopeReader reader, SuccessPredicate predicate, String dataFieldName,
+                                                 ValueReader<T> rootReader, ValueReader<T> dataReader) {
+        ResponseEnvelope<T> envelope = new ResponseEnvelope<>();
+
+        try {
+            if (reader.isEmpty()) {
+                // 响应体为空
+                return envelope;
+            }
+
+            if (predicate.isEmpty() || StringUtils.isEmpty(dataFieldName)) {
+                // 直接返回data
+                envelope.setData(rootReader.read(reader));
+                return envelope;
+            }
+
+            // 有 code、msg 等一系列值，按下标保存，不创建 map
+            Object[] state = predicate.newState();
+            boolean mismatch = false;
+
+            reader.startObject();
+            while (reader.hasNext()) {
+                String key = reader.readKey();
+                int index = predicate.indexOf(key);
+
+                if (index >= 0) {
+                    Object value = reader.readValue();
+                    state[index] = value;
+                    mismatch |= !predicate.test(index, value);
+                } else if (dataFieldName.equals(key) && !mismatch) {
+                    envelope.setData(dataReader.read(reader));
+                } else {
+                    // 其余字段跳过
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            envelope.setState(predicate, state);
+            return envelope;
+        } finally {
+            reader.close();
+        }
+    }
+
+
+    public static <T> ValueReader<T> objReader(Class<T> clazz) {
+        return objReader((Type) clazz);
+    }
+
+
+    /**
+     * 按 type 直接绑定。String、Integer、Long 等标量同样直接读取，无需包装
+     *
+     * @param type 类型。Class 或 ParameterizedType 等
+     * @param <T> 泛型
+     * @return reader 同一类型返回同一实例
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueReader<T> objReader(Type type) {
+        Type canonical = BindingTypes.canonical(type);
+        ValueReader<?> valueReader = OBJ_READERS.get(canonical);
+        if (valueReader == null) {
+            valueReader = OBJ_READERS.computeIfAbsent(canonical, t -> reader -> reader.readValue(t));
+        }
+        return (ValueReader<T>) valueReader;
+    }
+
+
+    public static <T> ValueReader<T> dataReader(Class<T> clazz) {
+        return dataReader((Type) clazz);
+    }
+
+
+    /**
+     * data 字段为 string/integer 时，直接包装为 JavaBean4String/JavaBean4Integer。
+     *      兼容旧的调用方式，标量可直接传 String.class、Integer.class
+     *
+     * @param type 类型
+     * @param <T> 泛型
+     * @return reader
+     */
+    @SuppressWarnings({"unchecked", "deprecation"})
+    public static <T> ValueReader<T> dataReader(Type type) {
+        // 已废弃的类型以全限定名引用：java 8 中 import 已废弃的类型产生的警告无法以注解消除
+        if (com.zcgk.httpplus.core.domain.vo.resp.JavaBean4String.class.equals(type)) {
+            // 返回值是String
+            return reader -> (T) new com.zcgk.httpplus.core.domain.vo.resp.JavaBean4String(reader.<String>readValue(String.class));
+        } else if (com.zcgk.httpplus.core.domain.vo.resp.JavaBean4Integer.class.equals(type)) {
+            // 返回值是Integer
+            return reader -> (T) new com.zcgk.httpplus.core.domain.vo.resp.JavaBean4Integer(reader.<Integer>readValue(Integer.class));
+        }
+        return objReader(type);
+    }
+
+
+    public static <T> ValueReader<List<T>> listReader(Class<T> clazz) {
+        return listReader((Type) clazz);
+    }
+
+
+    /**
+     * 按 List<T> 类型直接绑定，不构建中间的 JSONArray
+     *
+     * @param elementType 元素类型
+     * @param <T> 泛型
+     * @return reader 同一元素类型返回同一实例
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueReader<List<T>> listReader(Type elementType) {
+        Type element = BindingTypes.canonical(elementType);
+        ValueReader<?> valueReader = LIST_READERS.get(element);
+        if (valueReader == null) {
+            valueReader = LIST_READERS.computeIfAbsent(element, e -> {
+                Type listType = BindingTypes.listOf(e);
+                return reader -> reader.readValue(listType);
+            });
+        }
+        return (ValueReader<List<T>>) valueReader;
+    }
+}
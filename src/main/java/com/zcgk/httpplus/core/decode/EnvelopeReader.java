@@ -0,0 +1,60 @@
+package com.zcgk.httpplus.core.decode;
+
+import java.lang.reflect.Type;
+
+/****************************************************
+ *
+ * 按 token 读取响应体，由 {@link EnvelopeCodec} 创建
+ *      屏蔽 json / smile 等格式的差异，使 resultMap、dataFieldName 的判断逻辑在各格式间一致，见 {@link EnvelopeDecoder}。
+ *      读取失败时抛出运行时异常
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 21:30
+ * @version 1.0
+ **************************************************/
+public interface EnvelopeReader extends AutoCloseable {
+
+    /**
+     * @return 响应体是否为空。仅在读取前调用
+     */
+    boolean isEmpty();
+
+    void startObject();
+
+    /**
+     * @return 当前对象是否还有字段
+     */
+    boolean hasNext();
+
+    /**
+     * @return 下一个字段名，之后读取该字段的值
+     */
+    String readKey();
+
+    /**
+     * 按值本身的类型读取：对象为 Map，数组为 List，其余为 String、Integer、Long、Boolean 等
+     *
+     * @return 值
+     */
+    Object readValue();
+
+    /**
+     * 按指定类型绑定
+     *
+     * @param type 类型。Class 或 ParameterizedType
+     * @param <V> 泛型
+     * @return 值
+     */
+    <V> V readValue(Type type);
+
+    /**
+     * 跳过一个完整的值
+     */
+    void skipValue();
+
+    void endObject();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,192 @@
+package com.zcgk.httpplus.core.decode;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/****************************************************
+ *
+ * 直接从响应流解码，不经过 HttpMessageConverter
+ *      解码方式按响应头 Content-Type 选择，见 {@link EnvelopeCodecs#forContentType}；
+ *      json 字符集取 Content-Type 中的 charset，未指定时为 utf-8
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 10:40
+ * @version 1.0
+ **************************************************/
+public class EnvelopeResponseExtractor<T> implements ResponseExtractor<ResponseEnvelope<T>> {
+
+    private final SuccessPredicate predicate;
+    private final String dataFieldName;
+    private final EnvelopeDecoder.ValueReader<T> rootReader;
+    private final EnvelopeDecoder.ValueReader<T> dataReader;
+
+    /**
+     * 返回类型对应的编解码方式，决定请求头 Accept
+     */
+    private final EnvelopeCodec codec;
+
+    public EnvelopeResponseExtractor(Map<String, String> resultMap, String dataFieldName,
+                                     EnvelopeDecoder.ValueReader<T> rootReader, EnvelopeDecoder.ValueReader<T> dataReader) {
+        this(SuccessPredicate.of(resultMap), dataFieldName, rootReader, dataReader);
+    }
+
+    public EnvelopeResponseExtractor(SuccessPredicate predicate, String dataFieldName,
+                                     EnvelopeDecoder.ValueReader<T> rootReader, EnvelopeDecoder.ValueReader<T> dataReader) {
+        this(predicate, dataFieldName, rootReader, dataReader, EnvelopeCodecs.JSON);
+    }
+
+    public EnvelopeResponseExtractor(SuccessPredicate predicate, String dataFieldName,
+                                     EnvelopeDecoder.ValueReader<T> rootReader, EnvelopeDecoder.ValueReader<T> dataReader,
+                                     EnvelopeCodec codec) {
+        this.predicate = predicate;
+        this.dataFieldName = dataFieldName;
+        this.rootReader = rootReader;
+        this.dataReader = dataReader;
+        this.codec = codec;
+    }
+
+
+    public static <T> EnvelopeResponseExtractor<T> obj(Class<T> clazz, Map<String, String> resultMap, String dataFieldName) {
+        return obj(clazz, SuccessPredicate.of(resultMap), dataFieldName);
+    }
+
+    public static <T> EnvelopeResponseExtractor<T> obj(Class<T> clazz, SuccessPredicate predicate, String dataFieldName) {
+        return obj(clazz, predicate, dataFieldName, EnvelopeCodecs.JSON);
+    }
+
+    public static <T> EnvelopeResponseExtractor<T> obj(Class<T> clazz, SuccessPredicate predicate, String dataFieldName,
+                                                       EnvelopeCodec codec) {
+        return obj((Type) clazz, predicate, dataFieldName, codec);
+    }
+
+    /**
+     * 返回值为单个对象，类型可带泛型
+     */
+    public static <T> EnvelopeResponseExtractor<T> obj(Type type, SuccessPredicate predicate, String dataFieldName,
+                                                       EnvelopeCodec codec) {
+        return new EnvelopeResponseExtractor<>(predicate, dataFieldName,
+                EnvelopeDecoder.<T>objReader(type), EnvelopeDecoder.<T>dataReader(type), codec);
+    }
+
+    /**
+     * 返回值为单个对象，解码为仅含一个元素的 list
+     */
+    public static <T> EnvelopeResponseExtractor<List<T>> objAsList(Class<T> clazz, Map<String, String> resultMap, String dataFieldName) {
+        return objAsList(clazz, SuccessPredicate.of(resultMap), dataFieldName);
+    }
+
+    public static <T> EnvelopeResponseExtractor<List<T>> objAsList(Class<T> clazz, SuccessPredicate predicate, String dataFieldName) {
+        return objAsList(clazz, predicate, dataFieldName, EnvelopeCodecs.JSON);
+    }
+
+    public static <T> EnvelopeResponseExtractor<List<T>> objAsList(Class<T> clazz, SuccessPredicate predicate, String dataFieldName,
+                                                                   EnvelopeCodec codec) {
+        return objAsList((Type) clazz, predicate, dataFieldName, codec);
+    }
+
+    public static <T> EnvelopeResponseExtractor<List<T>> objAsList(Type type, SuccessPredicate predicate, String dataFieldName,
+                                                                   EnvelopeCodec codec) {
+        return new EnvelopeResponseExtractor<>(predicate, dataFieldName,
+                singletonList(EnvelopeDecoder.<T>objReader(type)), singletonList(EnvelopeDecoder.<T>dataReader(type)), codec);
+    }
+
+    public static <T> EnvelopeResponseExtractor<List<T>> list(Class<T> clazz, Map<String, String> resultMap, String dataFieldName) {
+        return list(clazz, SuccessPredicate.of(resultMap), dataFieldName);
+    }
+
+    public static <T> EnvelopeResponseExtractor<List<T>> list(Class<T> clazz, SuccessPredicate predicate, String dataFieldName) {
+        return list(clazz, predicate, dataFieldName, EnvelopeCodecs.JSON);
+    }
+
+    public static <T> EnvelopeResponseExtractor<List<T>> list(Class<T> clazz, SuccessPredicate predicate, String dataFieldName,
+                                                              EnvelopeCodec codec) {
+        return list((Type) clazz, predicate, dataFieldName, codec);
+    }
+
+    /**
+     * 返回值为数组，元素类型可带泛型
+     */
+    public static <T> EnvelopeResponseExtractor<List<T>> list(Type elementType, SuccessPredicate predicate, String dataFieldName,
+                                                              EnvelopeCodec codec) {
+        EnvelopeDecoder.ValueReader<List<T>> listReader = EnvelopeDecoder.listReader(elementType);
+        return new EnvelopeResponseExtractor<>(predicate, dataFieldName, listReader, listReader, codec);
+    }
+
+
+    public SuccessPredicate getPredicate() {
+        return predicate;
+    }
+
+
+    public EnvelopeCodec getCodec() {
+        return codec;
+    }
+
+
+    /**
+     * @return 请求头 Accept
+     */
+    public List<MediaType> getAcceptTypes() {
+        return EnvelopeCodecs.acceptTypes(codec);
+    }
+
+
+    @Override
+    public ResponseEnvelope<T> extractData(ClientHttpResponse response) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        if (response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            // 条件请求未修改，无响应体
+            ResponseEnvelope<T> envelope = new ResponseEnvelope<>();
+            envelope.setNotModified(true);
+            return envelope;
+        }
+
+        ResponseEnvelope<T> envelope = extractData(response.getBody(), headers.getContentType());
+        envelope.setEtag(headers.getETag());
+        envelope.setLastModified(headers.getFirst(HttpHeaders.LAST_MODIFIED));
+        return envelope;
+    }
+
+
+    /**
+     * 从响应流解码
+     *
+     * @param body 响应体
+     * @param contentType 响应头 Content-Type
+     * @return envelope
+     */
+    public ResponseEnvelope<T> extractData(InputStream body, MediaType contentType) {
+        EnvelopeReader reader = EnvelopeCodecs.forContentType(contentType, codec).open(body, contentType);
+        return EnvelopeDecoder.decode(reader, predicate, dataFieldName, rootReader, dataReader);
+    }
+
+
+    private static <T> EnvelopeDecoder.ValueReader<List<T>> singletonList(EnvelopeDecoder.ValueReader<T> valueReader) {
+        return reader -> {
+            List<T> tempList = new ArrayList<>();
+            tempList.add(valueReader.read(reader));
+            return tempList;
+        };
+    }
+
+
+    public static Charset charset(MediaType contentType) {
+        if (contentType == null || contentType.getCharset() == null) {
+            return StandardCharsets.UTF_8;
+        }
+        return contentType.getCharset();
+    }
+}
@@ -0,0 +1,211 @@
+package com.zcgk.httpplus.core.decode;
+
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.JSONToken;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/****************************************************
+ *
+ * 接口返回值 流式逐个读取
+ *      定位到 dataFieldName 对应的数组后，每次只绑定一个元素，内存占用与数组长度无关。
+ *      resultMap 中的状态字段需位于 data 之前才能在读取元素前完成判断。
+ *      未读到结尾就关闭时（提前结束 stream、状态判断不成功）先中止请求，不读取剩余的响应体
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 16:20
+ * @version 1.0
+ **************************************************/
+public final class EnvelopeStream {
+
+    private EnvelopeStream() {
+    }
+
+
+    /**
+     * 读取到数组开始处
+     *      返回的 data 关闭时关闭响应；data 为空（状态判断不成功、无数组）时响应已关闭
+     *
+     * @param response 响应
+     * @param clazz t.class
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param <T> 泛型
+     * @return envelope 的 state 为 data 之前出现的状态字段
+     * @throws IOException 读取响应失败
+     */
+    public static <T> ResponseEnvelope<Stream<T>> open(ClientHttpResponse response, Class<T> clazz,
+                                                       Map<String, String> resultMap, String dataFieldName) throws IOException {
+        return open(response, clazz, SuccessPredicate.of(resultMap), dataFieldName);
+    }
+
+
+    /**
+     * 读取到数组开始处。见 {@link #open(ClientHttpResponse, Class, Map, String)}
+     *
+     * @param response 响应
+     * @param clazz t.class
+     * @param predicate 返回是否成功的判断条件
+     * @param dataFieldName 返回的 值字段名
+     * @param <T> 泛型
+     * @return envelope
+     * @throws IOException 读取响应失败
+     */
+    public static <T> ResponseEnvelope<Stream<T>> open(ClientHttpResponse response, Class<T> clazz,
+                                                       SuccessPredicate predicate, String dataFieldName) throws IOException {
+        return open(response, clazz, predicate, dataFieldName, null);
+    }
+
+
+    /**
+     * 读取到数组开始处。见 {@link #open(ClientHttpResponse, Class, Map, String)}
+     *
+     * @param response 响应
+     * @param clazz t.class
+     * @param predicate 返回是否成功的判断条件
+     * @param dataFieldName 返回的 值字段名
+     * @param abort 中止请求。未读到结尾就关闭时在关闭响应前调用，为 null 时读完剩余的响应体
+     * @param <T> 泛型
+     * @return envelope
+     * @throws IOException 读取响应失败
+     */
+    public static <T> ResponseEnvelope<Stream<T>> open(ClientHttpResponse response, Class<T> clazz,
+                                                       SuccessPredicate predicate, String dataFieldName, Runnable abort) throws IOException {
+        ResponseEnvelope<Stream<T>> envelope = new ResponseEnvelope<>();
+
+        JSONLexer lexer = new JSONReaderScanner(new FillingReader(new InputStreamReader(response.getBody(),
+                EnvelopeResponseExtractor.charset(response.getHeaders().getContentType()))));
+        JSONReader jsonReader = new JSONReader(lexer);
+
+        boolean opened = false;
+        boolean complete = false;
+        try {
+            if (predicate.isEmpty() || StringUtils.isEmpty(dataFieldName)) {
+                // 直接返回data
+                if (jsonReader.peek() == JSONToken.LBRACKET) {
+                    envelope.setData(stream(lexer, jsonReader, response, clazz, abort));
+                    opened = true;
+                }
+                return envelope;
+            }
+
+            // 有 code、msg 等一系列值，按下标保存，不创建 map
+            Object[] state = predicate.newState();
+            envelope.setState(predicate, state);
+
+            jsonReader.startObject();
+            while (jsonReader.hasNext()) {
+                String key = jsonReader.readString();
+                int index = predicate.indexOf(key);
+
+                if (index >= 0) {
+                    Object value = jsonReader.readObject();
+                    state[index] = value;
+                    if (!predicate.test(index, value)) {
+                        // 判断不成功，不再读取
+                        return envelope;
+                    }
+                } else if (dataFieldName.equals(key)) {
+                    // 读取 key 后当前 token 为冒号，跳过空白判断值是否为数组
+                    lexer.skipWhitespace();
+                    if (lexer.getCurrent() != '[') {
+                        return envelope;
+                    }
+
+                    envelope.setData(stream(lexer, jsonReader, response, clazz, abort));
+                    opened = true;
+                    return envelope;
+                } else {
+                    // 其余字段跳过
+                    jsonReader.readObject();
+                }
+            }
+            complete = true;
+            return envelope;
+        } finally {
+            if (!opened) {
+                close(lexer, response, complete ? null : abort);
+            }
+        }
+    }
+
+
+    private static <T> Stream<T> stream(JSONLexer lexer, JSONReader jsonReader, ClientHttpResponse response, Class<T> clazz,
+                                        Runnable abort) {
+        jsonReader.startArray();
+
+        ElementIterator<T> iterator = new ElementIterator<>(jsonReader, clazz);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> close(lexer, response, iterator.end ? null : abort));
+    }
+
+
+    /**
+     * 关闭 lexer 会关闭响应体，同样会读完剩余的响应体，须在中止请求之后
+     *
+     * @param abort 不为 null 时先中止请求，关闭时不再读取剩余的响应体
+     */
+    private static void close(JSONLexer lexer, ClientHttpResponse response, Runnable abort) {
+        if (abort != null) {
+            abort.run();
+        }
+        // JSONReader.close 会校验是否读到结尾，提前结束时只释放 lexer
+        lexer.close();
+        response.close();
+    }
+
+
+    /**
+     * 逐个读取数组元素
+     */
+    private static final class ElementIterator<T> implements Iterator<T> {
+
+        private final JSONReader jsonReader;
+        private final Class<T> clazz;
+
+        /**
+         * 是否已读到数组结尾
+         */
+        private boolean end;
+
+        private ElementIterator(JSONReader jsonReader, Class<T> clazz) {
+            this.jsonReader = jsonReader;
+            this.clazz = clazz;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (end) {
+                return false;
+            }
+            if (jsonReader.hasNext()) {
+                return true;
+            }
+
+            end = true;
+            jsonReader.endArray();
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return jsonReader.readObject(clazz);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.zcgk.httpplus.core.decode;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/****************************************************
+ *
+ * 每次 read 尽量读满缓冲区，直到流结束
+ *      fastjson 的 JSONReaderScanner 在底层 read 返回的字符数少于请求数时，
+ *      会错误地截断跨越缓冲区的长字符串（网络流常见），此处在读取端补齐
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:00
+ * @version 1.0
+ **************************************************/
+class FillingReader extends FilterReader {
+
+    FillingReader(Reader in) {
+        super(in);
+    }
+
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int total = 0;
+        while (total < len) {
+            int n = in.read(cbuf, off + total, len - total);
+            if (n < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += n;
+        }
+        return total;
+    }
+}
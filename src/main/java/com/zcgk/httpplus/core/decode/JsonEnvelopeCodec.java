@@ -0,0 +1,110 @@
+package com.zcgk.httpplus.core.decode;
+
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.zcgk.httpplus.config.Constants4Http;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/****************************************************
+ *
+ * json 编解码，fastjson 流式读取。默认方式
+ *      字符集取响应头 Content-Type 中的 charset，未指定时为 utf-8
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 21:30
+ * @version 1.0
+ **************************************************/
+final class JsonEnvelopeCodec implements EnvelopeCodec {
+
+    private static final List<MediaType> MEDIA_TYPES = Collections.unmodifiableList(Arrays.asList(
+            MediaType.APPLICATION_JSON, new MediaType("application", "*+json")));
+
+
+    @Override
+    public String getName() {
+        return Constants4Http.RESPONSE_TYPE_4_JSON;
+    }
+
+    @Override
+    public List<MediaType> getMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public EnvelopeReader open(InputStream body, MediaType contentType) {
+        return open(new InputStreamReader(body, EnvelopeResponseExtractor.charset(contentType)));
+    }
+
+
+    /**
+     * @param reader 已解码字符集的响应体
+     * @return reader
+     */
+    static EnvelopeReader open(Reader reader) {
+        return new FastjsonReader(new JSONReader(new FillingReader(reader)));
+    }
+
+
+    private static final class FastjsonReader implements EnvelopeReader {
+
+        private final JSONReader reader;
+
+        FastjsonReader(JSONReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return reader.peek() == JSONToken.EOF;
+        }
+
+        @Override
+        public void startObject() {
+            reader.startObject();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return reader.hasNext();
+        }
+
+        @Override
+        public String readKey() {
+            return reader.readString();
+        }
+
+        @Override
+        public Object readValue() {
+            return reader.readObject();
+        }
+
+        @Override
+        public <V> V readValue(Type type) {
+            return reader.readObject(type);
+        }
+
+        @Override
+        public void skipValue() {
+            reader.readObject();
+        }
+
+        @Override
+        public void endObject() {
+            reader.endObject();
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.zcgk.httpplus.core.decode;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.Map;
+
+/****************************************************
+ *
+ * 接口返回值解码结果
+ *      state: resultMap 中要求判断的字段及其实际返回值。解码时按下标保存，读取 state 时才转为 map
+ *      data:  dataFieldName 对应的值，已绑定为目标类型
+ *      etag、lastModified、notModified: 条件请求使用
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 10:40
+ * @version 1.0
+ **************************************************/
+@Data
+public class ResponseEnvelope<T> {
+
+    private Map<String, Object> state = Collections.emptyMap();
+
+    /**
+     * 解码时按 predicate 的下标保存的状态字段，state 为 null 时有效
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private SuccessPredicate predicate;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Object[] stateValues;
+
+    private T data;
+
+    private String etag;
+
+    private String lastModified;
+
+    /**
+     * 服务端返回 304，此时 state、data 均为空
+     */
+    private boolean notModified;
+
+
+    /**
+     * @param predicate 解码使用的判断条件
+     * @param stateValues {@link SuccessPredicate#newState()} 创建的数组
+     */
+    public void setState(SuccessPredicate predicate, Object[] stateValues) {
+        this.predicate = predicate;
+        this.stateValues = stateValues;
+        this.state = null;
+    }
+
+
+    public void setState(Map<String, Object> state) {
+        this.predicate = null;
+        this.stateValues = null;
+        this.state = state;
+    }
+
+
+    public Map<String, Object> getState() {
+        if (state == null && predicate != null) {
+            state = predicate.toMap(stateValues);
+        }
+        return state;
+    }
+
+
+    /**
+     * @param key 状态字段名
+     * @return 实际值。未返回时为 null
+     */
+    public Object getStateValue(String key) {
+        if (state == null) {
+            return predicate == null ? null : predicate.valueOf(stateValues, key);
+        }
+        return state.get(key);
+    }
+
+
+    /**
+     * 判断状态字段。predicate 即解码时使用的条件时按下标判断，不创建 map
+     *
+     * @param predicate 判断条件
+     * @return 是否成功
+     */
+    public boolean matches(SuccessPredicate predicate) {
+        if (state == null && predicate == this.predicate) {
+            return predicate.test(stateValues);
+        }
+        Map<String, Object> current = getState();
+        return predicate.test(current == null ? Collections.emptyMap() : current);
+    }
+
+}
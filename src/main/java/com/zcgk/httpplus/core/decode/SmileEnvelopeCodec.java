@@ -0,0 +1,175 @@
+package com.zcgk.httpplus.core.decode;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.zcgk.httpplus.config.Constants4Http;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/****************************************************
+ *
+ * smile（二进制 json）编解码，jackson 流式读取
+ *      与 json 相比无需解析文本及转义，数值以二进制存储，字段名可回引，解码开销更低。
+ *      未知字段忽略，与 fastjson 一致。各目标类型对应的 JavaType 只构建一次
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 21:30
+ * @version 1.0
+ **************************************************/
+final class SmileEnvelopeCodec implements EnvelopeCodec {
+
+    static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final List<MediaType> MEDIA_TYPES = Collections.singletonList(APPLICATION_SMILE);
+
+    private final ObjectMapper mapper = new ObjectMapper(new SmileFactory())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * 目标类型 -> JavaType。jackson 按 JavaType 缓存反序列化器，泛型类型每次构建 JavaType 仍需解析
+     */
+    private final ConcurrentMap<Type, JavaType> javaTypes = new ConcurrentHashMap<>();
+
+
+    @Override
+    public String getName() {
+        return Constants4Http.RESPONSE_TYPE_4_SMILE;
+    }
+
+    @Override
+    public List<MediaType> getMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public EnvelopeReader open(InputStream body, MediaType contentType) {
+        try {
+            JsonParser parser = mapper.getFactory().createParser(body);
+            return new SmileReader(this, parser, parser.nextToken());
+        } catch (IOException e) {
+            throw new UncheckedIOException("smile 解码失败", e);
+        }
+    }
+
+
+    private JavaType javaType(Type type) {
+        JavaType javaType = javaTypes.get(type);
+        if (javaType == null) {
+            javaType = javaTypes.computeIfAbsent(type, mapper::constructType);
+        }
+        return javaType;
+    }
+
+
+    /**
+     * token 为当前待读取的值（或字段名、对象结束）的首个 token
+     */
+    private static final class SmileReader implements EnvelopeReader {
+
+        private final SmileEnvelopeCodec codec;
+        private final JsonParser parser;
+        private JsonToken token;
+
+        SmileReader(SmileEnvelopeCodec codec, JsonParser parser, JsonToken token) {
+            this.codec = codec;
+            this.parser = parser;
+            this.token = token;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return token == null;
+        }
+
+        @Override
+        public void startObject() {
+            expect(JsonToken.START_OBJECT);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return token == JsonToken.FIELD_NAME;
+        }
+
+        @Override
+        public String readKey() {
+            expect(JsonToken.FIELD_NAME);
+            try {
+                String key = parser.getCurrentName();
+                advance();
+                return key;
+            } catch (IOException e) {
+                throw new UncheckedIOException("smile 解码失败", e);
+            }
+        }
+
+        @Override
+        public Object readValue() {
+            return readValue(Object.class);
+        }
+
+        @Override
+        public <V> V readValue(Type type) {
+            try {
+                V value = codec.mapper.readValue(parser, codec.javaType(type));
+                advance();
+                return value;
+            } catch (IOException e) {
+                throw new UncheckedIOException("smile 解码失败", e);
+            }
+        }
+
+        @Override
+        public void skipValue() {
+            try {
+                parser.skipChildren();
+                advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException("smile 解码失败", e);
+            }
+        }
+
+        @Override
+        public void endObject() {
+            expect(JsonToken.END_OBJECT);
+            advance();
+        }
+
+        @Override
+        public void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("smile 解码失败", e);
+            }
+        }
+
+        private void expect(JsonToken expected) {
+            if (token != expected) {
+                throw new IllegalStateException("smile 解码失败，期望 " + expected + "，实际为 " + token);
+            }
+        }
+
+        private void advance() {
+            try {
+                token = parser.nextToken();
+            } catch (IOException e) {
+                throw new UncheckedIOException("smile 解码失败", e);
+            }
+        }
+    }
+}
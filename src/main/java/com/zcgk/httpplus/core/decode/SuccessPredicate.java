@@ -0,0 +1,548 @@
+package com.zcgk.httpplus.core.decode;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/****************************************************
+ *
+ * 返回值判断条件 预编译
+ *      每个状态字段对应一个规则，全部满足时为成功。判断成功时不产生任何对象，只在失败时生成错误详情。
+ *      resultMap 形式的条件（如 [{"code": "200"}]）按 String.valueOf(实际值).equals(要求值) 的语义编译，
+ *      对整数、布尔值直接比较，不再逐次转为字符串；另可通过 {@link #builder()} 组合 范围、任一 等规则
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 20:10
+ * @version 1.0
+ **************************************************/
+public final class SuccessPredicate {
+
+    /**
+     * 不判断
+     */
+    public static final SuccessPredicate NONE = new SuccessPredicate(Collections.emptyMap());
+
+    /**
+     * resultMap -> 编译结果。getApi 等每次传入的 resultMap 内容通常相同，只编译一次
+     */
+    private static final Cache<Map<String, String>, SuccessPredicate> COMPILED = Caffeine.newBuilder()
+            .maximumSize(1024)
+            .build();
+
+    /**
+     * 状态字段未返回，见 {@link #newState()}
+     */
+    private static final Object ABSENT = new Object();
+
+    private final Map<String, Rule> ruleMap;
+
+    /**
+     * 字段名 -> 在 keys、rules 中的下标
+     */
+    private final Map<String, Integer> indexMap;
+
+    private final String[] keys;
+
+    private final Rule[] rules;
+
+
+    private SuccessPredicate(Map<String, Rule> ruleMap) {
+        this.ruleMap = ruleMap;
+        this.keys = ruleMap.keySet().toArray(new String[0]);
+        this.rules = ruleMap.values().toArray(new Rule[0]);
+        this.indexMap = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            indexMap.put(keys[i], i);
+        }
+    }
+
+
+    /**
+     * 单个状态字段的判断规则
+     */
+    public interface Rule {
+
+        /**
+         * @param value 状态字段的实际值，未返回时为 null
+         * @return 是否满足
+         */
+        boolean test(Object value);
+
+        /**
+         * @return 要求的值，用于错误详情
+         */
+        @Override
+        String toString();
+    }
+
+
+    /**
+     * 编译 resultMap
+     *
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]
+     * @return predicate resultMap 为空时为 {@link #NONE}
+     */
+    public static SuccessPredicate of(Map<String, String> resultMap) {
+        if (resultMap == null || resultMap.isEmpty()) {
+            return NONE;
+        }
+
+        SuccessPredicate predicate = COMPILED.getIfPresent(resultMap);
+        if (predicate == null) {
+            // 以副本为 key，调用方之后修改 resultMap 不影响已编译的结果
+            Map<String, String> key = Collections.unmodifiableMap(new HashMap<>(resultMap));
+            Builder builder = builder();
+            for (Map.Entry<String, String> entry : key.entrySet()) {
+                builder.eq(entry.getKey(), entry.getValue());
+            }
+            predicate = builder.build();
+            COMPILED.put(key, predicate);
+        }
+        return predicate;
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+
+    public int size() {
+        return rules.length;
+    }
+
+
+    /**
+     * @param key 字段名
+     * @return 该字段的规则，不需要判断时为 null
+     */
+    public Rule rule(String key) {
+        return ruleMap.get(key);
+    }
+
+
+    /**
+     * @param key 字段名
+     * @return 该字段的下标，不需要判断时为 -1
+     */
+    public int indexOf(String key) {
+        Integer index = indexMap.get(key);
+        return index == null ? -1 : index;
+    }
+
+
+    /**
+     * 按下标判断单个状态字段
+     *
+     * @param index {@link #indexOf} 的返回值
+     * @param value 实际值
+     * @return 是否满足
+     */
+    public boolean test(int index, Object value) {
+        return rules[index].test(value);
+    }
+
+
+    /**
+     * 解码时按下标保存状态字段的实际值，不逐次创建 map。未写入的下标视为该字段未返回
+     *
+     * @return 与字段数等长的数组
+     */
+    public Object[] newState() {
+        Object[] state = new Object[keys.length];
+        Arrays.fill(state, ABSENT);
+        return state;
+    }
+
+
+    /**
+     * 判断按下标保存的状态字段
+     *
+     * @param state {@link #newState()} 创建的数组
+     * @return 是否成功
+     */
+    public boolean test(Object[] state) {
+        for (int i = 0; i < rules.length; i++) {
+            if (!rules[i].test(valueAt(state, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * 按下标保存的状态字段转为 map，用于错误详情及读取 capture 字段
+     *
+     * @param state {@link #newState()} 创建的数组
+     * @return 字段名 -> 实际值，只含已返回的字段
+     */
+    public Map<String, Object> toMap(Object[] state) {
+        Map<String, Object> map = new LinkedHashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            if (state[i] != ABSENT) {
+                map.put(keys[i], state[i]);
+            }
+        }
+        return map;
+    }
+
+
+    /**
+     * @param state {@link #newState()} 创建的数组
+     * @param key 字段名
+     * @return 实际值。未返回或不是状态字段时为 null
+     */
+    public Object valueOf(Object[] state, String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(state, index);
+    }
+
+
+    /**
+     * 增加只读取、不判断的字段，读取结果在 ResponseEnvelope.state 中。如：分页的 total、nextCursor
+     *
+     * @param keys 字段名，须与 code 等状态字段位于同一层
+     * @return predicate 已有规则的字段不变
+     */
+    public SuccessPredicate withCapture(List<String> keys) {
+        Map<String, Rule> captured = new LinkedHashMap<>(ruleMap);
+        for (String key : keys) {
+            captured.putIfAbsent(Objects.requireNonNull(key, "key"), CaptureRule.INSTANCE);
+        }
+        return captured.size() == ruleMap.size() ? this : new SuccessPredicate(captured);
+    }
+
+
+    /**
+     * 判断解码得到的状态字段
+     *
+     * @param state 状态字段。缺少的字段按 null 判断
+     * @return 是否成功
+     */
+    public boolean test(Map<String, ?> state) {
+        for (int i = 0; i < rules.length; i++) {
+            if (!rules[i].test(state.get(keys[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * 生成错误详情。仅在 {@link #test} 不成功时调用
+     *
+     * @param state 状态字段
+     * @return msg 字段名 -> 失败详情。如：code, 返回的值为：500; 要求的值为：200
+     */
+    public Map<String, String> diagnose(Map<String, ?> state) {
+        Map<String, String> msgMap = new HashMap<>();
+        for (int i = 0; i < rules.length; i++) {
+            Object value = state.get(keys[i]);
+            if (!rules[i].test(value)) {
+                msgMap.put(keys[i], "返回的值为：" + value + "; 要求的值为：" + rules[i]);
+            }
+        }
+        return msgMap;
+    }
+
+
+    @Override
+    public String toString() {
+        return ruleMap.toString();
+    }
+
+
+    private static Object valueAt(Object[] state, int index) {
+        Object value = state[index];
+        return value == ABSENT ? null : value;
+    }
+
+
+    /**
+     * 构建器。同一字段多次添加规则时须全部满足
+     */
+    public static final class Builder {
+
+        private final Map<String, Rule> ruleMap = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+
+        /**
+         * 等于。语义同 String.valueOf(实际值).equals(value)
+         */
+        public Builder eq(String key, String value) {
+            return add(key, new TextRule(Objects.requireNonNull(value, "value")));
+        }
+
+
+        /**
+         * 等于。实际值为整数或整数字符串
+         */
+        public Builder eq(String key, long value) {
+            return add(key, new RangeRule(value, value));
+        }
+
+
+        /**
+         * 等于。实际值为布尔值或 "true"/"false"
+         */
+        public Builder eq(String key, boolean value) {
+            return add(key, new TextRule(String.valueOf(value)));
+        }
+
+
+        /**
+         * 在 [min, max] 范围内。实际值为整数或整数字符串，如 code 在 200~299
+         */
+        public Builder range(String key, long min, long max) {
+            if (min > max) {
+                throw new IllegalArgumentException("min > max: " + min + " > " + max);
+            }
+            return add(key, new RangeRule(min, max));
+        }
+
+
+        /**
+         * 等于其中任一
+         */
+        public Builder anyOf(String key, String... values) {
+            Rule[] rules = new Rule[values.length];
+            for (int i = 0; i < values.length; i++) {
+                rules[i] = new TextRule(Objects.requireNonNull(values[i], "value"));
+            }
+            return add(key, new AnyRule(rules));
+        }
+
+
+        /**
+         * 等于其中任一整数
+         */
+        public Builder anyOf(String key, long... values) {
+            Rule[] rules = new Rule[values.length];
+            for (int i = 0; i < values.length; i++) {
+                rules[i] = new RangeRule(values[i], values[i]);
+            }
+            return add(key, new AnyRule(rules));
+        }
+
+
+        /**
+         * 自定义规则
+         */
+        public Builder rule(String key, Rule rule) {
+            return add(key, Objects.requireNonNull(rule, "rule"));
+        }
+
+
+        public SuccessPredicate build() {
+            return ruleMap.isEmpty() ? NONE : new SuccessPredicate(new LinkedHashMap<>(ruleMap));
+        }
+
+
+        private Builder add(String key, Rule rule) {
+            Objects.requireNonNull(key, "key");
+            ruleMap.merge(key, rule, AllRule::new);
+            return this;
+        }
+    }
+
+
+    /**
+     * 与 String.valueOf(value).equals(text) 等价，整数、布尔值不转为字符串
+     */
+    private static final class TextRule implements Rule {
+
+        private final String text;
+
+        /**
+         * text 为规范的整数写法时有效
+         */
+        private final boolean integral;
+        private final long longValue;
+
+        private final boolean bool;
+        private final boolean boolValue;
+
+        TextRule(String text) {
+            this.text = text;
+
+            Long parsed = parseCanonicalLong(text);
+            this.integral = parsed != null;
+            this.longValue = parsed == null ? 0L : parsed;
+
+            this.bool = "true".equals(text) || "false".equals(text);
+            this.boolValue = "true".equals(text);
+        }
+
+        @Override
+        public boolean test(Object value) {
+            if (value instanceof String) {
+                return text.equals(value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                return integral && ((Number) value).longValue() == longValue;
+            } else if (value instanceof Boolean) {
+                return bool && (Boolean) value == boolValue;
+            } else if (value == null) {
+                return "null".equals(text);
+            }
+            // BigDecimal 等少见类型
+            return text.equals(String.valueOf(value));
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+
+        private static Long parseCanonicalLong(String text) {
+            try {
+                long value = Long.parseLong(text);
+                return Long.toString(value).equals(text) ? value : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * 整数范围，实际值为整数或十进制整数字符串
+     */
+    private static final class RangeRule implements Rule {
+
+        private final long min;
+        private final long max;
+
+        RangeRule(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean test(Object value) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                long longValue = ((Number) value).longValue();
+                return longValue >= min && longValue <= max;
+            } else if (value instanceof String) {
+                return inRange((String) value);
+            }
+            return false;
+        }
+
+        /**
+         * 逐位解析，不产生对象，不抛出异常
+         */
+        private boolean inRange(String value) {
+            int length = value.length();
+            boolean negative = length > 0 && value.charAt(0) == '-';
+            int i = negative ? 1 : 0;
+            // 最多 18 位，不会溢出
+            if (length == i || length - i > 18) {
+                return false;
+            }
+
+            long result = 0;
+            for (; i < length; i++) {
+                int digit = value.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return false;
+                }
+                result = result * 10 + digit;
+            }
+            result = negative ? -result : result;
+            return result >= min && result <= max;
+        }
+
+        @Override
+        public String toString() {
+            return min == max ? String.valueOf(min) : "[" + min + ", " + max + "]";
+        }
+    }
+
+
+    private static final class AnyRule implements Rule {
+
+        private final Rule[] rules;
+
+        AnyRule(Rule[] rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        public boolean test(Object value) {
+            for (Rule rule : rules) {
+                if (rule.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("任一 ");
+            for (int i = 0; i < rules.length; i++) {
+                builder.append(i == 0 ? "" : " | ").append(rules[i]);
+            }
+            return builder.toString();
+        }
+    }
+
+
+    /**
+     * 任意值均满足，只用于读取字段
+     */
+    private static final class CaptureRule implements Rule {
+
+        private static final CaptureRule INSTANCE = new CaptureRule();
+
+        @Override
+        public boolean test(Object value) {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "任意值";
+        }
+    }
+
+
+    private static final class AllRule implements Rule {
+
+        private final Rule first;
+        private final Rule second;
+
+        AllRule(Rule first, Rule second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean test(Object value) {
+            return first.test(value) && second.test(value);
+        }
+
+        @Override
+        public String toString() {
+            return first + " 且 " + second;
+        }
+    }
+}
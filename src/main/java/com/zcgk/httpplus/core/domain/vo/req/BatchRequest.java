@@ -0,0 +1,73 @@
+package com.zcgk.httpplus.core.domain.vo.req;
+
+import lombok.Data;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
+
+/****************************************************
+ *
+ * 批量请求 -- 单个请求的描述
+ *      各字段含义与 HClientUtils.getApi / postApi 的同名参数一致
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 13:20
+ * @version 1.0
+ **************************************************/
+@Data
+public class BatchRequest<T> {
+
+    private HttpMethod method;
+
+    private String url;
+
+    private Class<T> clazz;
+
+    private Map<String, Object> paramMap;
+
+    private Map<String, String> resultMap;
+
+    private String dataFieldName;
+
+    /**
+     * 仅 post 使用
+     */
+    private HttpHeaders header;
+
+    /**
+     * 仅 post 使用
+     */
+    private String requestParamType;
+
+    private String responseType;
+
+    private String responseDataType;
+
+
+    public static <T> BatchRequest<T> get(String url, Class<T> clazz, Map<String, Object> paramMap,
+                                          Map<String, String> resultMap, String dataFieldName,
+                                          String responseType, String responseDataType) {
+        BatchRequest<T> request = new BatchRequest<>();
+        request.setMethod(HttpMethod.GET);
+        request.setUrl(url);
+        request.setClazz(clazz);
+        request.setParamMap(paramMap);
+        request.setResultMap(resultMap);
+        request.setDataFieldName(dataFieldName);
+        request.setResponseType(responseType);
+        request.setResponseDataType(responseDataType);
+        return request;
+    }
+
+    public static <T> BatchRequest<T> post(String url, Class<T> clazz, Map<String, Object> paramMap,
+                                           Map<String, String> resultMap, String dataFieldName,
+                                           String requestParamType, String responseType, String responseDataType) {
+        BatchRequest<T> request = get(url, clazz, paramMap, resultMap, dataFieldName, responseType, responseDataType);
+        request.setMethod(HttpMethod.POST);
+        request.setHeader(new HttpHeaders());
+        request.setRequestParamType(requestParamType);
+        return request;
+    }
+}
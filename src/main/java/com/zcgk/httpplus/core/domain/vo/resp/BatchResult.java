@@ -0,0 +1,61 @@
+package com.zcgk.httpplus.core.domain.vo.resp;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/****************************************************
+ *
+ * 批量请求 -- 单个请求的结果
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 13:20
+ * @version 1.0
+ **************************************************/
+@Data
+public class BatchResult<T> {
+
+    /**
+     * 在批量请求中的下标
+     */
+    private int index;
+
+    private boolean success;
+
+    /**
+     * 同 getApi / postApi 的返回值：返回单个时值字段为空为 [null]，返回多个时值字段为空为 null
+     */
+    private List<T> data;
+
+    /**
+     * 返回值判断不成功的详情。如：code, 返回的值为：500; 要求的值为：200
+     */
+    private Map<String, String> msgMap;
+
+    /**
+     * 请求异常、参数不符合规范等错误信息
+     */
+    private String errorMsg;
+
+
+    public static <T> BatchResult<T> success(List<T> data) {
+        BatchResult<T> result = new BatchResult<>();
+        result.setSuccess(true);
+        result.setData(data);
+        return result;
+    }
+
+    public static <T> BatchResult<T> mismatch(Map<String, String> msgMap) {
+        BatchResult<T> result = new BatchResult<>();
+        result.setMsgMap(msgMap);
+        return result;
+    }
+
+    public static <T> BatchResult<T> error(String errorMsg) {
+        BatchResult<T> result = new BatchResult<>();
+        result.setErrorMsg(errorMsg);
+        return result;
+    }
+}
@@ -12,7 +12,9 @@ import lombok.NoArgsConstructor;
  * @author Francis
  * @date 2021/5/6 11:40
  * @version 1.0
+ * @deprecated 返回值直接按类型绑定，传 String.class 即可
  **************************************************/
+@Deprecated
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -0,0 +1,415 @@
+package com.zcgk.httpplus.core.download;
+
+import com.zcgk.httpplus.core.engine.HClientEngine;
+import com.zcgk.httpplus.core.metrics.HClientMetrics;
+import com.zcgk.httpplus.core.metrics.RequestSample;
+import com.zcgk.httpplus.core.resilience.HClientResilience;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/****************************************************
+ *
+ * 文件下载
+ *      响应体经固定大小的缓冲区直接写入文件，不在内存中缓存。先写入同目录的 {@code 目标文件名.part}，完成后改名为目标文件；
+ *      .part 已存在时以 Range 从其末尾续传（包括同一次下载的重试），并以 If-Range 带上开始写入 .part 时响应的 ETag 或 Last-Modified
+ *      （记录在 {@code 目标文件名.part.validator}），服务端文件已变化时从头下载；没有记录时无法确认，不续传。
+ *      指定分段数时先以 HEAD 获取长度，服务端支持 Range 且文件足够大时并发下载各段到 {@code 目标文件名.segments}，
+ *      每段失败重试时从该段已写入处续传，各段同样带 If-Range。分段文件不跨调用续传，中断后下次重新下载
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 21:20
+ * @version 1.0
+ **************************************************/
+@Slf4j
+public final class FileDownloader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 每段至少 4MB，更小的文件不分段
+     */
+    private static final long MIN_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final String PART_SUFFIX = ".part";
+
+    private static final String VALIDATOR_SUFFIX = ".part.validator";
+
+    private static final String SEGMENTS_SUFFIX = ".segments";
+
+    /**
+     * Content-Range: bytes 100-199/1000 或 bytes *&#47;1000
+     */
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(?:(\\d+)-(\\d+)|\\*)/(\\d+|\\*)");
+
+    private static final ExecutorService EXECUTOR = executor();
+
+    private FileDownloader() {
+    }
+
+
+    /**
+     * 下载到文件
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/file?id={id}
+     * @param uriVariables url 参数
+     * @param header 请求头。可为 null
+     * @param target 目标文件，已存在时覆盖
+     * @param segments 并发分段数。小于等于1 不分段
+     * @return target。http 状态码为 4xx、5xx 时抛出 RestClientResponseException，读写失败时抛出 ResourceAccessException
+     */
+    public static Path download(String url, Map<String, ?> uriVariables, HttpHeaders header, Path target, int segments) {
+        RestTemplate client = HClientEngine.get().getRestTemplate();
+        URI uri = client.getUriTemplateHandler().expand(url, uriVariables == null ? Collections.emptyMap() : uriVariables);
+        HttpHeaders headers = header == null ? HttpHeaders.EMPTY : header;
+        Path part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        Path validator = target.resolveSibling(target.getFileName() + VALIDATOR_SUFFIX);
+        Path segmentFile = target.resolveSibling(target.getFileName() + SEGMENTS_SUFFIX);
+
+        try {
+            // 上次中断的分段文件中有未写入的空洞，不能续传
+            Files.deleteIfExists(segmentFile);
+            HttpHeaders probed = segments > 1 && Files.notExists(part) ? probe(client, url, uri, headers) : null;
+            long length = probed == null ? -1L : probed.getContentLength();
+            if (length >= MIN_SEGMENT_SIZE * 2) {
+                int count = (int) Math.min(segments, length / MIN_SEGMENT_SIZE);
+                downloadSegments(client, url, uri, headers, validator(probed), segmentFile, length, count);
+                move(segmentFile, target);
+            } else {
+                downloadSequential(client, url, uri, headers, part, validator);
+                move(part, target);
+                Files.deleteIfExists(validator);
+            }
+            return target;
+        } catch (IOException e) {
+            deleteIfEmpty(part, validator);
+            throw new ResourceAccessException("I/O error on download \"" + url + "\" to " + target + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            // 已写入的部分保留，供下次续传
+            deleteIfEmpty(part, validator);
+            throw e;
+        }
+    }
+
+
+    /**
+     * 以 HEAD 获取长度及 ETag、Last-Modified
+     *
+     * @return 响应头。服务端不支持 Range 时为 null
+     */
+    private static HttpHeaders probe(RestTemplate client, String url, URI uri, HttpHeaders headers) {
+        try {
+            HttpHeaders responseHeaders = execute(url, HttpMethod.HEAD,
+                    () -> client.execute(uri, HttpMethod.HEAD, request -> prepare(request, headers), ClientHttpResponse::getHeaders));
+            if (responseHeaders == null || !"bytes".equalsIgnoreCase(responseHeaders.getFirst(HttpHeaders.ACCEPT_RANGES))) {
+                return null;
+            }
+            return responseHeaders;
+        } catch (RestClientResponseException e) {
+            // 不支持 HEAD 时不分段
+            log.debug("HEAD {} 失败，不分段下载：{}", uri, e.getRawStatusCode());
+            return null;
+        }
+    }
+
+
+    /**
+     * 单连接下载，.part 非空且记录了 ETag 或 Last-Modified 时从其末尾续传
+     *
+     * @param validator 记录开始写入 .part 时的 ETag 或 Last-Modified 的文件
+     */
+    private static void downloadSequential(RestTemplate client, String url, URI uri, HttpHeaders headers, Path part,
+                                           Path validator) throws IOException {
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            Supplier<Void> call = () -> client.execute(uri, HttpMethod.GET,
+                    request -> {
+                        prepare(request, headers);
+                        long offset = channel.size();
+                        String ifRange = offset > 0 ? readValidator(validator) : null;
+                        if (ifRange != null) {
+                            request.getHeaders().set(HttpHeaders.RANGE, "bytes=" + offset + "-");
+                            request.getHeaders().set(HttpHeaders.IF_RANGE, ifRange);
+                        } else if (offset > 0) {
+                            // 无法确认服务端文件未变化，从头下载
+                            channel.truncate(0);
+                        }
+                    },
+                    response -> {
+                        long offset = channel.size();
+                        if (response.getRawStatusCode() == HttpStatus.PARTIAL_CONTENT.value()) {
+                            long start = rangeStart(response.getHeaders());
+                            if (start != offset) {
+                                throw new IOException("Content-Range 与续传位置不一致：" + start + " != " + offset);
+                            }
+                        } else {
+                            // 服务端不支持 Range 或文件已变化（If-Range 不匹配），从头写入
+                            channel.truncate(0);
+                            offset = 0;
+                        }
+                        if (offset == 0) {
+                            writeValidator(validator, validator(response.getHeaders()));
+                        }
+                        copy(response.getBody(), channel, offset, null, n -> { });
+                        return null;
+                    });
+
+            try {
+                execute(url, HttpMethod.GET, call);
+            } catch (HttpClientErrorException e) {
+                if (e.getRawStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                    throw e;
+                }
+                // .part 已完整，或服务端文件已变化
+                long total = rangeTotal(e.getResponseHeaders());
+                if (total >= 0 && total == channel.size()) {
+                    return;
+                }
+                channel.truncate(0);
+                execute(url, HttpMethod.GET, call);
+            }
+        }
+    }
+
+
+    /**
+     * 分段并发下载。任一段失败时中止其余段并删除分段文件
+     *
+     * @param ifRange HEAD 返回的 ETag 或 Last-Modified，各段以 If-Range 带上，文件在下载期间变化时失败。可为 null
+     */
+    private static void downloadSegments(RestTemplate client, String url, URI uri, HttpHeaders headers, String ifRange,
+                                         Path segmentFile, long length, int count) throws IOException {
+        AtomicBoolean aborted = new AtomicBoolean();
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = (length + count - 1) / count;
+            List<CompletableFuture<Void>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long start = i * size;
+                long end = Math.min(length, start + size) - 1;
+                futures.add(CompletableFuture.runAsync(
+                        () -> downloadRange(client, url, uri, headers, ifRange, channel, start, end, aborted), EXECUTOR));
+            }
+
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e) {
+                aborted.set(true);
+                for (CompletableFuture<Void> future : futures) {
+                    future.handle((v, ex) -> v).join();
+                }
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+            }
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(segmentFile);
+            throw e;
+        }
+    }
+
+
+    private static void downloadRange(RestTemplate client, String url, URI uri, HttpHeaders headers, String ifRange,
+                                      FileChannel channel, long start, long end, AtomicBoolean aborted) {
+        // 已写入字节数，重试时从此处续传
+        long[] written = {0L};
+        execute(url, HttpMethod.GET, () -> client.execute(uri, HttpMethod.GET,
+                request -> {
+                    prepare(request, headers);
+                    request.getHeaders().set(HttpHeaders.RANGE, "bytes=" + (start + written[0]) + "-" + end);
+                    if (ifRange != null) {
+                        request.getHeaders().set(HttpHeaders.IF_RANGE, ifRange);
+                    }
+                },
+                response -> {
+                    long offset = start + written[0];
+                    if (response.getRawStatusCode() != HttpStatus.PARTIAL_CONTENT.value()
+                            || rangeStart(response.getHeaders()) != offset) {
+                        throw new IOException("服务端未按 Range 返回：" + response.getRawStatusCode() + " "
+                                + response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+                    }
+                    copy(response.getBody(), channel, offset, aborted, n -> written[0] += n);
+                    return null;
+                }));
+    }
+
+
+    /**
+     * 请求头：调用方请求头 + 不压缩（Range 按原始字节计算）
+     */
+    private static void prepare(ClientHttpRequest request, HttpHeaders headers) {
+        HttpHeaders requestHeaders = request.getHeaders();
+        requestHeaders.putAll(headers);
+        if (!requestHeaders.containsKey(HttpHeaders.ACCEPT)) {
+            requestHeaders.setAccept(Collections.singletonList(MediaType.ALL));
+        }
+        requestHeaders.set(HttpHeaders.ACCEPT_ENCODING, "identity");
+    }
+
+
+    /**
+     * 经固定大小的缓冲区从 in 写入 channel 的 position 处
+     *
+     * @param written 每次写入后回调写入的字节数
+     */
+    private static void copy(InputStream in, FileChannel channel, long position, AtomicBoolean aborted,
+                             LongConsumer written) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(in);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (source.read(buffer) >= 0) {
+            if (aborted != null && aborted.get()) {
+                throw new IOException("其他分段下载失败，已中止");
+            }
+            buffer.flip();
+            int n = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+            written.accept(n);
+        }
+    }
+
+
+    /**
+     * 阻塞请求：记录指标，按接口策略超时、重试、熔断
+     */
+    private static <T> T execute(String url, HttpMethod method, Supplier<T> call) {
+        try (RequestSample sample = HClientMetrics.start(url, method)) {
+            HClientMetrics.bind(sample);
+            try {
+                return HClientResilience.execute(url, method, call);
+            } catch (RuntimeException e) {
+                sample.error(e);
+                throw e;
+            } finally {
+                HClientMetrics.unbind();
+            }
+        }
+    }
+
+
+    private static long rangeStart(HttpHeaders headers) {
+        Matcher matcher = contentRange(headers);
+        return matcher != null && matcher.group(1) != null ? Long.parseLong(matcher.group(1)) : -1L;
+    }
+
+
+    private static long rangeTotal(HttpHeaders headers) {
+        Matcher matcher = contentRange(headers);
+        return matcher != null && !"*".equals(matcher.group(3)) ? Long.parseLong(matcher.group(3)) : -1L;
+    }
+
+
+    private static Matcher contentRange(HttpHeaders headers) {
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.CONTENT_RANGE);
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_RANGE.matcher(value.trim());
+        return matcher.matches() ? matcher : null;
+    }
+
+
+    /**
+     * 可用于 If-Range 的校验值：强 ETag，没有时为 Last-Modified
+     *
+     * @return 校验值。都没有时为 null
+     */
+    private static String validator(HttpHeaders headers) {
+        String etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+
+
+    private static String readValidator(Path file) throws IOException {
+        if (Files.notExists(file)) {
+            return null;
+        }
+        String value = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+
+    /**
+     * @param value 校验值。为 null 时删除记录，之后不续传
+     */
+    private static void writeValidator(Path file, String value) throws IOException {
+        if (value == null) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.write(file, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private static void deleteIfEmpty(Path part, Path validator) {
+        try {
+            if (Files.exists(part) && Files.size(part) == 0) {
+                Files.delete(part);
+            }
+            if (Files.notExists(part)) {
+                Files.deleteIfExists(validator);
+            }
+        } catch (IOException e) {
+            log.warn("删除空的下载文件失败：{}", part, e);
+        }
+    }
+
+
+    private static void move(Path part, Path target) throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+
+    private static ExecutorService executor() {
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hclient-download-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
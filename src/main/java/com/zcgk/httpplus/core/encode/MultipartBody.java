@@ -0,0 +1,651 @@
+package com.zcgk.httpplus.core.encode;
+
+import com.alibaba.fastjson.JSON;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.FileRegion;
+import io.netty.util.AbstractReferenceCounted;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.NettyOutbound;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/****************************************************
+ *
+ * 流式 multipart 请求体
+ *      文件部分在发送时才打开，边读边写，内存占用与文件大小无关。
+ *      各部分长度均已知时预先计算 Content-Length，否则以 chunked 方式发送。
+ *      阻塞请求：文件经 FileChannel.transferTo 写入连接的输出流；
+ *      非阻塞请求：明文 http 以 FileRegion 由内核直接从文件发送到 socket（sendfile），https 分块读入池化缓冲区
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 20:40
+ * @version 1.0
+ **************************************************/
+public final class MultipartBody {
+
+    /**
+     * 输入流、https 的读取块大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 单次 transferTo / FileRegion 的字节数，即文件部分的进度回调粒度
+     */
+    private static final long TRANSFER_SLICE = 1024 * 1024;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static final String SIZE_CHANGED = "文件大小与声明的长度不一致，请求体已不完整";
+
+    private final MediaType contentType;
+
+    private final List<Part> parts;
+
+    private final byte[] tail;
+
+    /**
+     * 含长度未知的输入流时为 -1
+     */
+    private final long contentLength;
+
+    private final UploadProgressListener listener;
+
+
+    private MultipartBody(String boundary, List<Part> parts, UploadProgressListener listener) {
+        this.contentType = new MediaType(MediaType.MULTIPART_FORM_DATA, Collections.singletonMap("boundary", boundary));
+        this.parts = parts;
+        this.tail = ((parts.isEmpty() ? "" : "\r\n") + "--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        this.listener = listener;
+
+        long length = tail.length;
+        for (Part part : parts) {
+            long bodyLength = part.text != null ? part.text.length : part.file.getLength();
+            if (bodyLength < 0) {
+                length = -1L;
+                break;
+            }
+            length += part.head.length + bodyLength;
+        }
+        this.contentLength = length;
+    }
+
+
+    /**
+     * paramMap 中是否含有文件，见 {@link UploadFile#isFile}
+     *
+     * @param paramMap 参数
+     * @return 是否按流式 multipart 发送
+     */
+    public static boolean containsFile(Map<String, Object> paramMap) {
+        // 此处避免用foreach 安卓调用会出问题
+        for (Map.Entry<String, Object> entry : paramMap.entrySet()) {
+            Object value = entry.getValue();
+            if (UploadFile.isFile(value)) {
+                return true;
+            }
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    if (UploadFile.isFile(element)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * 编码 paramMap。文件之外的值按 UTF-8 文本发送，byte[] 按二进制，其余对象按 json
+     *      值为集合时每个元素为同名的一部分；值为 null 时忽略
+     *
+     * @param paramMap 参数
+     * @param listener 上传进度回调。可为 null
+     * @return body
+     */
+    public static MultipartBody of(Map<String, Object> paramMap, UploadProgressListener listener) {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<Part> parts = new ArrayList<>(paramMap.size());
+        for (Map.Entry<String, Object> entry : paramMap.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    addPart(parts, boundary, entry.getKey(), element);
+                }
+            } else {
+                addPart(parts, boundary, entry.getKey(), value);
+            }
+        }
+        return new MultipartBody(boundary, parts, listener);
+    }
+
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+
+    /**
+     * 设置请求头并写入请求体。message 支持流式写入时在连接建立后才写，否则写入其缓冲区
+     *
+     * @param message 请求
+     * @throws IOException 读取文件失败
+     */
+    public void writeTo(HttpOutputMessage message) throws IOException {
+        HttpHeaders headers = message.getHeaders();
+        headers.setContentType(contentType);
+        if (contentLength >= 0) {
+            headers.setContentLength(contentLength);
+        }
+
+        if (message instanceof StreamingHttpOutputMessage) {
+            ((StreamingHttpOutputMessage) message).setBody(this::writeTo);
+        } else {
+            writeTo(message.getBody());
+        }
+    }
+
+
+    /**
+     * 阻塞写入请求体，不关闭 out
+     *
+     * @param out 输出流
+     * @throws IOException 读取文件失败
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Progress progress = new Progress(listener, contentLength);
+        // 包装 out，不关闭
+        WritableByteChannel target = Channels.newChannel(out);
+        ByteBuffer buffer = null;
+
+        for (Part part : parts) {
+            write(out, part.head, progress);
+            if (part.text != null) {
+                write(out, part.text, progress);
+                continue;
+            }
+
+            try (Reader reader = Reader.open(part.file)) {
+                if (reader.channel != null) {
+                    reader.transferTo(target, progress);
+                    continue;
+                }
+
+                if (buffer == null) {
+                    buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                }
+                int n;
+                while ((n = reader.read(buffer)) >= 0) {
+                    out.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                    progress.advance(n);
+                }
+            }
+        }
+
+        write(out, tail, progress);
+        out.flush();
+    }
+
+
+    /**
+     * 非阻塞写入请求体（Reactor Netty）。请求头须已设置 Content-Length 或 Transfer-Encoding: chunked
+     *
+     * @param out 请求
+     * @param zeroCopy 文件以 FileRegion 发送。连接经过 TLS 时须为 false
+     * @return 写完时完成
+     */
+    public Mono<Void> send(NettyOutbound out, boolean zeroCopy) {
+        return Mono.defer(() -> {
+            Progress progress = new Progress(listener, contentLength);
+            // 先发送请求头，之后的写入不再与请求头合并为完整请求
+            return out.then()
+                    .thenMany(Flux.fromIterable(parts).concatMap(part -> sendPart(out, part, progress, zeroCopy), 1))
+                    .then(sendBytes(out, tail, progress));
+        });
+    }
+
+
+    /**
+     * 非阻塞写入请求体（其他 WebClient 连接器）
+     *
+     * @param bufferFactory 请求的 bufferFactory
+     * @return 请求体
+     */
+    public Flux<DataBuffer> toDataBuffers(DataBufferFactory bufferFactory) {
+        return Flux.defer(() -> {
+            Progress progress = new Progress(listener, contentLength);
+            return Flux.fromIterable(parts)
+                    .concatMap(part -> {
+                        Mono<DataBuffer> head = Mono.fromCallable(() -> wrap(bufferFactory, part.head, progress));
+                        if (part.text != null) {
+                            return head.concatWith(Mono.fromCallable(() -> wrap(bufferFactory, part.text, progress)));
+                        }
+                        return head.concatWith(Flux.using(() -> Reader.open(part.file),
+                                reader -> readDataBuffers(reader, bufferFactory, progress),
+                                Reader::closeQuietly)
+                                .subscribeOn(Schedulers.boundedElastic()));
+                    }, 1)
+                    .concatWith(Mono.fromCallable(() -> wrap(bufferFactory, tail, progress)));
+        });
+    }
+
+
+    private static void addPart(List<Part> parts, String boundary, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+
+        StringBuilder head = new StringBuilder(128)
+                .append(parts.isEmpty() ? "" : "\r\n").append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(escape(name)).append('"');
+        if (UploadFile.isFile(value)) {
+            UploadFile file = UploadFile.from(name, value);
+            if (file.getFilename() != null) {
+                head.append("; filename=\"").append(escape(file.getFilename())).append('"');
+            }
+            head.append("\r\nContent-Type: ").append(file.getContentType()).append("\r\n\r\n");
+            parts.add(new Part(head.toString().getBytes(StandardCharsets.UTF_8), null, file));
+            return;
+        }
+
+        byte[] text;
+        MediaType contentType;
+        if (value instanceof byte[]) {
+            text = (byte[]) value;
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
+        } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum) {
+            text = value.toString().getBytes(StandardCharsets.UTF_8);
+            contentType = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+        } else {
+            text = JSON.toJSONString(value).getBytes(StandardCharsets.UTF_8);
+            contentType = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+        }
+        head.append("\r\nContent-Type: ").append(contentType).append("\r\n\r\n");
+        parts.add(new Part(head.toString().getBytes(StandardCharsets.UTF_8), text, null));
+    }
+
+
+    /**
+     * 参数名、文件名中的引号及换行按 HTML 表单的方式转义
+     */
+    private static String escape(String value) {
+        return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+    }
+
+
+    private static void write(OutputStream out, byte[] bytes, Progress progress) throws IOException {
+        out.write(bytes);
+        progress.advance(bytes.length);
+    }
+
+
+    private static DataBuffer wrap(DataBufferFactory bufferFactory, byte[] bytes, Progress progress) {
+        progress.advance(bytes.length);
+        return bufferFactory.wrap(bytes);
+    }
+
+
+    private static Mono<Void> sendBytes(NettyOutbound out, byte[] bytes, Progress progress) {
+        return Mono.defer(() -> out.sendObject(Unpooled.wrappedBuffer(bytes)).then())
+                .doOnSuccess(v -> progress.advance(bytes.length));
+    }
+
+
+    private static Mono<Void> sendPart(NettyOutbound out, Part part, Progress progress, boolean zeroCopy) {
+        Mono<Void> head = sendBytes(out, part.head, progress);
+        if (part.text != null) {
+            return head.then(sendBytes(out, part.text, progress));
+        }
+
+        Mono<Void> body = Mono.using(() -> Reader.open(part.file),
+                reader -> reader.channel != null && zeroCopy
+                        ? sendRegions(out, reader, progress)
+                        : out.send(readByteBufs(reader, out.alloc(), progress).subscribeOn(Schedulers.boundedElastic())).then(),
+                Reader::closeQuietly);
+        // 输入流可能在获取时阻塞
+        return head.then(part.file.getStream() != null ? body.subscribeOn(Schedulers.boundedElastic()) : body);
+    }
+
+
+    /**
+     * 逐段发送 FileRegion，每段写入 socket 后回调进度
+     */
+    private static Mono<Void> sendRegions(NettyOutbound out, Reader reader, Progress progress) {
+        return Flux.<ChannelRegion>generate(sink -> {
+                    ChannelRegion region = reader.nextRegion();
+                    if (region == null) {
+                        sink.complete();
+                    } else {
+                        sink.next(region);
+                    }
+                })
+                .concatMap(region -> out.sendObject(region).then().doOnSuccess(v -> progress.advance(region.count())), 1)
+                .then();
+    }
+
+
+    private static Flux<ByteBuf> readByteBufs(Reader reader, ByteBufAllocator alloc, Progress progress) {
+        return Flux.generate(sink -> {
+            ByteBuf buf = alloc.buffer(BUFFER_SIZE, BUFFER_SIZE);
+            try {
+                int n = reader.read(buf.nioBuffer(0, BUFFER_SIZE));
+                if (n < 0) {
+                    buf.release();
+                    sink.complete();
+                    return;
+                }
+                buf.writerIndex(n);
+                progress.advance(n);
+                sink.next(buf);
+            } catch (IOException | RuntimeException e) {
+                buf.release();
+                sink.error(e);
+            }
+        });
+    }
+
+
+    private static Flux<DataBuffer> readDataBuffers(Reader reader, DataBufferFactory bufferFactory, Progress progress) {
+        return Flux.generate(sink -> {
+            DataBuffer buffer = bufferFactory.allocateBuffer(BUFFER_SIZE);
+            try {
+                int n = reader.read(buffer.asByteBuffer(0, BUFFER_SIZE));
+                if (n < 0) {
+                    DataBufferUtils.release(buffer);
+                    sink.complete();
+                    return;
+                }
+                buffer.writePosition(n);
+                progress.advance(n);
+                sink.next(buffer);
+            } catch (IOException | RuntimeException e) {
+                DataBufferUtils.release(buffer);
+                sink.error(e);
+            }
+        });
+    }
+
+
+    /**
+     * multipart 的一部分：头 + 文本或文件
+     */
+    private static final class Part {
+
+        /**
+         * 分隔符及各头部，以空行结束
+         */
+        private final byte[] head;
+
+        private final byte[] text;
+
+        private final UploadFile file;
+
+        Part(byte[] head, byte[] text, UploadFile file) {
+            this.head = head;
+            this.text = text;
+            this.file = file;
+        }
+    }
+
+
+    private static final class Progress {
+
+        private final UploadProgressListener listener;
+
+        private final long total;
+
+        private long transferred;
+
+        Progress(UploadProgressListener listener, long total) {
+            this.listener = listener;
+            this.total = total;
+        }
+
+        void advance(long n) {
+            transferred += n;
+            if (listener != null) {
+                listener.onProgress(transferred, total);
+            }
+        }
+    }
+
+
+    /**
+     * 打开的文件部分：文件以 channel 的 [position, position + remaining) 读取，输入流顺序读取
+     */
+    private static final class Reader implements Closeable {
+
+        private final FileChannel channel;
+
+        /**
+         * 由 Path 打开的 channel 须关闭，调用方传入的不关闭
+         */
+        private final boolean ownChannel;
+
+        private final InputStream inputStream;
+
+        private final ReadableByteChannel streamChannel;
+
+        private long position;
+
+        /**
+         * 剩余字节数，未知时为 -1
+         */
+        private long remaining;
+
+        private Reader(FileChannel channel, boolean ownChannel, InputStream inputStream, long position, long remaining) {
+            this.channel = channel;
+            this.ownChannel = ownChannel;
+            this.inputStream = inputStream;
+            this.streamChannel = inputStream == null ? null : Channels.newChannel(inputStream);
+            this.position = position;
+            this.remaining = remaining;
+        }
+
+        static Reader open(UploadFile file) throws IOException {
+            if (file.getPath() != null) {
+                return new Reader(FileChannel.open(file.getPath(), StandardOpenOption.READ), true, null, 0L, file.getLength());
+            } else if (file.getChannel() != null) {
+                return new Reader(file.getChannel(), false, null, file.getPosition(), file.getLength());
+            }
+            return new Reader(null, false, file.getStream().getInputStream(), 0L, file.getLength());
+        }
+
+        /**
+         * 读取到 dst
+         *
+         * @return 读取的字节数，读完时为 -1
+         */
+        int read(ByteBuffer dst) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            if (remaining > 0 && dst.remaining() > remaining) {
+                dst.limit(dst.position() + (int) remaining);
+            }
+
+            int n = channel != null ? channel.read(dst, position) : streamChannel.read(dst);
+            if (n < 0) {
+                if (remaining > 0) {
+                    throw new IOException(SIZE_CHANGED);
+                }
+                return -1;
+            }
+            position += n;
+            if (remaining > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        /**
+         * 按 TRANSFER_SLICE 分段 transferTo 到 target
+         */
+        void transferTo(WritableByteChannel target, Progress progress) throws IOException {
+            while (remaining > 0) {
+                long n = channel.transferTo(position, Math.min(TRANSFER_SLICE, remaining), target);
+                if (n <= 0) {
+                    throw new IOException(SIZE_CHANGED);
+                }
+                position += n;
+                remaining -= n;
+                progress.advance(n);
+            }
+        }
+
+        /**
+         * @return 下一段，读完时为 null
+         */
+        ChannelRegion nextRegion() {
+            if (remaining <= 0) {
+                return null;
+            }
+            long count = Math.min(TRANSFER_SLICE, remaining);
+            ChannelRegion region = new ChannelRegion(channel, position, count);
+            position += count;
+            remaining -= count;
+            return region;
+        }
+
+        void closeQuietly() {
+            try {
+                close();
+            } catch (IOException ignored) {
+                // 已读取完毕或已失败，关闭异常不影响结果
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (ownChannel) {
+                channel.close();
+            }
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        }
+    }
+
+
+    /**
+     * 共享 channel 的 FileRegion。与 DefaultFileRegion 不同，释放时不关闭 channel，由 Reader 统一关闭
+     */
+    private static final class ChannelRegion extends AbstractReferenceCounted implements FileRegion {
+
+        private final FileChannel channel;
+
+        private final long position;
+
+        private final long count;
+
+        private long transferred;
+
+        ChannelRegion(FileChannel channel, long position, long count) {
+            this.channel = channel;
+            this.position = position;
+            this.count = count;
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        @Deprecated
+        public long transfered() {
+            return transferred;
+        }
+
+        @Override
+        public long transferred() {
+            return transferred;
+        }
+
+        @Override
+        public long count() {
+            return count;
+        }
+
+        @Override
+        public long transferTo(WritableByteChannel target, long position) throws IOException {
+            long count = this.count - position;
+            if (count < 0 || position < 0) {
+                throw new IllegalArgumentException("position out of range: " + position + " (expected: 0 - " + (this.count - 1) + ')');
+            }
+            if (count == 0) {
+                return 0L;
+            }
+
+            long written = channel.transferTo(this.position + position, count, target);
+            if (written > 0) {
+                transferred += written;
+            } else if (written == 0 && channel.size() < this.position + this.count) {
+                // 文件被截断时 transferTo 始终返回 0，不能当作 socket 缓冲区已满等待
+                throw new IOException(SIZE_CHANGED);
+            }
+            return written;
+        }
+
+        @Override
+        protected void deallocate() {
+            // channel 由 Reader 关闭
+        }
+
+        @Override
+        public FileRegion retain() {
+            super.retain();
+            return this;
+        }
+
+        @Override
+        public FileRegion retain(int increment) {
+            super.retain(increment);
+            return this;
+        }
+
+        @Override
+        public FileRegion touch() {
+            return this;
+        }
+
+        @Override
+        public FileRegion touch(Object hint) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.zcgk.httpplus.core.encode;
+
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.zcgk.httpplus.config.Constants4Http;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Map;
+
+/****************************************************
+ *
+ * post 请求体 编码方式
+ *      与传参方式（Constants4Http.REQUEST_PARAM_TYPE_4_*）一一对应
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 19:30
+ * @version 1.0
+ **************************************************/
+public enum RequestBodyEncoder {
+
+    /**
+     * form表单 or url参数，Content-Type 由消息转换器决定
+     */
+    FORM_OR_URL(null) {
+        @Override
+        public Object encode(Map<String, Object> paramMap) {
+            return toMultiValueMap(paramMap);
+        }
+    },
+
+    /**
+     * 上传文件。含文件（见 {@link UploadFile#isFile}）时编码为流式的 {@link MultipartBody}，不在内存中缓存文件内容
+     */
+    FILE(MediaType.MULTIPART_FORM_DATA) {
+        @Override
+        public Object encode(Map<String, Object> paramMap) {
+            return MultipartBody.containsFile(paramMap) ? MultipartBody.of(paramMap, null) : toMultiValueMap(paramMap);
+        }
+    },
+
+    /**
+     * x-www-form-urlencoded
+     */
+    APPLICATION_FORM_URLENCODED(MediaType.APPLICATION_FORM_URLENCODED) {
+        @Override
+        public Object encode(Map<String, Object> paramMap) {
+            return toMultiValueMap(paramMap);
+        }
+    },
+
+    /**
+     * json。直接序列化为 byte[]，不复制为 JSONObject，也不再经过 Jackson 消息转换器
+     */
+    JSON(MediaType.APPLICATION_JSON) {
+        @Override
+        public Object encode(Map<String, Object> paramMap) {
+            return toJson(paramMap);
+        }
+    };
+
+
+    /**
+     * json 序列化特性：保留 null 值、重复引用按值输出。
+     *      仅这两点与原 Jackson 序列化一致：序列化由 fastjson 完成，不识别 Jackson 注解（@JsonProperty、@JsonIgnore、
+     *      @JsonFormat 等），字段名、忽略字段、日期格式需用 fastjson 的 @JSONField 声明；日期默认输出毫秒时间戳
+     */
+    private static final SerializerFeature[] JSON_FEATURES = {
+            SerializerFeature.WriteMapNullValue, SerializerFeature.DisableCircularReferenceDetect};
+
+
+    private final MediaType contentType;
+
+
+    RequestBodyEncoder(MediaType contentType) {
+        this.contentType = contentType;
+    }
+
+
+    /**
+     * @param requestParamType 传参方式
+     * @return encoder 传参方式不符合规范时为 null
+     */
+    public static RequestBodyEncoder of(String requestParamType) {
+        if (Constants4Http.REQUEST_PARAM_TYPE_4_FORM_OR_URL.equals(requestParamType)) {
+            return FORM_OR_URL;
+        } else if (Constants4Http.REQUEST_PARAM_TYPE_4_FILE.equals(requestParamType)) {
+            return FILE;
+        } else if (Constants4Http.REQUEST_PARAM_TYPE_4_APPLICATION_FORM_URLENCODED.equals(requestParamType)) {
+            return APPLICATION_FORM_URLENCODED;
+        } else if (Constants4Http.REQUEST_PARAM_TYPE_4_JSON.equals(requestParamType)) {
+            return JSON;
+        }
+        return null;
+    }
+
+
+    /**
+     * @return Content-Type。为 null 时不设置
+     */
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+
+    /**
+     * 编码请求参数
+     *
+     * @param paramMap 参数
+     * @return 请求体
+     */
+    public abstract Object encode(Map<String, Object> paramMap);
+
+
+    /**
+     * 编码请求参数，并设置请求头的 Content-Type
+     *
+     * @param paramMap 参数
+     * @param header 请求头
+     * @return request
+     */
+    public HttpEntity<?> entity(Map<String, Object> paramMap, HttpHeaders header) {
+        if (contentType != null) {
+            header.setContentType(contentType);
+        }
+        return new HttpEntity<>(encode(paramMap), header);
+    }
+
+
+    /**
+     * 序列化为 json 请求体
+     *      使用 fastjson 的线程内复用缓冲区，每次请求仅分配结果 byte[]
+     *
+     * @param body 请求对象。为 byte[] 时视为已序列化，原样返回
+     * @return json
+     */
+    public static byte[] toJson(Object body) {
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        return com.alibaba.fastjson.JSON.toJSONBytes(body, JSON_FEATURES);
+    }
+
+
+    /**
+     * 封装 json 请求体。请求头未设置 Content-Type 时设置为 application/json
+     *
+     * @param body 请求对象。为 byte[] 时视为已序列化的 json
+     * @param header 请求头
+     * @return request
+     */
+    public static HttpEntity<byte[]> json(Object body, HttpHeaders header) {
+        if (header.getContentType() == null) {
+            header.setContentType(MediaType.APPLICATION_JSON);
+        }
+        return new HttpEntity<>(toJson(body), header);
+    }
+
+
+    private static MultiValueMap<String, Object> toMultiValueMap(Map<String, Object> paramMap) {
+        MultiValueMap<String, Object> requestParamMap = new LinkedMultiValueMap<>(paramMap.size());
+        // 此处避免用foreach 安卓调用会出问题
+        for (Map.Entry<String, Object> entry : paramMap.entrySet()) {
+            requestParamMap.add(entry.getKey(), entry.getValue());
+        }
+        return requestParamMap;
+    }
+}
@@ -0,0 +1,234 @@
+package com.zcgk.httpplus.core.encode;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/****************************************************
+ *
+ * 上传的文件
+ *      作为 postApi 传参方式为 file 时 paramMap 的值，请求体边读边写，不在内存中缓存文件内容。
+ *      paramMap 的值也可直接为 Path、File、FileChannel、InputStream、Resource，此时文件名取自来源
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 20:40
+ * @version 1.0
+ **************************************************/
+public final class UploadFile {
+
+    /**
+     * 以下三者有且仅有一个
+     *      path：发送时打开，发送后关闭
+     *      channel：由调用方打开及关闭，从 position 读取 length 字节，不改变 channel 的位置
+     *      stream：发送时获取，发送后关闭，只能发送一次
+     */
+    private final Path path;
+    private final FileChannel channel;
+    private final InputStreamSource stream;
+
+    private final long position;
+
+    /**
+     * 字节数，未知时为 -1，以 chunked 方式发送
+     */
+    private final long length;
+
+    private final String filename;
+
+    private final MediaType contentType;
+
+
+    private UploadFile(Path path, FileChannel channel, InputStreamSource stream, long position, long length,
+                       String filename, MediaType contentType) {
+        this.path = path;
+        this.channel = channel;
+        this.stream = stream;
+        this.position = position;
+        this.length = length;
+        this.filename = filename;
+        this.contentType = contentType != null ? contentType
+                : MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+
+    /**
+     * 本地文件，文件名及 Content-Type 取自路径
+     *
+     * @param path 路径
+     * @return file 读取文件大小失败时抛出 UncheckedIOException
+     */
+    public static UploadFile of(Path path) {
+        try {
+            return new UploadFile(path, null, null, 0L, Files.size(path), String.valueOf(path.getFileName()), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取文件大小失败：" + path, e);
+        }
+    }
+
+
+    public static UploadFile of(File file) {
+        return of(file.toPath());
+    }
+
+
+    /**
+     * 已打开的文件，从当前位置读取到末尾
+     *
+     * @param channel 由调用方关闭
+     * @param filename 文件名
+     * @return file
+     */
+    public static UploadFile of(FileChannel channel, String filename) {
+        try {
+            long position = channel.position();
+            return of(channel, position, channel.size() - position, filename);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取文件大小失败：" + filename, e);
+        }
+    }
+
+
+    /**
+     * 已打开的文件中的一段
+     *
+     * @param channel 由调用方关闭
+     * @param position 起始位置
+     * @param count 字节数
+     * @param filename 文件名
+     * @return file
+     */
+    public static UploadFile of(FileChannel channel, long position, long count, String filename) {
+        Objects.requireNonNull(channel, "channel");
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("position: " + position + ", count: " + count);
+        }
+        return new UploadFile(null, channel, null, position, count, filename, null);
+    }
+
+
+    /**
+     * 输入流，发送后关闭
+     *
+     * @param inputStream 输入流
+     * @param filename 文件名
+     * @param length 字节数，未知时为 -1
+     * @return file
+     */
+    public static UploadFile of(InputStream inputStream, String filename, long length) {
+        Objects.requireNonNull(inputStream, "inputStream");
+        return new UploadFile(null, null, () -> inputStream, 0L, length < 0 ? -1L : length, filename, null);
+    }
+
+
+    /**
+     * Resource 为文件时按 {@link #of(Path)} 发送，否则按长度未知的输入流发送
+     *
+     * @param resource resource
+     * @return file
+     */
+    public static UploadFile of(Resource resource) {
+        if (resource.isFile()) {
+            try {
+                return of(resource.getFile().toPath()).filename(resource.getFilename());
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取文件失败：" + resource, e);
+            }
+        }
+        return new UploadFile(null, null, resource, 0L, -1L, resource.getFilename(), null);
+    }
+
+
+    /**
+     * paramMap 中的值是否按文件发送
+     *
+     * @param value 值
+     * @return 是否为文件
+     */
+    public static boolean isFile(Object value) {
+        return value instanceof UploadFile || value instanceof Path || value instanceof File
+                || value instanceof FileChannel || value instanceof InputStream || value instanceof Resource;
+    }
+
+
+    /**
+     * 将 paramMap 中的值转为 UploadFile，见 {@link #isFile}
+     *
+     * @param name 参数名，FileChannel、InputStream 无文件名时用作文件名
+     * @param value 值
+     * @return file
+     */
+    static UploadFile from(String name, Object value) {
+        if (value instanceof UploadFile) {
+            return (UploadFile) value;
+        } else if (value instanceof Path) {
+            return of((Path) value);
+        } else if (value instanceof File) {
+            return of((File) value);
+        } else if (value instanceof FileChannel) {
+            return of((FileChannel) value, name);
+        } else if (value instanceof InputStream) {
+            return of((InputStream) value, name, -1L);
+        } else if (value instanceof Resource) {
+            return of((Resource) value);
+        }
+        throw new IllegalArgumentException("不支持的文件类型：" + value.getClass().getName());
+    }
+
+
+    /**
+     * @param filename 文件名
+     * @return 指定文件名的副本，未指定 Content-Type 时按文件名推断
+     */
+    public UploadFile filename(String filename) {
+        return new UploadFile(path, channel, stream, position, length, filename, null);
+    }
+
+
+    /**
+     * @param contentType Content-Type
+     * @return 指定 Content-Type 的副本
+     */
+    public UploadFile contentType(MediaType contentType) {
+        return new UploadFile(path, channel, stream, position, length, filename, contentType);
+    }
+
+
+    public Path getPath() {
+        return path;
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public InputStreamSource getStream() {
+        return stream;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,22 @@
+package com.zcgk.httpplus.core.encode;
+
+/****************************************************
+ *
+ * 上传进度回调
+ *      在写请求体的线程上调用（阻塞请求为调用方线程，非阻塞请求为事件循环或 boundedElastic 线程），
+ *      不应执行耗时操作；抛出异常时中止上传
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 20:40
+ * @version 1.0
+ **************************************************/
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    /**
+     * @param transferred 已写出的请求体字节数，含 multipart 分隔符及各部分的头
+     * @param total 请求体总字节数。含长度未知的输入流时为 -1
+     */
+    void onProgress(long transferred, long total);
+}
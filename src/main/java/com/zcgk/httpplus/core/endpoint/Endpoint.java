@@ -0,0 +1,174 @@
+package com.zcgk.httpplus.core.endpoint;
+
+import com.zcgk.httpplus.core.decode.EnvelopeResponseExtractor;
+import com.zcgk.httpplus.core.decode.SuccessPredicate;
+import com.zcgk.httpplus.core.encode.RequestBodyEncoder;
+import com.zcgk.httpplus.core.utils.HClientUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.util.UriComponents;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/****************************************************
+ *
+ * 预编译的接口描述
+ *      请求方式、传参方式、返回类型、解码方式、url 模板 在构建时一次确定，不可变，可在多线程间共享。
+ *      每次调用只绑定 url 参数及请求体，不再逐次判断字符串常量、解析 url 模板。
+ *      通过 {@link HClientUtils#endpoint(String)} 构建，应保存为常量重复使用
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 19:30
+ * @version 1.0
+ **************************************************/
+public final class Endpoint<T> {
+
+    private final HttpMethod method;
+
+    private final String url;
+
+    /**
+     * 未编码的 url 模板，不含参数时为 null
+     */
+    private final UriComponents uriTemplate;
+
+    /**
+     * 不含参数的 url 在构建时直接展开
+     */
+    private final URI fixedUri;
+
+    /**
+     * 仅 post 使用
+     */
+    private final RequestBodyEncoder bodyEncoder;
+
+    /**
+     * 只读
+     */
+    private final HttpHeaders header;
+
+    /**
+     * get 请求：仅含请求头，无请求头时为 null
+     */
+    private final HttpEntity<?> headerOnly;
+
+    private final SuccessPredicate success;
+
+    private final String dataFieldName;
+
+    /**
+     * 返回单个
+     */
+    private final boolean single;
+
+    private final EnvelopeResponseExtractor<List<T>> extractor;
+
+
+    Endpoint(HttpMethod method, String url, UriComponents uriTemplate, RequestBodyEncoder bodyEncoder, HttpHeaders header,
+             String dataFieldName, boolean single, EnvelopeResponseExtractor<List<T>> extractor) {
+        this.method = method;
+        this.url = url;
+        this.bodyEncoder = bodyEncoder;
+        this.header = HttpHeaders.readOnlyHttpHeaders(header);
+        this.headerOnly = header.isEmpty() ? null : new HttpEntity<>(this.header);
+        this.success = extractor.getPredicate();
+        this.dataFieldName = dataFieldName;
+        this.single = single;
+        this.extractor = extractor;
+
+        if (uriTemplate.toUriString().indexOf('{') < 0) {
+            this.uriTemplate = null;
+            this.fixedUri = URI.create(uriTemplate.encode().toUriString());
+        } else {
+            this.uriTemplate = uriTemplate;
+            this.fixedUri = null;
+        }
+    }
+
+
+    /**
+     * 请求。参数同 {@link HClientUtils#getApi} / {@link HClientUtils#postApi}
+     *
+     * @param paramMap get 请求为 url 参数，post 请求为请求体参数
+     * @return tList 同 getApi / postApi
+     */
+    public List<T> call(Map<String, Object> paramMap) {
+        return HClientUtils.call(this, paramMap);
+    }
+
+
+    /**
+     * 非阻塞请求
+     *
+     * @param paramMap get 请求为 url 参数，post 请求为请求体参数
+     * @return future 同 getApiAsync / postApiAsync
+     */
+    public CompletableFuture<List<T>> callAsync(Map<String, Object> paramMap) {
+        return HClientUtils.callAsync(this, paramMap);
+    }
+
+
+    /**
+     * 展开 url 模板，编码方式与 RestTemplate 默认一致
+     *
+     * @param uriVariables url 参数
+     * @return uri
+     */
+    public URI expand(Map<String, ?> uriVariables) {
+        if (fixedUri != null) {
+            return fixedUri;
+        }
+        UriComponents expanded = uriTemplate.expand(CollectionUtils.isEmpty(uriVariables) ? Collections.emptyMap() : uriVariables);
+        return URI.create(expanded.encode().toUriString());
+    }
+
+
+    /**
+     * 封装请求体
+     *
+     * @param paramMap 请求体参数
+     * @return request get 请求仅含请求头，无请求头时为 null
+     */
+    public HttpEntity<?> request(Map<String, Object> paramMap) {
+        if (bodyEncoder == null) {
+            return headerOnly;
+        }
+        return new HttpEntity<>(bodyEncoder.encode(CollectionUtils.isEmpty(paramMap) ? Collections.emptyMap() : paramMap), header);
+    }
+
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public HttpHeaders getHeader() {
+        return header;
+    }
+
+    public SuccessPredicate getSuccess() {
+        return success;
+    }
+
+    public String getDataFieldName() {
+        return dataFieldName;
+    }
+
+    public boolean isSingle() {
+        return single;
+    }
+
+    public EnvelopeResponseExtractor<List<T>> getExtractor() {
+        return extractor;
+    }
+}
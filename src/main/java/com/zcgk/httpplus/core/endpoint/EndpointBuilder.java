@@ -0,0 +1,274 @@
+package com.zcgk.httpplus.core.endpoint;
+
+import com.alibaba.fastjson.TypeReference;
+import com.zcgk.httpplus.config.Constants4Http;
+import com.zcgk.httpplus.core.decode.EnvelopeCodec;
+import com.zcgk.httpplus.core.decode.EnvelopeCodecs;
+import com.zcgk.httpplus.core.decode.EnvelopeResponseExtractor;
+import com.zcgk.httpplus.core.decode.SuccessPredicate;
+import com.zcgk.httpplus.core.encode.RequestBodyEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/****************************************************
+ *
+ * 接口描述 构建器
+ *      如：HClientUtils.endpoint(url).get().json().list(User.class).success("code", "200").data("data").build()
+ *      各项含义与 getApi / postApi 的同名参数一致。构建器本身非线程安全，构建结果 {@link Endpoint} 不可变
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 19:30
+ * @version 1.0
+ **************************************************/
+public final class EndpointBuilder<T> {
+
+    private final String url;
+
+    private HttpMethod method = HttpMethod.GET;
+
+    private String requestParamType = Constants4Http.REQUEST_PARAM_TYPE_4_FORM_OR_URL;
+
+    private String responseType = Constants4Http.RESPONSE_TYPE_4_JSON;
+
+    private String responseDataType;
+
+    private Type type;
+
+    private final HttpHeaders header = new HttpHeaders();
+
+    private final SuccessPredicate.Builder successBuilder = SuccessPredicate.builder();
+
+    /**
+     * 指定时忽略 success(key, value)
+     */
+    private SuccessPredicate success;
+
+    private String dataFieldName;
+
+    private final List<String> captures = new ArrayList<>();
+
+
+    public EndpointBuilder(String url) {
+        this.url = Objects.requireNonNull(url, "url");
+    }
+
+
+    public EndpointBuilder<T> get() {
+        this.method = HttpMethod.GET;
+        return this;
+    }
+
+
+    public EndpointBuilder<T> post() {
+        this.method = HttpMethod.POST;
+        return this;
+    }
+
+
+    /**
+     * 返回类型 json（默认）
+     */
+    public EndpointBuilder<T> json() {
+        this.responseType = Constants4Http.RESPONSE_TYPE_4_JSON;
+        return this;
+    }
+
+
+    /**
+     * 返回类型 string
+     */
+    public EndpointBuilder<T> string() {
+        this.responseType = Constants4Http.RESPONSE_TYPE_4_STRING;
+        return this;
+    }
+
+
+    /**
+     * 返回类型 smile。Accept 优先声明 smile，服务端按 json 返回时仍按 json 解码
+     */
+    public EndpointBuilder<T> smile() {
+        this.responseType = Constants4Http.RESPONSE_TYPE_4_SMILE;
+        return this;
+    }
+
+
+    /**
+     * 返回类型。json、string、smile 或通过 EnvelopeCodecs.register 注册的名称
+     *
+     * @param responseType 返回类型
+     */
+    public EndpointBuilder<T> responseType(String responseType) {
+        this.responseType = responseType;
+        return this;
+    }
+
+
+    /**
+     * post 传参方式。默认 form表单/url参数
+     *
+     * @param requestParamType Constants4Http.REQUEST_PARAM_TYPE_4_*
+     */
+    public EndpointBuilder<T> requestParamType(String requestParamType) {
+        this.requestParamType = requestParamType;
+        return this;
+    }
+
+
+    /**
+     * post 传参方式：json
+     */
+    public EndpointBuilder<T> jsonBody() {
+        return requestParamType(Constants4Http.REQUEST_PARAM_TYPE_4_JSON);
+    }
+
+
+    /**
+     * post 传参方式：x-www-form-urlencoded
+     */
+    public EndpointBuilder<T> formUrlencoded() {
+        return requestParamType(Constants4Http.REQUEST_PARAM_TYPE_4_APPLICATION_FORM_URLENCODED);
+    }
+
+
+    public EndpointBuilder<T> header(String name, String value) {
+        header.add(name, value);
+        return this;
+    }
+
+
+    /**
+     * 返回单个。调用结果与 getApi 一致为仅含一个元素的 list
+     *
+     * @param clazz 返回值的泛型。 t.class
+     */
+    public <R> EndpointBuilder<R> obj(Class<R> clazz) {
+        return returns(clazz, Constants4Http.RESPONSE_DATA_TYPE_4_OBJ);
+    }
+
+
+    /**
+     * 返回单个，类型可带泛型
+     *
+     * @param typeReference 返回值类型。如：new TypeReference<Map<String, User>>() {}
+     */
+    public <R> EndpointBuilder<R> obj(TypeReference<R> typeReference) {
+        return returns(typeReference.getType(), Constants4Http.RESPONSE_DATA_TYPE_4_OBJ);
+    }
+
+
+    /**
+     * 返回多个
+     *
+     * @param clazz 返回值的泛型。 t.class
+     */
+    public <R> EndpointBuilder<R> list(Class<R> clazz) {
+        return returns(clazz, Constants4Http.RESPONSE_DATA_TYPE_4_LIST);
+    }
+
+
+    /**
+     * 返回多个，元素类型可带泛型
+     *
+     * @param typeReference 元素类型。如：new TypeReference<Map<String, User>>() {}
+     */
+    public <R> EndpointBuilder<R> list(TypeReference<R> typeReference) {
+        return returns(typeReference.getType(), Constants4Http.RESPONSE_DATA_TYPE_4_LIST);
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private <R> EndpointBuilder<R> returns(Type type, String responseDataType) {
+        EndpointBuilder<R> builder = (EndpointBuilder<R>) this;
+        builder.type = type;
+        builder.responseDataType = responseDataType;
+        return builder;
+    }
+
+
+    /**
+     * 返回成功的判断标识，可多次调用。如：success("code", "200")
+     */
+    public EndpointBuilder<T> success(String key, String value) {
+        successBuilder.eq(key, value);
+        return this;
+    }
+
+
+    /**
+     * 返回成功的判断条件，可组合 范围、任一 等规则。如：
+     *      success(SuccessPredicate.builder().range("code", 200, 299).build())
+     */
+    public EndpointBuilder<T> success(SuccessPredicate success) {
+        this.success = success;
+        return this;
+    }
+
+
+    /**
+     * 额外读取的字段，不判断，读取结果在 ResponseEnvelope.state 中，可多次调用。
+     *      如分页接口的 capture("total")，须与 code 等状态字段位于同一层
+     */
+    public EndpointBuilder<T> capture(String key) {
+        captures.add(Objects.requireNonNull(key, "key"));
+        return this;
+    }
+
+
+    /**
+     * 返回值的字段名。如：data
+     */
+    public EndpointBuilder<T> data(String dataFieldName) {
+        this.dataFieldName = dataFieldName;
+        return this;
+    }
+
+
+    /**
+     * 构建。配置不符合规范时抛出 IllegalStateException
+     *
+     * @return endpoint
+     */
+    public Endpoint<T> build() {
+        if (type == null) {
+            throw new IllegalStateException("未指定返回值类型，须调用 obj(clazz) 或 list(clazz)");
+        }
+        EnvelopeCodec codec = EnvelopeCodecs.of(responseType);
+        if (codec == null) {
+            throw new IllegalStateException("返回类型 值不符合规范：" + responseType);
+        }
+
+        RequestBodyEncoder bodyEncoder = null;
+        if (HttpMethod.POST.equals(method)) {
+            bodyEncoder = RequestBodyEncoder.of(requestParamType);
+            if (bodyEncoder == null) {
+                throw new IllegalStateException("post请求，传参方式 值不符合规范：" + requestParamType);
+            }
+        }
+
+        // 判断条件、值字段 任一为空时不判断返回值，与 getApi 一致
+        SuccessPredicate predicate = success != null ? success : successBuilder.build();
+        if (!captures.isEmpty()) {
+            predicate = predicate.withCapture(captures);
+        }
+        boolean single = Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType);
+        EnvelopeResponseExtractor<List<T>> extractor = single
+                ? EnvelopeResponseExtractor.<T>objAsList(type, predicate, dataFieldName, codec)
+                : EnvelopeResponseExtractor.<T>list(type, predicate, dataFieldName, codec);
+
+        HttpHeaders header = new HttpHeaders();
+        header.putAll(this.header);
+        if (bodyEncoder != null && bodyEncoder.getContentType() != null) {
+            header.setContentType(bodyEncoder.getContentType());
+        }
+
+        return new Endpoint<>(method, url, UriComponentsBuilder.fromUriString(url).build(), bodyEncoder, header,
+                dataFieldName, single, extractor);
+    }
+}
@@ -0,0 +1,48 @@
+package com.zcgk.httpplus.core.engine;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 阻塞引擎连接统计（快照）
+ *      http1 为连接池状态，一个连接同时只执行一个请求；h2 为各 host 连接及其上的流，一个连接同时执行多个请求
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 22:40
+ * @version 1.0
+ **************************************************/
+@Data
+public class ConnectionStats {
+
+    /**
+     * 传输协议：http1 or h2
+     */
+    private String protocol;
+
+    /**
+     * 已建立的连接数
+     */
+    private int connections;
+
+    /**
+     * 正在执行的请求数。http1 为借出的连接数，h2 为活跃的流数
+     */
+    private int active;
+
+    /**
+     * 没有请求在执行的连接数
+     */
+    private int idle;
+
+    /**
+     * 等待中的请求数。http1 为等待连接的线程数，h2 为超出服务端并发流上限、在连接上排队的流数
+     */
+    private int pending;
+
+    /**
+     * 不排队时可同时执行的请求数。http1 为 maxTotal，h2 为各连接服务端并发流上限之和
+     */
+    private int capacity;
+
+}
@@ -0,0 +1,72 @@
+package com.zcgk.httpplus.core.engine;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/****************************************************
+ *
+ * json 请求体 gzip 压缩
+ *      请求体不小于阈值、Content-Type 为 json 且未设置 Content-Encoding 时压缩。非阻塞请求见 {@link HClientAsyncEngine#compress}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 15:50
+ * @version 1.0
+ **************************************************/
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String GZIP = "gzip";
+
+    private final int threshold;
+
+    public GzipRequestInterceptor(int threshold) {
+        this.threshold = threshold;
+    }
+
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if (!shouldCompress(headers, body.length, threshold)) {
+            return execution.execute(request, body);
+        }
+
+        byte[] compressed = gzip(body);
+        headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        headers.setContentLength(compressed.length);
+        return execution.execute(request, compressed);
+    }
+
+
+    /**
+     * @param headers 请求头
+     * @param length 请求体字节数
+     * @param threshold 阈值。小于等于0 不压缩
+     * @return 是否压缩
+     */
+    public static boolean shouldCompress(HttpHeaders headers, int length, int threshold) {
+        if (threshold <= 0 || length < threshold) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                && !headers.containsKey(HttpHeaders.CONTENT_ENCODING);
+    }
+
+
+    public static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
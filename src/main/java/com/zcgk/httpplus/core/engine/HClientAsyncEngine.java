@@ -0,0 +1,273 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.config.HClientConfig;
+import com.zcgk.httpplus.core.balance.HClientBalancer;
+import com.zcgk.httpplus.core.encode.MultipartBody;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/****************************************************
+ *
+ * 非阻塞 http 客户端引擎
+ *      基于 WebClient + Reactor Netty，少量事件循环线程即可承载大量并发请求。
+ *      lb://服务名 的请求由 {@link HClientBalancer} 选择实例，自定义 webClient 须自行添加 {@link HClientBalancer#filter()}。
+ *      全局共享，只构建一次
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 11:50
+ * @version 1.0
+ **************************************************/
+public class HClientAsyncEngine {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static volatile HClientAsyncEngine instance;
+
+    private static final ExchangeStrategies STRATEGIES = ExchangeStrategies.withDefaults();
+
+    private static final DefaultDataBufferFactory BUFFER_FACTORY = new DefaultDataBufferFactory();
+
+    /**
+     * 使用自定义 webClient 时为空
+     */
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+
+    private final WebClient webClient;
+
+    /**
+     * json 请求体压缩阈值，见 {@link HClientConfig#getRequestCompressionThreshold()}。使用自定义 webClient 时不压缩
+     */
+    private final int requestCompressionThreshold;
+
+
+    private HClientAsyncEngine(HClientConfig config) {
+        this.requestCompressionThreshold = config.getRequestCompressionThreshold();
+        this.connectionProvider = ConnectionProvider.fixed("hclient", config.getMaxTotal(),
+                config.getConnectionRequestTimeout(), Duration.ofSeconds(config.getIdleEvictSeconds()), null);
+
+        // 与 RestTemplate 保持一致的 url 模板编码方式
+        DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+        uriBuilderFactory.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.URI_COMPONENT);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider).compress(config.isContentCompression());
+        if (config.getConnectTimeout() > 0) {
+            httpClient = httpClient.tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeout()));
+        }
+        if (config.getReadTimeout() > 0) {
+            // 两次读取之间的最长间隔，与 httpclient 的 socketTimeout 含义一致
+            httpClient = httpClient.doOnRequest((request, connection) ->
+                    connection.addHandlerLast(new ReadTimeoutHandler(config.getReadTimeout(), TimeUnit.MILLISECONDS)));
+        }
+
+        this.httpClient = httpClient;
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .uriBuilderFactory(uriBuilderFactory)
+                .filter(HClientBalancer.filter())
+                .build();
+    }
+
+    private HClientAsyncEngine(WebClient webClient) {
+        this.connectionProvider = null;
+        this.httpClient = null;
+        this.webClient = webClient;
+        this.requestCompressionThreshold = -1;
+    }
+
+
+    /**
+     * 获取全局引擎。首次调用时以默认配置构建
+     *
+     * @return engine
+     */
+    public static HClientAsyncEngine get() {
+        HClientAsyncEngine engine = instance;
+        if (engine != null) {
+            return engine;
+        }
+
+        LOCK.lock();
+        try {
+            if (instance == null) {
+                instance = new HClientAsyncEngine(new HClientConfig());
+            }
+            return instance;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+
+    /**
+     * 以指定配置重建全局引擎，旧引擎的连接池会被释放。
+     *      应在应用启动阶段调用
+     *
+     * @param config 引擎配置
+     */
+    public static void configure(HClientConfig config) {
+        replace(new HClientAsyncEngine(config));
+    }
+
+
+    /**
+     * 以自定义 webClient 重建全局引擎。应在应用启动阶段调用
+     *
+     * @param webClient 自定义 webClient
+     */
+    public static void configure(WebClient webClient) {
+        replace(new HClientAsyncEngine(webClient));
+    }
+
+
+    private static void replace(HClientAsyncEngine engine) {
+        HClientAsyncEngine old;
+        LOCK.lock();
+        try {
+            old = instance;
+            instance = engine;
+        } finally {
+            LOCK.unlock();
+        }
+
+        if (old != null) {
+            old.close();
+        }
+    }
+
+
+    /**
+     * 释放连接池
+     */
+    public void close() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+    }
+
+
+    /**
+     * 上传 multipart 请求体
+     *      WebClient 的零拷贝写入只能发送单个完整文件，无法夹带 multipart 分隔符，
+     *      故直接使用 Reactor Netty 发送，明文 http 时文件以 FileRegion 由内核发送；
+     *      使用自定义 webClient 时按普通请求体分块发送
+     *
+     * @param uri url
+     * @param headers 请求头
+     * @param body 请求体
+     * @return response 与 WebClient.exchange 一致，响应体已读入内存
+     */
+    public Mono<ClientResponse> upload(URI uri, HttpHeaders headers, MultipartBody body) {
+        return HClientBalancer.exchange(uri, target -> doUpload(target, headers, body));
+    }
+
+
+    private Mono<ClientResponse> doUpload(URI uri, HttpHeaders headers, MultipartBody body) {
+        if (httpClient == null) {
+            return webClient.post()
+                    .uri(uri)
+                    .headers(h -> {
+                        h.putAll(headers);
+                        h.setContentType(body.getContentType());
+                        if (body.getContentLength() >= 0) {
+                            h.setContentLength(body.getContentLength());
+                        }
+                    })
+                    .body((message, context) -> message.writeWith(body.toDataBuffers(message.bufferFactory())))
+                    .exchange();
+        }
+
+        boolean zeroCopy = !"https".equalsIgnoreCase(uri.getScheme());
+        return httpClient
+                .headers(h -> {
+                    for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                        h.set(entry.getKey(), entry.getValue());
+                    }
+                    h.set(HttpHeaderNames.CONTENT_TYPE, body.getContentType().toString());
+                    if (body.getContentLength() >= 0) {
+                        h.set(HttpHeaderNames.CONTENT_LENGTH, body.getContentLength());
+                    } else {
+                        h.set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+                    }
+                })
+                .post()
+                .uri(uri.toASCIIString())
+                .send((request, out) -> body.send(out, zeroCopy))
+                .responseSingle((response, content) -> content.asByteArray()
+                        .defaultIfEmpty(new byte[0])
+                        .map(bytes -> toClientResponse(response, bytes)));
+    }
+
+
+    /**
+     * json 请求体不小于压缩阈值时以 gzip 压缩，规则与阻塞引擎的 {@link GzipRequestInterceptor} 一致。
+     *      在发送前压缩一次，重试时复用压缩后的请求体
+     *
+     * @param request 请求头及请求体。可为 null
+     * @return 压缩后的请求。无需压缩时原样返回
+     */
+    public HttpEntity<?> compress(HttpEntity<?> request) {
+        if (request == null || !(request.getBody() instanceof byte[])) {
+            return request;
+        }
+        byte[] body = (byte[]) request.getBody();
+        if (!GzipRequestInterceptor.shouldCompress(request.getHeaders(), body.length, requestCompressionThreshold)) {
+            return request;
+        }
+
+        byte[] compressed;
+        try {
+            compressed = GzipRequestInterceptor.gzip(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("请求体压缩失败", e);
+        }
+        // 请求头可能是接口共享的，复制后修改
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.setContentLength(compressed.length);
+        return new HttpEntity<>(compressed, headers);
+    }
+
+
+    public WebClient getWebClient() {
+        return webClient;
+    }
+
+
+    private static ClientResponse toClientResponse(HttpClientResponse response, byte[] bytes) {
+        return ClientResponse.create(response.status().code(), STRATEGIES)
+                .headers(h -> {
+                    for (Map.Entry<String, String> entry : response.responseHeaders()) {
+                        h.add(entry.getKey(), entry.getValue());
+                    }
+                })
+                .body(bytes.length == 0 ? Flux.empty() : Flux.just(BUFFER_FACTORY.wrap(bytes)))
+                .build();
+    }
+}
@@ -0,0 +1,322 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.config.Constants4Http;
+import com.zcgk.httpplus.config.HClientConfig;
+import com.zcgk.httpplus.core.balance.BalancingClientHttpRequestFactory;
+import com.zcgk.httpplus.core.metrics.HClientMetrics;
+import com.zcgk.httpplus.core.metrics.MetricsClientHttpRequestFactory;
+import com.zcgk.httpplus.core.metrics.MetricsConnectionSocketFactory;
+import com.zcgk.httpplus.core.metrics.MetricsDnsResolver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/****************************************************
+ *
+ * http 客户端引擎
+ *      全局共享，只构建一次。默认基于 httpclient 连接池，支持 keep-alive 与空闲连接回收；
+ *      传输协议为 h2 时基于 {@link Http2ClientHttpRequestFactory}，请求在少量连接上多路复用；
+ *      也可通过 {@link #configure(ClientHttpRequestFactory)} 替换为自定义的 ClientHttpRequestFactory。
+ *      lb://服务名 的请求由 {@link BalancingClientHttpRequestFactory} 选择实例
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 09:30
+ * @version 1.0
+ **************************************************/
+@Slf4j
+public class HClientEngine {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static volatile HClientEngine instance;
+
+    private final HClientConfig config;
+
+    /**
+     * 使用自定义 requestFactory 或传输协议为 h2 时为空
+     */
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final PermitConnectionManager permitConnectionManager;
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * 传输协议为 h2 时不为空，此时 httpclient 相关字段为空
+     */
+    private final Http2ClientHttpRequestFactory http2RequestFactory;
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    private final RestTemplate restTemplate;
+
+    /**
+     * 不缓冲请求体，用于上传文件等大请求体。使用自定义 requestFactory 时同 restTemplate
+     */
+    private final RestTemplate streamingRestTemplate;
+
+
+    private HClientEngine(HClientConfig config) {
+        this.config = config;
+
+        if (Constants4Http.PROTOCOL_4_H2.equals(config.getProtocol())) {
+            this.connectionManager = null;
+            this.permitConnectionManager = null;
+            this.httpClient = null;
+            this.http2RequestFactory = new Http2ClientHttpRequestFactory(config);
+            this.requestFactory = http2RequestFactory;
+            this.restTemplate = new RestTemplate(decorate(requestFactory));
+            if (config.getRequestCompressionThreshold() > 0) {
+                this.restTemplate.getInterceptors().add(new GzipRequestInterceptor(config.getRequestCompressionThreshold()));
+            }
+            // 请求体按 DATA 帧边读边写；拦截器会重新缓冲请求体，故不添加请求压缩
+            this.streamingRestTemplate = new RestTemplate(decorate(http2RequestFactory.streaming()));
+            registerGauges();
+            return;
+        }
+        if (!Constants4Http.PROTOCOL_4_HTTP1.equals(config.getProtocol())) {
+            throw new IllegalArgumentException("不支持的传输协议：" + config.getProtocol());
+        }
+
+        // 记录 DNS 解析、建立连接耗时
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", MetricsConnectionSocketFactory.of(PlainConnectionSocketFactory.getSocketFactory()))
+                .register("https", MetricsConnectionSocketFactory.of(SSLConnectionSocketFactory.getSocketFactory()))
+                .build();
+        this.connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry,
+                new MetricsDnsResolver(SystemDefaultDnsResolver.INSTANCE));
+        this.connectionManager.setMaxTotal(config.getMaxTotal());
+        this.connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+        this.connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivityMillis());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeout())
+                .setConnectTimeout(config.getConnectTimeout())
+                .setSocketTimeout(config.getReadTimeout())
+                .build();
+
+        // 获取连接前先取得许可，虚拟线程不会在连接池的 synchronized 块内等待
+        this.permitConnectionManager = new PermitConnectionManager(connectionManager);
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(permitConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(config.getKeepAliveMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getIdleEvictSeconds(), TimeUnit.SECONDS);
+        if (!config.isContentCompression()) {
+            // 默认发送 Accept-Encoding: gzip,deflate，响应体边读边解压
+            builder.disableContentCompression();
+        }
+        this.httpClient = builder.build();
+        this.http2RequestFactory = null;
+
+        // 按接口策略覆盖超时
+        this.requestFactory = new HClientRequestFactory(httpClient, requestConfig);
+        this.restTemplate = new RestTemplate(decorate(requestFactory));
+        if (config.getRequestCompressionThreshold() > 0) {
+            this.restTemplate.getInterceptors().add(new GzipRequestInterceptor(config.getRequestCompressionThreshold()));
+        }
+
+        // 请求体在连接建立后边读边写；拦截器会重新缓冲请求体，故不添加请求压缩
+        HClientRequestFactory streamingRequestFactory = new HClientRequestFactory(httpClient, requestConfig);
+        streamingRequestFactory.setBufferRequestBody(false);
+        this.streamingRestTemplate = new RestTemplate(decorate(streamingRequestFactory));
+        registerGauges();
+    }
+
+    private HClientEngine(ClientHttpRequestFactory requestFactory) {
+        this.config = null;
+        this.connectionManager = null;
+        this.permitConnectionManager = null;
+        this.httpClient = null;
+        this.http2RequestFactory = null;
+        this.requestFactory = requestFactory;
+        this.restTemplate = new RestTemplate(decorate(requestFactory));
+        this.streamingRestTemplate = restTemplate;
+    }
+
+
+    /**
+     * 获取全局引擎。首次调用时以默认配置构建
+     *
+     * @return engine
+     */
+    public static HClientEngine get() {
+        HClientEngine engine = instance;
+        if (engine != null) {
+            return engine;
+        }
+
+        LOCK.lock();
+        try {
+            if (instance == null) {
+                instance = new HClientEngine(new HClientConfig());
+            }
+            return instance;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+
+    /**
+     * 以指定配置重建全局引擎，旧引擎的连接池会被关闭。
+     *      应在应用启动阶段调用
+     *
+     * @param config 引擎配置
+     */
+    public static void configure(HClientConfig config) {
+        replace(new HClientEngine(config));
+    }
+
+
+    /**
+     * 以自定义 requestFactory 重建全局引擎，旧引擎的连接池会被关闭。
+     *      连接池、超时等由调用方自行管理。应在应用启动阶段调用
+     *
+     * @param requestFactory 自定义 requestFactory
+     */
+    public static void configure(ClientHttpRequestFactory requestFactory) {
+        replace(new HClientEngine(requestFactory));
+    }
+
+
+    private static void replace(HClientEngine engine) {
+        HClientEngine old;
+        LOCK.lock();
+        try {
+            old = instance;
+            instance = engine;
+        } finally {
+            LOCK.unlock();
+        }
+
+        if (old != null) {
+            old.close();
+        }
+    }
+
+
+    /**
+     * 关闭连接池及空闲连接回收线程
+     */
+    public void close() {
+        if (http2RequestFactory != null) {
+            http2RequestFactory.close();
+        }
+        if (httpClient == null) {
+            return;
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("关闭http连接池失败", e);
+        }
+    }
+
+
+    /**
+     * 连接统计，用于比较 http1 连接池与 h2 多路复用的连接使用情况。
+     *      同时以 hclient.connections（标签 state：connections、active、idle、pending）发布到指标 registry
+     *
+     * @return stats 使用自定义 requestFactory 时为 null
+     */
+    public ConnectionStats getConnectionStats() {
+        if (permitConnectionManager != null) {
+            return permitConnectionManager.stats();
+        }
+        if (http2RequestFactory != null) {
+            return http2RequestFactory.getStats();
+        }
+        return null;
+    }
+
+
+    public HClientConfig getConfig() {
+        return config;
+    }
+
+    public PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    public RestTemplate getStreamingRestTemplate() {
+        return streamingRestTemplate;
+    }
+
+
+    /**
+     * 负载均衡、记录指标
+     */
+    private static ClientHttpRequestFactory decorate(ClientHttpRequestFactory requestFactory) {
+        return new MetricsClientHttpRequestFactory(new BalancingClientHttpRequestFactory(requestFactory));
+    }
+
+
+    /**
+     * 注册连接统计 gauge，读取当前的全局引擎，引擎重建后无需重新注册
+     */
+    private static void registerGauges() {
+        MeterRegistry registry = HClientMetrics.registry();
+        registerGauge(registry, "connections", ConnectionStats::getConnections);
+        registerGauge(registry, "active", ConnectionStats::getActive);
+        registerGauge(registry, "idle", ConnectionStats::getIdle);
+        registerGauge(registry, "pending", ConnectionStats::getPending);
+    }
+
+
+    private static void registerGauge(MeterRegistry registry, String state, ToIntFunction<ConnectionStats> value) {
+        Gauge.builder(HClientMetrics.CONNECTIONS, () -> {
+                    HClientEngine engine = instance;
+                    ConnectionStats stats = engine == null ? null : engine.getConnectionStats();
+                    return stats == null ? Double.NaN : value.applyAsInt(stats);
+                })
+                .tag("state", state)
+                .register(registry);
+    }
+
+
+    /**
+     * 优先使用服务端 Keep-Alive 头中的 timeout，未返回时使用默认时长
+     *
+     * @param keepAliveMillis 默认时长
+     * @return strategy
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMillis) {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : keepAliveMillis;
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.core.resilience.HClientResilience;
+import com.zcgk.httpplus.core.resilience.RequestScope;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+
+/****************************************************
+ *
+ * 按接口策略设置超时的 requestFactory
+ *      当前线程有 {@link RequestScope} 时，以接口策略的连接、读取超时（不超过总时限剩余时间）覆盖默认值，
+ *      并在总时限到期时中止请求
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:50
+ * @version 1.0
+ **************************************************/
+public class HClientRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final RequestConfig defaultConfig;
+
+
+    public HClientRequestFactory(HttpClient httpClient, RequestConfig defaultConfig) {
+        super(httpClient);
+        this.defaultConfig = defaultConfig;
+    }
+
+
+    @Override
+    protected void postProcessHttpRequest(HttpUriRequest request) {
+        RequestScope scope = HClientResilience.current();
+        if (scope != null) {
+            scope.abortOnDeadline(request);
+        }
+    }
+
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        RequestScope scope = HClientResilience.current();
+        if (scope == null) {
+            return null;
+        }
+
+        RequestConfig requestConfig = scope.requestConfig(defaultConfig);
+        if (requestConfig == null) {
+            return null;
+        }
+
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig);
+        return context;
+    }
+}
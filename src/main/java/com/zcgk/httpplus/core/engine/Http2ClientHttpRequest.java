@@ -0,0 +1,192 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.core.resilience.HClientResilience;
+import com.zcgk.httpplus.core.resilience.RequestScope;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInitializer;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import org.apache.http.client.config.RequestConfig;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/****************************************************
+ *
+ * HTTP/2 流上的请求
+ *      请求体缓冲后与请求头一并写出（流式写出见 {@link StreamingHttp2ClientHttpRequest}）。当前线程有 {@link RequestScope} 时，
+ *      以接口策略的连接、读取超时覆盖默认值，并在总时限到期时取消该流
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 22:40
+ * @version 1.0
+ **************************************************/
+class Http2ClientHttpRequest extends AbstractClientHttpRequest {
+
+    private final Http2ConnectionPool pool;
+
+    private final RequestConfig defaultConfig;
+
+    private final boolean contentCompression;
+
+    private final URI uri;
+
+    private final HttpMethod method;
+
+    private final ByteArrayOutputStream bufferedOutput = new ByteArrayOutputStream(1024);
+
+
+    Http2ClientHttpRequest(Http2ConnectionPool pool, RequestConfig defaultConfig, boolean contentCompression,
+                           URI uri, HttpMethod method) {
+        this.pool = pool;
+        this.defaultConfig = defaultConfig;
+        this.contentCompression = contentCompression;
+        this.uri = uri;
+        this.method = method;
+    }
+
+
+    @Override
+    public String getMethodValue() {
+        return method.name();
+    }
+
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+        return bufferedOutput;
+    }
+
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        byte[] body = bufferedOutput.toByteArray();
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+                io.netty.handler.codec.http.HttpMethod.valueOf(method.name()), pathAndQuery(uri),
+                Unpooled.wrappedBuffer(body));
+        copyHeaders(headers, request);
+        if (body.length > 0) {
+            request.headers().set(HttpHeaderNames.CONTENT_LENGTH, body.length);
+        }
+        return exchange(request, (stream, response, writeTimeout) ->
+                stream.writeAndFlush(request).addListener(failOnError(response)));
+    }
+
+
+    /**
+     * 打开流，写出请求后等待响应头
+     *
+     * @param request 请求头（含 :authority、Accept-Encoding）
+     * @param writer 在流上写出请求
+     * @return response
+     * @throws IOException 打开流、写出请求失败，等待响应头超时
+     */
+    ClientHttpResponse exchange(HttpRequest request, RequestWriter writer) throws IOException {
+        RequestConfig requestConfig = defaultConfig;
+        RequestScope scope = HClientResilience.current();
+        if (scope != null) {
+            RequestConfig scoped = scope.requestConfig(defaultConfig);
+            if (scoped != null) {
+                requestConfig = scoped;
+            }
+        }
+
+        // 转为 :authority
+        request.headers().set(HttpHeaderNames.HOST, uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        if (contentCompression && !request.headers().contains(HttpHeaderNames.ACCEPT_ENCODING)) {
+            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.GZIP_DEFLATE);
+        }
+
+        Http2ClientHttpResponse response = new Http2ClientHttpResponse(requestConfig.getSocketTimeout());
+        Http2StreamChannel stream = pool.openStream(uri, new ChannelInitializer<Http2StreamChannel>() {
+            @Override
+            protected void initChannel(Http2StreamChannel channel) {
+                channel.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(false));
+                if (contentCompression) {
+                    channel.pipeline().addLast(new HttpContentDecompressor());
+                }
+                channel.pipeline().addLast(response.handler());
+            }
+        }, requestConfig.getConnectTimeout(), requestConfig.getConnectionRequestTimeout());
+        if (scope != null) {
+            scope.abortOnDeadline(stream::close);
+        }
+
+        try {
+            writer.write(stream, response, requestConfig.getSocketTimeout());
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+        response.awaitHead(stream);
+        return response;
+    }
+
+
+    static void copyHeaders(HttpHeaders headers, HttpRequest request) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            request.headers().add(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+    /**
+     * 写出失败时结束响应并关闭流
+     */
+    static ChannelFutureListener failOnError(Http2ClientHttpResponse response) {
+        return future -> {
+            if (!future.isSuccess()) {
+                response.fail(future.cause());
+                future.channel().close();
+            }
+        };
+    }
+
+
+    static String pathAndQuery(URI uri) {
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+    }
+
+
+    /**
+     * 在流上写出请求
+     */
+    @FunctionalInterface
+    interface RequestWriter {
+
+        /**
+         * @param stream 流
+         * @param response 响应，写出失败时以 fail 结束
+         * @param writeTimeout 等待写出的最长时间（毫秒），小于等于0 不超时
+         * @throws IOException 写出失败
+         */
+        void write(Http2StreamChannel stream, Http2ClientHttpResponse response, int writeTimeout) throws IOException;
+    }
+}
@@ -0,0 +1,90 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.config.HClientConfig;
+import org.apache.http.client.config.RequestConfig;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.net.URI;
+
+/****************************************************
+ *
+ * HTTP/2 requestFactory
+ *      基于 netty，每个 host 只建立少量连接，并发请求以流的形式在连接上多路复用。
+ *      https 经 ALPN 协商 h2，http 以 h2c 直接发送 HTTP/2（服务端须支持 h2c 先验知识）。
+ *      超时与 httpclient 含义一致：connectTimeout 建立连接，readTimeout 两次收到数据的最大间隔，
+ *      connectionRequestTimeout 在连接上打开流
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 22:40
+ * @version 1.0
+ **************************************************/
+public class Http2ClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final Http2ConnectionPool pool;
+
+    private final RequestConfig defaultConfig;
+
+    private final boolean contentCompression;
+
+    /**
+     * 为 false 时以 setBody 设置的请求体流式写出
+     */
+    private final boolean bufferRequestBody;
+
+
+    public Http2ClientHttpRequestFactory(HClientConfig config) {
+        this.pool = new Http2ConnectionPool(config.getHttp2ConnectionsPerHost(), config.getIdleEvictSeconds());
+        // 接口策略按 RequestConfig 覆盖超时，与 httpclient 共用
+        this.defaultConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeout())
+                .setConnectTimeout(config.getConnectTimeout())
+                .setSocketTimeout(config.getReadTimeout())
+                .build();
+        this.contentCompression = config.isContentCompression();
+        this.bufferRequestBody = true;
+    }
+
+
+    private Http2ClientHttpRequestFactory(Http2ClientHttpRequestFactory source, boolean bufferRequestBody) {
+        this.pool = source.pool;
+        this.defaultConfig = source.defaultConfig;
+        this.contentCompression = source.contentCompression;
+        this.bufferRequestBody = bufferRequestBody;
+    }
+
+
+    /**
+     * 共用连接、不缓冲请求体的 requestFactory，用于上传文件等大请求体。关闭任一个即关闭共用的连接
+     *
+     * @return requestFactory
+     */
+    public Http2ClientHttpRequestFactory streaming() {
+        return new Http2ClientHttpRequestFactory(this, false);
+    }
+
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return bufferRequestBody ? new Http2ClientHttpRequest(pool, defaultConfig, contentCompression, uri, httpMethod)
+                : new StreamingHttp2ClientHttpRequest(pool, defaultConfig, contentCompression, uri, httpMethod);
+    }
+
+
+    /**
+     * @return 各 host 连接及流的统计
+     */
+    public ConnectionStats getStats() {
+        return pool.stats();
+    }
+
+
+    /**
+     * 关闭所有连接及 I/O 线程
+     */
+    public void close() {
+        pool.close();
+    }
+}
@@ -0,0 +1,336 @@
+package com.zcgk.httpplus.core.engine;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.AbstractClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedChannelException;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/****************************************************
+ *
+ * HTTP/2 流上的响应
+ *      响应体边读边解码：流的 autoRead 关闭，读完已收到的数据后才向 netty 请求更多数据，
+ *      未读取的数据不会被确认，服务端受流量控制窗口限制，不会把整个响应体堆在内存里
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 22:40
+ * @version 1.0
+ **************************************************/
+final class Http2ClientHttpResponse extends AbstractClientHttpResponse {
+
+    /**
+     * 响应体结束标记
+     */
+    private static final Object END = new Object();
+
+    /**
+     * 与 HttpConversionUtil.ExtensionHeaderNames 一致的扩展头前缀，不是服务端返回的头
+     */
+    private static final String EXTENSION_HEADER_PREFIX = "x-http2-";
+
+    /**
+     * 两次收到数据的最大间隔（毫秒）。小于等于0 不超时
+     */
+    private final int readTimeout;
+
+    private final CompletableFuture<HttpResponse> head = new CompletableFuture<>();
+
+    /**
+     * ByteBuf、END 或 Throwable，由 I/O 线程写入
+     */
+    private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+
+    private final Handler handler = new Handler();
+
+    private Channel stream;
+
+    private HttpHeaders headers;
+
+    private Body body;
+
+    /**
+     * 只在 I/O 线程读写
+     */
+    private boolean closed;
+
+
+    Http2ClientHttpResponse(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+
+    /**
+     * @return 流的 handler，位于 http 对象转换之后
+     */
+    ChannelInboundHandlerAdapter handler() {
+        return handler;
+    }
+
+
+    /**
+     * 请求已写出，等待响应头
+     *
+     * @param stream 流
+     * @throws IOException 超时、流被关闭
+     */
+    void awaitHead(Channel stream) throws IOException {
+        this.stream = stream;
+        stream.read();
+        try {
+            if (readTimeout > 0) {
+                head.get(readTimeout, TimeUnit.MILLISECONDS);
+            } else {
+                head.get();
+            }
+        } catch (TimeoutException e) {
+            close();
+            throw new SocketTimeoutException("Read timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            close();
+            throw toIOException(e.getCause());
+        }
+    }
+
+
+    /**
+     * 请求写出失败
+     */
+    void fail(Throwable cause) {
+        handler.fail(cause);
+    }
+
+
+    @Override
+    public int getRawStatusCode() {
+        return head.join().status().code();
+    }
+
+
+    @Override
+    public String getStatusText() {
+        return head.join().status().reasonPhrase();
+    }
+
+
+    @Override
+    public HttpHeaders getHeaders() {
+        if (headers == null) {
+            HttpHeaders converted = new HttpHeaders();
+            for (Map.Entry<String, String> entry : head.join().headers()) {
+                if (!entry.getKey().startsWith(EXTENSION_HEADER_PREFIX)) {
+                    converted.add(entry.getKey(), entry.getValue());
+                }
+            }
+            headers = HttpHeaders.readOnlyHttpHeaders(converted);
+        }
+        return headers;
+    }
+
+
+    @Override
+    public InputStream getBody() {
+        if (body == null) {
+            body = new Body();
+        }
+        return body;
+    }
+
+
+    /**
+     * 结束流。响应体未读完时发送 RST_STREAM 取消，未读取的数据随即释放
+     */
+    @Override
+    public void close() {
+        if (stream == null) {
+            return;
+        }
+        stream.close();
+        stream.eventLoop().execute(() -> {
+            closed = true;
+            Object chunk;
+            while ((chunk = chunks.poll()) != null) {
+                ReferenceCountUtil.release(chunk);
+            }
+        });
+        if (body != null) {
+            body.release();
+        }
+    }
+
+
+    private static IOException toIOException(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException(cause.getMessage(), cause);
+    }
+
+
+    private final class Handler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            try {
+                if (msg instanceof HttpResponse) {
+                    HttpResponse response = (HttpResponse) msg;
+                    if (response.status().codeClass() == HttpStatusClass.INFORMATIONAL) {
+                        // 100-continue 等，继续等待最终的响应头
+                        ctx.read();
+                        return;
+                    }
+                    head.complete(response);
+                }
+                if (msg instanceof HttpContent && !closed) {
+                    ByteBuf content = ((HttpContent) msg).content();
+                    if (content.isReadable()) {
+                        chunks.add(content.retain());
+                    }
+                    if (msg instanceof LastHttpContent) {
+                        chunks.add(END);
+                    }
+                }
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            // 正常结束时 END 已在队列中，之后的错误不会被读到
+            fail(new ClosedChannelException());
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            fail(cause);
+            ctx.close();
+        }
+
+        private void fail(Throwable cause) {
+            head.completeExceptionally(cause);
+            chunks.add(cause);
+        }
+    }
+
+
+    private final class Body extends InputStream {
+
+        private ByteBuf current;
+
+        private boolean eof;
+
+        private IOException error;
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return current.readByte() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, current.readableBytes());
+            current.readBytes(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return current == null ? 0 : current.readableBytes();
+        }
+
+        @Override
+        public void close() {
+            Http2ClientHttpResponse.this.close();
+        }
+
+        /**
+         * @return 是否有可读数据，响应体结束时为 false
+         */
+        private boolean fill() throws IOException {
+            if (current != null && current.isReadable()) {
+                return true;
+            }
+            release();
+            if (error != null) {
+                throw error;
+            }
+            if (eof) {
+                return false;
+            }
+
+            Object chunk = next();
+            if (chunk == END) {
+                eof = true;
+                return false;
+            }
+            if (chunk instanceof Throwable) {
+                error = toIOException((Throwable) chunk);
+                throw error;
+            }
+            current = (ByteBuf) chunk;
+            return true;
+        }
+
+        private Object next() throws IOException {
+            Object chunk = chunks.poll();
+            if (chunk != null) {
+                return chunk;
+            }
+
+            // 已收到的数据已读完，向 netty 请求下一批。流在开始读取时才确认已读的数据（WINDOW_UPDATE），
+            // 在读取循环之外发起时 netty 不会刷出，需刷出连接
+            stream.read();
+            stream.parent().flush();
+            try {
+                chunk = readTimeout > 0 ? chunks.poll(readTimeout, TimeUnit.MILLISECONDS) : chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (chunk == null) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            return chunk;
+        }
+
+        private void release() {
+            if (current != null) {
+                current.release();
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.config.Constants4Http;
+import com.zcgk.httpplus.core.metrics.HClientMetrics;
+import com.zcgk.httpplus.core.metrics.MetricsDnsResolver;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http2.Http2ConnectionPrefaceAndSettingsFrameWrittenEvent;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2SettingsFrame;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/****************************************************
+ *
+ * HTTP/2 连接池
+ *      每个 host 最多 maxConnectionsPerHost 个连接，请求以流的形式在连接上多路复用。
+ *      优先选择 还未达到服务端并发流上限 且 活跃流最少 的连接；都已用满时新建连接，
+ *      连接数已达上限时在负载最低的连接上排队，由 netty 在有流结束后发送
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 22:40
+ * @version 1.0
+ **************************************************/
+final class Http2ConnectionPool {
+
+    private static final MetricsDnsResolver DNS_RESOLVER = new MetricsDnsResolver(SystemDefaultDnsResolver.INSTANCE);
+
+    private final int maxConnectionsPerHost;
+
+    private final long idleEvictSeconds;
+
+    private final EventLoopGroup group;
+
+    /**
+     * 当前 JDK 不支持 ALPN 时为空，此时只能以 h2c 访问 http
+     */
+    private final SslContext sslContext;
+    private final SSLException sslError;
+
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+
+    Http2ConnectionPool(int maxConnectionsPerHost, long idleEvictSeconds) {
+        this.maxConnectionsPerHost = Math.max(maxConnectionsPerHost, 1);
+        this.idleEvictSeconds = idleEvictSeconds;
+        this.group = new NioEventLoopGroup(0, new DefaultThreadFactory("hclient-h2", true));
+
+        SslContext context = null;
+        SSLException error = null;
+        try {
+            context = SslContextBuilder.forClient()
+                    .applicationProtocolConfig(new ApplicationProtocolConfig(
+                            ApplicationProtocolConfig.Protocol.ALPN,
+                            ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                            ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                            ApplicationProtocolNames.HTTP_2))
+                    .build();
+            // 创建 SSLEngine 时才检查 ALPN 是否可用
+            ReferenceCountUtil.release(context.newEngine(ByteBufAllocator.DEFAULT));
+        } catch (SSLException | RuntimeException e) {
+            // netty 在 JDK 8 上需要 ALPN 扩展
+            context = null;
+            error = new SSLException("当前 JDK 不支持 ALPN，无法以 HTTP/2 访问 https", e);
+        }
+        this.sslContext = context;
+        this.sslError = error;
+    }
+
+
+    /**
+     * 在负载最低的连接上打开一个流
+     *
+     * @param uri url
+     * @param handler 流的 handler
+     * @param connectTimeout 新建连接的超时时间（毫秒）。小于等于0 不超时
+     * @param openTimeout 打开流的超时时间（毫秒）。小于等于0 不超时
+     * @return stream 关闭时结束该流
+     * @throws IOException 建立连接失败、超时
+     */
+    Http2StreamChannel openStream(URI uri, ChannelHandler handler, int connectTimeout, int openTimeout) throws IOException {
+        Connection connection = acquire(uri, connectTimeout);
+
+        // 先计数，并发请求能立即看到该连接的负载
+        connection.streams.incrementAndGet();
+        Future<Http2StreamChannel> future = new Http2StreamChannelBootstrap(connection.channel)
+                .option(ChannelOption.AUTO_READ, false)
+                .handler(handler)
+                .open();
+        Http2StreamChannel stream;
+        try {
+            stream = await(future, openTimeout, "打开 HTTP/2 流超时：" + connection.key);
+        } catch (IOException | RuntimeException e) {
+            connection.streams.decrementAndGet();
+            throw e;
+        }
+        stream.closeFuture().addListener(f -> connection.streams.decrementAndGet());
+        return stream;
+    }
+
+
+    ConnectionStats stats() {
+        long capacity = 0L;
+        ConnectionStats stats = new ConnectionStats();
+        stats.setProtocol(Constants4Http.PROTOCOL_4_H2);
+        for (Host host : hosts.values()) {
+            for (Connection connection : host.connections) {
+                int streams = connection.streams.get();
+                int maxStreams = connection.maxStreams();
+                stats.setConnections(stats.getConnections() + 1);
+                stats.setActive(stats.getActive() + Math.min(streams, maxStreams));
+                stats.setPending(stats.getPending() + Math.max(streams - maxStreams, 0));
+                if (streams == 0) {
+                    stats.setIdle(stats.getIdle() + 1);
+                }
+                capacity += maxStreams;
+            }
+        }
+        stats.setCapacity((int) Math.min(capacity, Integer.MAX_VALUE));
+        return stats;
+    }
+
+
+    /**
+     * 关闭所有连接及 I/O 线程
+     */
+    void close() {
+        group.shutdownGracefully(0L, 0L, TimeUnit.SECONDS);
+        hosts.clear();
+    }
+
+
+    private Connection acquire(URI uri, int connectTimeout) throws IOException {
+        String key = key(uri);
+        Host host = hosts.computeIfAbsent(key, k -> new Host());
+        Connection connection = host.leastLoaded(true);
+        if (connection != null) {
+            return connection;
+        }
+
+        // 同一 host 只有一个线程新建连接，其余线程等待后复用
+        host.lock.lock();
+        try {
+            connection = host.leastLoaded(true);
+            if (connection == null && host.usableCount() >= maxConnectionsPerHost) {
+                // 连接数已达上限，在负载最低的连接上排队
+                connection = host.leastLoaded(false);
+            }
+            return connection != null ? connection : connect(key, uri, host, connectTimeout);
+        } finally {
+            host.lock.unlock();
+        }
+    }
+
+
+    private Connection connect(String key, URI uri, Host host, int connectTimeout) throws IOException {
+        boolean tls = "https".equalsIgnoreCase(uri.getScheme());
+        if (tls && sslContext == null) {
+            throw sslError;
+        }
+
+        String hostName = uri.getHost();
+        int port = port(uri);
+        InetAddress address = DNS_RESOLVER.resolve(hostName)[0];
+
+        Promise<Connection> ready = group.next().newPromise();
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        ChannelPipeline pipeline = channel.pipeline();
+                        if (!tls) {
+                            http2(key, channel, ready);
+                            return;
+                        }
+
+                        SslHandler sslHandler = sslContext.newHandler(channel.alloc(), hostName, port);
+                        // 与 httpclient 一致，校验证书中的主机名
+                        SSLEngine engine = sslHandler.engine();
+                        SSLParameters parameters = engine.getSSLParameters();
+                        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                        engine.setSSLParameters(parameters);
+                        pipeline.addLast(sslHandler, new ApplicationProtocolNegotiationHandler("") {
+                            @Override
+                            protected void configurePipeline(ChannelHandlerContext ctx, String protocol) {
+                                if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+                                    http2(key, ctx.channel(), ready);
+                                } else {
+                                    ready.tryFailure(new SSLException("服务端不支持 HTTP/2：" + key));
+                                    ctx.close();
+                                }
+                            }
+
+                            @Override
+                            protected void handshakeFailure(ChannelHandlerContext ctx, Throwable cause) {
+                                ready.tryFailure(cause);
+                                ctx.close();
+                            }
+                        });
+                    }
+                });
+        if (connectTimeout > 0) {
+            bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout);
+        }
+
+        long start = System.nanoTime();
+        Channel channel = bootstrap.connect(new InetSocketAddress(address, port))
+                .addListener(f -> {
+                    if (!f.isSuccess()) {
+                        ready.tryFailure(f.cause());
+                    }
+                })
+                .channel();
+        channel.closeFuture().addListener(f -> ready.tryFailure(new ConnectException("连接已关闭：" + key)));
+
+        Connection connection;
+        try {
+            connection = await(ready, connectTimeout, "建立 HTTP/2 连接超时：" + key);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        HClientMetrics.recordConnect(hostName + ":" + port, System.nanoTime() - start);
+
+        host.connections.add(connection);
+        channel.closeFuture().addListener(f -> host.connections.remove(connection));
+        return connection;
+    }
+
+
+    /**
+     * 收到服务端 SETTINGS 后连接可用，此时已知服务端的并发流上限
+     */
+    private void http2(String key, Channel channel, Promise<Connection> ready) {
+        Http2FrameCodec codec = Http2FrameCodecBuilder.forClient()
+                .initialSettings(Http2Settings.defaultSettings().pushEnabled(false))
+                // 超出服务端并发流上限的流在本地排队
+                .encoderEnforceMaxConcurrentStreams(true)
+                .build();
+        Connection connection = new Connection(key, channel, codec);
+
+        ChannelPipeline pipeline = channel.pipeline();
+        pipeline.addLast(codec, new Http2MultiplexHandler(new ChannelInboundHandlerAdapter()),
+                new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void userEventTriggered(ChannelHandlerContext ctx, Object event) throws Exception {
+                        // netty 写出连接前言后不刷出，服务端收到前言前可能不发送 SETTINGS
+                        if (event instanceof Http2ConnectionPrefaceAndSettingsFrameWrittenEvent) {
+                            ctx.flush();
+                        }
+                        super.userEventTriggered(ctx, event);
+                    }
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        if (msg instanceof Http2SettingsFrame) {
+                            ready.trySuccess(connection);
+                        }
+                        ReferenceCountUtil.release(msg);
+                    }
+                });
+        if (channel.isActive()) {
+            // TLS 协商完成后才加入 http2 handler，此时连接前言已在加入时写出
+            channel.flush();
+        }
+        if (idleEvictSeconds > 0) {
+            pipeline.addLast(new IdleStateHandler(0L, 0L, idleEvictSeconds, TimeUnit.SECONDS),
+                    new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void userEventTriggered(ChannelHandlerContext ctx, Object event) throws Exception {
+                            if (event instanceof IdleStateEvent && connection.streams.get() == 0) {
+                                ctx.close();
+                            } else {
+                                super.userEventTriggered(ctx, event);
+                            }
+                        }
+                    });
+        }
+    }
+
+
+    private static <T> T await(Future<T> future, int timeoutMillis, String timeoutMessage) throws IOException {
+        try {
+            if (timeoutMillis > 0) {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            return future.get();
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ConnectException(timeoutMessage);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new InterruptedIOException(timeoutMessage);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+
+    private static String key(URI uri) {
+        return uri.getScheme().toLowerCase() + "://" + uri.getHost() + ":" + port(uri);
+    }
+
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+
+    private static final class Host {
+
+        private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int usableCount() {
+            int count = 0;
+            for (Connection connection : connections) {
+                if (connection.isUsable()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @param belowLimit 是否只选择还未达到服务端并发流上限的连接
+         * @return 活跃流最少的可用连接。没有时为 null
+         */
+        private Connection leastLoaded(boolean belowLimit) {
+            Connection best = null;
+            int bestStreams = Integer.MAX_VALUE;
+            for (Connection connection : connections) {
+                if (!connection.isUsable()) {
+                    continue;
+                }
+                int streams = connection.streams.get();
+                if (streams < bestStreams && (!belowLimit || streams < connection.maxStreams())) {
+                    best = connection;
+                    bestStreams = streams;
+                }
+            }
+            return best;
+        }
+    }
+
+
+    private static final class Connection {
+
+        private final String key;
+
+        private final Channel channel;
+
+        private final Http2FrameCodec codec;
+
+        /**
+         * 已打开、未结束的流，含排队中的流
+         */
+        private final AtomicInteger streams = new AtomicInteger();
+
+        private Connection(String key, Channel channel, Http2FrameCodec codec) {
+            this.key = key;
+            this.channel = channel;
+            this.codec = codec;
+        }
+
+        /**
+         * 收到 GOAWAY 后不再打开新流，已有的流继续完成
+         */
+        private boolean isUsable() {
+            return channel.isActive() && !codec.connection().goAwayReceived();
+        }
+
+        /**
+         * @return 服务端允许的并发流数。服务端 SETTINGS_MAX_CONCURRENT_STREAMS 限制的是本端打开的流
+         */
+        private int maxStreams() {
+            return codec.connection().local().maxActiveStreams();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.config.Constants4Http;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/****************************************************
+ *
+ * 连接池 准入控制
+ *      httpcore 4.4 的连接池在 synchronized 块内等待空闲连接，虚拟线程在此等待时会占住载体线程（pinning），
+ *      大量虚拟线程并发时载体线程被占满。此处先按 总连接数、单路由连接数 获取许可（Semaphore 等待时虚拟线程可让出载体线程），
+ *      取得许可后连接池必有可用名额，不会在 synchronized 块内等待。连接归还连接池后释放许可。
+ *      连接池内部锁的争用同样会占住载体线程，故访问连接池前先获取 poolLock，同一时刻只有一个线程进入连接池；
+ *      归还连接时调用方持有 httpclient 的 synchronized 锁，不能等待 poolLock，故先入队，由持有 poolLock 的线程代为归还
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 22:10
+ * @version 1.0
+ **************************************************/
+@Slf4j
+final class PermitConnectionManager implements HttpClientConnectionManager {
+
+    private final PoolingHttpClientConnectionManager delegate;
+
+    private final Semaphore totalPermits;
+
+    /**
+     * 串行访问连接池，临界区只有借出、归还连接，不含 I/O 等待
+     */
+    private final ReentrantLock poolLock = new ReentrantLock();
+
+    /**
+     * 待归还的连接，见 {@link #releaseConnection}
+     */
+    private final Queue<Runnable> pendingReleases = new ConcurrentLinkedQueue<>();
+
+    private final Map<HttpRoute, Semaphore> routePermits = new ConcurrentHashMap<>();
+
+    /**
+     * 已借出的连接 -> 其路由许可
+     */
+    private final Map<HttpClientConnection, Semaphore> leased = new ConcurrentHashMap<>();
+
+
+    PermitConnectionManager(PoolingHttpClientConnectionManager delegate) {
+        this.delegate = delegate;
+        this.totalPermits = new Semaphore(delegate.getMaxTotal(), true);
+    }
+
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        // 连接池的 lease 只创建 future，在 get 时才等待
+        ConnectionRequest request = delegate.requestConnection(route, state);
+        Semaphore permits = routePermits.computeIfAbsent(route, r -> new Semaphore(delegate.getMaxPerRoute(r), true));
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                // 小于等于0 不超时，与连接池一致
+                long deadline = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0L;
+                acquire(permits, deadline);
+                boolean acquired = false;
+                try {
+                    acquire(totalPermits, deadline);
+                    try {
+                        HttpClientConnection connection;
+                        poolLock.lockInterruptibly();
+                        try {
+                            runPendingReleases();
+                            connection = request.get(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+                        } finally {
+                            poolLock.unlock();
+                        }
+                        drainPendingReleases();
+                        leased.put(connection, permits);
+                        acquired = true;
+                        return connection;
+                    } finally {
+                        if (!acquired) {
+                            totalPermits.release();
+                        }
+                    }
+                } finally {
+                    if (!acquired) {
+                        permits.release();
+                    }
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+
+    @Override
+    public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+        // 许可在连接回到连接池后才释放，取得许可的线程总能从连接池拿到名额
+        pendingReleases.add(() -> {
+            try {
+                delegate.releaseConnection(conn, newState, validDuration, timeUnit);
+            } catch (RuntimeException e) {
+                log.warn("归还http连接失败", e);
+            } finally {
+                Semaphore permits = leased.remove(conn);
+                if (permits != null) {
+                    permits.release();
+                    totalPermits.release();
+                }
+            }
+        });
+        drainPendingReleases();
+    }
+
+
+    /**
+     * 等待连接的线程在许可上等待，不在连接池中，故等待数取自许可
+     *
+     * @return stats
+     */
+    ConnectionStats stats() {
+        PoolStats poolStats = delegate.getTotalStats();
+        int pending = totalPermits.getQueueLength();
+        for (Semaphore permits : routePermits.values()) {
+            pending += permits.getQueueLength();
+        }
+
+        ConnectionStats stats = new ConnectionStats();
+        stats.setProtocol(Constants4Http.PROTOCOL_4_HTTP1);
+        stats.setConnections(poolStats.getLeased() + poolStats.getAvailable());
+        stats.setActive(poolStats.getLeased());
+        stats.setIdle(poolStats.getAvailable());
+        stats.setPending(pending + poolStats.getPending());
+        stats.setCapacity(poolStats.getMax());
+        return stats;
+    }
+
+
+    @Override
+    public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        delegate.connect(conn, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(conn, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit timeUnit) {
+        poolLock.lock();
+        try {
+            runPendingReleases();
+            delegate.closeIdleConnections(idletime, timeUnit);
+        } finally {
+            poolLock.unlock();
+        }
+        drainPendingReleases();
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        poolLock.lock();
+        try {
+            runPendingReleases();
+            delegate.closeExpiredConnections();
+        } finally {
+            poolLock.unlock();
+        }
+        drainPendingReleases();
+    }
+
+    @Override
+    public void shutdown() {
+        poolLock.lock();
+        try {
+            runPendingReleases();
+            delegate.shutdown();
+        } finally {
+            poolLock.unlock();
+        }
+        drainPendingReleases();
+    }
+
+
+    /**
+     * 未被占用时取得 poolLock 代为归还；已被占用时由持有者在释放前后归还。
+     *      释放 poolLock 后再次检查，避免持有者释放前刚入队的连接无人归还
+     */
+    private void drainPendingReleases() {
+        while (!pendingReleases.isEmpty() && poolLock.tryLock()) {
+            try {
+                runPendingReleases();
+            } finally {
+                poolLock.unlock();
+            }
+        }
+    }
+
+
+    private void runPendingReleases() {
+        Runnable release;
+        while ((release = pendingReleases.poll()) != null) {
+            release.run();
+        }
+    }
+
+
+    private static void acquire(Semaphore semaphore, long deadline) throws InterruptedException, ConnectionPoolTimeoutException {
+        if (deadline == 0L) {
+            semaphore.acquire();
+        } else if (!semaphore.tryAcquire(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)) {
+            throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+        }
+    }
+
+
+    /**
+     * @return 剩余等待时间，不超时时为 0
+     */
+    private static long remainingMillis(long deadline) {
+        if (deadline == 0L) {
+            return 0L;
+        }
+        // 已取得许可，连接池不会等待，至少留 1 毫秒避免被视为不超时
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()), 1L);
+    }
+}
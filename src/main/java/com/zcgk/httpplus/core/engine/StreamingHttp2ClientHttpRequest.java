@@ -0,0 +1,200 @@
+package com.zcgk.httpplus.core.engine;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import org.apache.http.client.config.RequestConfig;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+
+/****************************************************
+ *
+ * HTTP/2 流上的请求，请求体流式写出
+ *      以 setBody 设置请求体时（如 MultipartBody），先写出请求头，请求体按 DATA 帧边读边写，不在内存中缓冲整个请求体；
+ *      上一块写出后（受流量控制窗口约束）才发送下一块，内存中最多两块。未设置时同 {@link Http2ClientHttpRequest}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 03:30
+ * @version 1.0
+ **************************************************/
+final class StreamingHttp2ClientHttpRequest extends Http2ClientHttpRequest implements StreamingHttpOutputMessage {
+
+    /**
+     * 每块的字节数，超过对端 SETTINGS_MAX_FRAME_SIZE 时由 netty 拆分为多个 DATA 帧
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private Body body;
+
+
+    StreamingHttp2ClientHttpRequest(Http2ConnectionPool pool, RequestConfig defaultConfig, boolean contentCompression,
+                                    URI uri, HttpMethod method) {
+        super(pool, defaultConfig, contentCompression, uri, method);
+    }
+
+
+    @Override
+    public void setBody(Body body) {
+        assertNotExecuted();
+        this.body = body;
+    }
+
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+        if (body != null) {
+            throw new UnsupportedOperationException("已通过 setBody 设置请求体");
+        }
+        return super.getBodyInternal(headers);
+    }
+
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        if (body == null) {
+            return super.executeInternal(headers);
+        }
+
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+                io.netty.handler.codec.http.HttpMethod.valueOf(getMethodValue()), pathAndQuery(getURI()));
+        copyHeaders(headers, request);
+        return exchange(request, (stream, response, writeTimeout) -> {
+            stream.writeAndFlush(request).addListener(failOnError(response));
+            FrameOutputStream out = new FrameOutputStream(stream, writeTimeout);
+            try {
+                body.writeTo(out);
+                out.finish();
+            } finally {
+                out.release();
+            }
+        });
+    }
+
+
+    /**
+     * 以 DATA 帧写出，写满 CHUNK_SIZE 或 flush 时发送一块，发送前等待上一块写出
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final Http2StreamChannel stream;
+
+        private final int writeTimeout;
+
+        private ByteBuf buffer;
+
+        private ChannelFuture pending;
+
+
+        private FrameOutputStream(Http2StreamChannel stream, int writeTimeout) {
+            this.stream = stream;
+            this.writeTimeout = writeTimeout;
+        }
+
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer().writeByte(b);
+            if (!buffer.isWritable()) {
+                send();
+            }
+        }
+
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                ByteBuf current = buffer();
+                int n = Math.min(len, current.writableBytes());
+                current.writeBytes(b, off, n);
+                off += n;
+                len -= n;
+                if (!current.isWritable()) {
+                    send();
+                }
+            }
+        }
+
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer != null && buffer.isReadable()) {
+                send();
+            }
+        }
+
+
+        /**
+         * 写出剩余数据及结束帧，等待全部写出
+         */
+        void finish() throws IOException {
+            flush();
+            await(pending);
+            pending = null;
+            await(stream.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT));
+        }
+
+
+        /**
+         * 释放未发送的缓冲区
+         */
+        void release() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+
+
+        private ByteBuf buffer() {
+            if (buffer == null) {
+                buffer = stream.alloc().buffer(CHUNK_SIZE, CHUNK_SIZE);
+            }
+            return buffer;
+        }
+
+
+        private void send() throws IOException {
+            await(pending);
+            ByteBuf chunk = buffer;
+            buffer = null;
+            pending = stream.writeAndFlush(new DefaultHttpContent(chunk));
+        }
+
+
+        private void await(ChannelFuture future) throws IOException {
+            if (future == null) {
+                return;
+            }
+            try {
+                if (writeTimeout > 0) {
+                    if (!future.await(writeTimeout)) {
+                        throw new SocketTimeoutException("Write timed out");
+                    }
+                } else {
+                    future.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (!future.isSuccess()) {
+                Throwable cause = future.cause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.zcgk.httpplus.core.engine;
+
+import com.zcgk.httpplus.config.HClientConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/****************************************************
+ *
+ * 阻塞请求执行器
+ *      JDK 21 及以上每个任务一个虚拟线程，阻塞等待响应时不占用平台线程，可支撑数万并发请求；
+ *      低版本退化为与连接池最大连接数等大的平台线程池。运行时通过反射检测，同一构建产物兼容 Java 8
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 22:10
+ * @version 1.0
+ **************************************************/
+@Slf4j
+public final class VirtualThreadExecutor {
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+
+    private static final ExecutorService EXECUTOR = VIRTUAL_THREAD_FACTORY != null
+            ? threadPerTaskExecutor(VIRTUAL_THREAD_FACTORY) : platformExecutor();
+
+
+    private VirtualThreadExecutor() {
+    }
+
+
+    /**
+     * @return 是否运行在虚拟线程上
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+
+    /**
+     * 在虚拟线程（或退化的平台线程池）上执行阻塞调用
+     *
+     * @param task 阻塞调用
+     * @param <T> 泛型
+     * @return future 以 task 的返回值完成，task 抛出异常时以 CompletionException 结束
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+
+
+    /**
+     * Thread.ofVirtual().name("hclient-vt-", 0).factory()
+     *
+     * @return factory 不支持虚拟线程时为 null
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "hclient-vt-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK 21 以下（或 19、20 未开启预览）
+            return null;
+        }
+    }
+
+
+    private static ExecutorService threadPerTaskExecutor(ThreadFactory factory) {
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            log.info("阻塞请求在虚拟线程上执行");
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+
+
+    private static ExecutorService platformExecutor() {
+        HClientConfig config = HClientEngine.get().getConfig();
+        int threads = config != null ? config.getMaxTotal() : new HClientConfig().getMaxTotal();
+        AtomicInteger index = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "hclient-blocking-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
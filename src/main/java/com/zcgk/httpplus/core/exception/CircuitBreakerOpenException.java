@@ -0,0 +1,29 @@
+package com.zcgk.httpplus.core.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/****************************************************
+ *
+ * host 已熔断，请求未发送
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+public class CircuitBreakerOpenException extends RestClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String host;
+
+    public CircuitBreakerOpenException(String host) {
+        super("circuit breaker is open for " + host);
+        this.host = host;
+    }
+
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,27 @@
+package com.zcgk.httpplus.core.exception;
+
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+
+/****************************************************
+ *
+ * 请求（含重试）超过总时限，进行中的请求已中止
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+public class DeadlineExceededException extends ResourceAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String url, long deadlineMillis) {
+        super("deadline of " + deadlineMillis + "ms exceeded for \"" + url + "\"");
+    }
+
+    public DeadlineExceededException(String url, long deadlineMillis, IOException cause) {
+        super("deadline of " + deadlineMillis + "ms exceeded for \"" + url + "\"", cause);
+    }
+}
@@ -0,0 +1,34 @@
+package com.zcgk.httpplus.core.exception;
+
+import org.springframework.web.client.RestClientException;
+
+import java.util.Map;
+
+/****************************************************
+ *
+ * 返回值判断不成功。getApi 等此时返回 null，需要区分 无数据 与 失败 的调用（如分页）抛出此异常
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 02:50
+ * @version 1.0
+ **************************************************/
+public class EnvelopeMismatchException extends RestClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, ?> state;
+
+    public EnvelopeMismatchException(String url, Map<String, String> msgMap, Map<String, ?> state) {
+        super("envelope mismatch for " + url + ": " + msgMap);
+        this.state = state;
+    }
+
+
+    /**
+     * @return 接口返回的状态字段
+     */
+    public Map<String, ?> getState() {
+        return state;
+    }
+}
@@ -0,0 +1,29 @@
+package com.zcgk.httpplus.core.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/****************************************************
+ *
+ * 逻辑服务名未注册实例，请求未发送
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 01:20
+ * @version 1.0
+ **************************************************/
+public class NoAvailableInstanceException extends RestClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String service;
+
+    public NoAvailableInstanceException(String service) {
+        super("no instance registered for service " + service);
+        this.service = service;
+    }
+
+
+    public String getService() {
+        return service;
+    }
+}
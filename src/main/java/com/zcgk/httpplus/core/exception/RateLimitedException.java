@@ -0,0 +1,29 @@
+package com.zcgk.httpplus.core.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/****************************************************
+ *
+ * 超出 host 限流，请求未发送
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 23:40
+ * @version 1.0
+ **************************************************/
+public class RateLimitedException extends RestClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String host;
+
+    public RateLimitedException(String host, String reason) {
+        super("rate limited for " + host + ": " + reason);
+        this.host = host;
+    }
+
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,133 @@
+package com.zcgk.httpplus.core.metrics;
+
+import com.zcgk.httpplus.core.utils.UrlTemplateUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/****************************************************
+ *
+ * 单个接口（url 模板 + 请求方式）的指标
+ *      首次请求时向 registry 注册，之后每次请求直接记录，不再构建标签及查找 registry。
+ *      带 status、outcome 标签的指标按取值分别注册一次
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 11:20
+ * @version 1.0
+ **************************************************/
+final class EndpointMeters {
+
+    private final MeterRegistry registry;
+    private final String uri;
+    private final Tags tags;
+    private final boolean percentileHistogram;
+
+    private final Timer ttfb;
+    private final Timer decode;
+    private final DistributionSummary responseSize;
+    private final Counter mismatches;
+
+    /**
+     * status -> outcome -> hclient.requests
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> requests = new ConcurrentHashMap<>();
+
+    /**
+     * status -> hclient.http.errors
+     */
+    private final ConcurrentMap<String, Counter> httpErrors = new ConcurrentHashMap<>();
+
+
+    EndpointMeters(MeterRegistry registry, String url, HttpMethod method, boolean percentileHistogram) {
+        this.registry = registry;
+        this.uri = UrlTemplateUtils.path(url);
+        this.tags = Tags.of("uri", uri, "method", method.name(), "client", UrlTemplateUtils.host(url));
+        this.percentileHistogram = percentileHistogram;
+
+        this.ttfb = Timer.builder(HClientMetrics.TTFB)
+                .tags(tags)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry);
+        this.decode = Timer.builder(HClientMetrics.DECODE)
+                .tags(tags)
+                .register(registry);
+        this.responseSize = DistributionSummary.builder(HClientMetrics.RESPONSE_SIZE)
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry);
+        this.mismatches = Counter.builder(HClientMetrics.MISMATCHES)
+                .tags(tags)
+                .register(registry);
+    }
+
+
+    MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    String getUri() {
+        return uri;
+    }
+
+    Timer ttfb() {
+        return ttfb;
+    }
+
+    Timer decode() {
+        return decode;
+    }
+
+    DistributionSummary responseSize() {
+        return responseSize;
+    }
+
+    Counter mismatches() {
+        return mismatches;
+    }
+
+
+    /**
+     * @param status 状态码，无响应时为 CLIENT_ERROR
+     * @param outcome 结果
+     * @return hclient.requests
+     */
+    Timer requests(String status, String outcome) {
+        ConcurrentMap<String, Timer> byOutcome = requests.get(status);
+        if (byOutcome == null) {
+            byOutcome = requests.computeIfAbsent(status, k -> new ConcurrentHashMap<>(4));
+        }
+        Timer timer = byOutcome.get(outcome);
+        if (timer == null) {
+            timer = byOutcome.computeIfAbsent(outcome, k -> Timer.builder(HClientMetrics.REQUESTS)
+                    .tags(tags)
+                    .tag("status", status)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(registry));
+        }
+        return timer;
+    }
+
+
+    /**
+     * @param status 状态码，无响应时为 CLIENT_ERROR
+     * @return hclient.http.errors
+     */
+    Counter httpErrors(String status) {
+        Counter counter = httpErrors.get(status);
+        if (counter == null) {
+            counter = httpErrors.computeIfAbsent(status, k -> Counter.builder(HClientMetrics.HTTP_ERRORS)
+                    .tags(tags)
+                    .tag("status", status)
+                    .register(registry));
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,175 @@
+package com.zcgk.httpplus.core.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * 请求指标
+ *      默认注册到 Metrics.globalRegistry（Spring Boot 应用中即 actuator 使用的 registry），也可指定 registry。
+ *      所有指标以 url 模板的 path 部分为 uri 标签、host:port 为 client 标签，不使用展开后的 url，避免标签数量膨胀
+ *
+ *      hclient.requests       总耗时（发起请求 至 返回值判断完成），标签另有 status、outcome
+ *      hclient.ttfb           请求体写入后 至 收到响应头，含获取连接、DNS、建立连接
+ *      hclient.dns            DNS 解析耗时，仅新建连接时产生（阻塞引擎）
+ *      hclient.connect        建立连接耗时，https 含 TLS 握手，仅新建连接时产生（阻塞引擎）
+ *      hclient.decode         解码耗时。阻塞引擎边读边解码，含响应体传输时间；非阻塞引擎为读取完整响应体后的纯解码时间
+ *      hclient.response.size  响应体字节数（解压后）
+ *      hclient.http.errors    http 错误次数，status 为状态码，无响应时为 CLIENT_ERROR
+ *      hclient.mismatches     resultMap 返回值判断不成功次数
+ *      hclient.connections    阻塞引擎连接统计，标签 state 为 connections、active、idle、pending，见 ConnectionStats
+ *      hclient.limiter        限流状态，标签 state 为 limit、inflight，见 LimiterStats，仅开启限流的 host 产生
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 17:10
+ * @version 1.0
+ **************************************************/
+public final class HClientMetrics {
+
+    public static final String REQUESTS = "hclient.requests";
+    public static final String TTFB = "hclient.ttfb";
+    public static final String DNS = "hclient.dns";
+    public static final String CONNECT = "hclient.connect";
+    public static final String DECODE = "hclient.decode";
+    public static final String RESPONSE_SIZE = "hclient.response.size";
+    public static final String HTTP_ERRORS = "hclient.http.errors";
+    public static final String MISMATCHES = "hclient.mismatches";
+    public static final String CONNECTIONS = "hclient.connections";
+    public static final String LIMITER = "hclient.limiter";
+
+    /**
+     * 当前线程正在执行的阻塞请求，供 DNS 解析、建立连接等无法直接获取 url 模板的位置使用
+     */
+    private static final ThreadLocal<RequestSample> CURRENT = new ThreadLocal<>();
+
+    private static volatile MeterRegistry registry = Metrics.globalRegistry;
+
+    private static volatile boolean percentileHistogram = true;
+
+    /**
+     * url 模板 -> 请求方式 -> 该接口的指标。更换 registry 或直方图设置时清空
+     */
+    private static final ConcurrentMap<String, ConcurrentMap<HttpMethod, EndpointMeters>> METERS = new ConcurrentHashMap<>();
+
+    private HClientMetrics() {
+    }
+
+
+    /**
+     * 指定 registry。应在应用启动阶段调用
+     *
+     * @param meterRegistry registry
+     */
+    public static void configure(MeterRegistry meterRegistry) {
+        registry = meterRegistry;
+        METERS.clear();
+    }
+
+
+    /**
+     * hclient.requests、hclient.ttfb 是否发布直方图（用于服务端计算分位数），默认发布
+     *
+     * @param enabled 是否发布
+     */
+    public static void setPercentileHistogram(boolean enabled) {
+        percentileHistogram = enabled;
+        METERS.clear();
+    }
+
+
+    public static MeterRegistry registry() {
+        return registry;
+    }
+
+
+    /**
+     * 开始记录一次请求，结束时调用 {@link RequestSample#close()}
+     *
+     * @param url 接口url 模板
+     * @param method 请求方式
+     * @return sample
+     */
+    public static RequestSample start(String url, HttpMethod method) {
+        return new RequestSample(meters(url, method));
+    }
+
+
+    /**
+     * @return 该接口的指标，首次请求时注册
+     */
+    private static EndpointMeters meters(String url, HttpMethod method) {
+        ConcurrentMap<HttpMethod, EndpointMeters> byMethod = METERS.get(url);
+        if (byMethod == null) {
+            byMethod = METERS.computeIfAbsent(url, key -> new ConcurrentHashMap<>(4));
+        }
+        EndpointMeters meters = byMethod.get(method);
+        if (meters == null || meters.getRegistry() != registry) {
+            // registry 更换时 METERS 已清空，此处只防止清空前后并发创建的旧实例
+            meters = byMethod.compute(method, (key, current) -> current != null && current.getRegistry() == registry
+                    ? current : new EndpointMeters(registry, url, method, percentileHistogram));
+        }
+        return meters;
+    }
+
+
+    /**
+     * 阻塞请求执行期间绑定到当前线程
+     *
+     * @param sample sample
+     */
+    public static void bind(RequestSample sample) {
+        CURRENT.set(sample);
+    }
+
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+
+    /**
+     * @return 当前线程正在执行的阻塞请求。没有时为 null
+     */
+    public static RequestSample current() {
+        return CURRENT.get();
+    }
+
+
+    /**
+     * 记录 DNS 解析耗时
+     *
+     * @param host 域名
+     * @param nanos 耗时
+     */
+    public static void recordDns(String host, long nanos) {
+        record(DNS, host, nanos);
+    }
+
+
+    /**
+     * 记录建立连接耗时
+     *
+     * @param host host:port
+     * @param nanos 耗时
+     */
+    public static void recordConnect(String host, long nanos) {
+        record(CONNECT, host, nanos);
+    }
+
+
+    private static void record(String name, String host, long nanos) {
+        RequestSample sample = CURRENT.get();
+        Timer.builder(name)
+                .tag("uri", sample == null ? "none" : sample.getUri())
+                .tag("client", host)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,194 @@
+package com.zcgk.httpplus.core.metrics;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/****************************************************
+ *
+ * 记录阻塞请求的 ttfb 与响应体字节数
+ *      仅对绑定了 {@link RequestSample} 的线程生效，其余请求原样转发
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 17:10
+ * @version 1.0
+ **************************************************/
+public class MetricsClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+
+    public MetricsClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+        this.delegate = delegate;
+    }
+
+
+    public ClientHttpRequestFactory getDelegate() {
+        return delegate;
+    }
+
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = delegate.createRequest(uri, httpMethod);
+        RequestSample sample = HClientMetrics.current();
+        if (sample == null) {
+            return request;
+        }
+        return request instanceof StreamingHttpOutputMessage
+                ? new StreamingMeteredRequest(request, sample) : new MeteredRequest(request, sample);
+    }
+
+
+    private static class MeteredRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+        private final RequestSample sample;
+
+        private MeteredRequest(ClientHttpRequest request, RequestSample sample) {
+            this.request = request;
+            this.sample = sample;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            long start = sample.now();
+            ClientHttpResponse response = request.execute();
+            sample.ttfb(sample.now() - start, response.getRawStatusCode());
+            return new MeteredResponse(response, sample);
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+
+    /**
+     * 被包装的请求支持流式写入（不缓冲请求体）时，保持流式写入
+     */
+    private static final class StreamingMeteredRequest extends MeteredRequest implements StreamingHttpOutputMessage {
+
+        private final StreamingHttpOutputMessage streaming;
+
+        private StreamingMeteredRequest(ClientHttpRequest request, RequestSample sample) {
+            super(request, sample);
+            this.streaming = (StreamingHttpOutputMessage) request;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            streaming.setBody(body);
+        }
+    }
+
+
+    private static final class MeteredResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final RequestSample sample;
+        private CountingInputStream body;
+
+        private MeteredResponse(ClientHttpResponse response, RequestSample sample) {
+            this.response = response;
+            this.sample = sample;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(response.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                sample.responseSize(body.count);
+            }
+            response.close();
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+    }
+
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
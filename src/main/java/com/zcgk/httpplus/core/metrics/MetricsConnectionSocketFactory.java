@@ -0,0 +1,74 @@
+package com.zcgk.httpplus.core.metrics;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/****************************************************
+ *
+ * 记录建立连接耗时。https 的 connectSocket 内含 TLS 握手，一并计入
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 17:10
+ * @version 1.0
+ **************************************************/
+public class MetricsConnectionSocketFactory implements ConnectionSocketFactory {
+
+    private final ConnectionSocketFactory delegate;
+
+    private MetricsConnectionSocketFactory(ConnectionSocketFactory delegate) {
+        this.delegate = delegate;
+    }
+
+
+    /**
+     * @param delegate 原 socketFactory
+     * @return 原 socketFactory 支持 TLS 升级时，返回值同样支持
+     */
+    public static ConnectionSocketFactory of(ConnectionSocketFactory delegate) {
+        if (delegate instanceof LayeredConnectionSocketFactory) {
+            return new Layered((LayeredConnectionSocketFactory) delegate);
+        }
+        return new MetricsConnectionSocketFactory(delegate);
+    }
+
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return delegate.createSocket(context);
+    }
+
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return delegate.connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+        } finally {
+            HClientMetrics.recordConnect(host.toHostString(), System.nanoTime() - start);
+        }
+    }
+
+
+    private static final class Layered extends MetricsConnectionSocketFactory implements LayeredConnectionSocketFactory {
+
+        private final LayeredConnectionSocketFactory layered;
+
+        private Layered(LayeredConnectionSocketFactory delegate) {
+            super(delegate);
+            this.layered = delegate;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+            return layered.createLayeredSocket(socket, target, port, context);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.zcgk.httpplus.core.metrics;
+
+import org.apache.http.conn.DnsResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/****************************************************
+ *
+ * 记录 DNS 解析耗时
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 17:10
+ * @version 1.0
+ **************************************************/
+public class MetricsDnsResolver implements DnsResolver {
+
+    private final DnsResolver delegate;
+
+    public MetricsDnsResolver(DnsResolver delegate) {
+        this.delegate = delegate;
+    }
+
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long start = System.nanoTime();
+        try {
+            return delegate.resolve(host);
+        } finally {
+            HClientMetrics.recordDns(host, System.nanoTime() - start);
+        }
+    }
+}
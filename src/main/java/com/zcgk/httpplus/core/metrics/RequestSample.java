@@ -0,0 +1,132 @@
+package com.zcgk.httpplus.core.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * 单次请求的指标记录
+ *      由 {@link HClientMetrics#start} 创建，close 时记录总耗时。指标按接口注册一次后复用，见 {@link EndpointMeters}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 17:10
+ * @version 1.0
+ **************************************************/
+public class RequestSample implements AutoCloseable {
+
+    private static final String OUTCOME_SUCCESS = "SUCCESS";
+    private static final String OUTCOME_MISMATCH = "MISMATCH";
+    private static final String OUTCOME_HTTP_ERROR = "HTTP_ERROR";
+    private static final String OUTCOME_CLIENT_ERROR = "CLIENT_ERROR";
+
+    private final EndpointMeters meters;
+    private final Clock clock;
+    private final long startNanos;
+
+    private String status = "NONE";
+    private String outcome = OUTCOME_SUCCESS;
+    private boolean closed;
+
+
+    RequestSample(EndpointMeters meters) {
+        this.meters = meters;
+        this.clock = meters.getRegistry().config().clock();
+        this.startNanos = clock.monotonicTime();
+    }
+
+
+    public String getUri() {
+        return meters.getUri();
+    }
+
+
+    public long now() {
+        return clock.monotonicTime();
+    }
+
+
+    /**
+     * @return 自创建起经过的纳秒数
+     */
+    public long elapsed() {
+        return now() - startNanos;
+    }
+
+
+    /**
+     * 收到响应头
+     *
+     * @param nanos 请求体写入后 至 收到响应头的耗时
+     * @param statusCode 状态码
+     */
+    public void ttfb(long nanos, int statusCode) {
+        status = String.valueOf(statusCode);
+        meters.ttfb().record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * @param nanos 解码耗时
+     */
+    public void decode(long nanos) {
+        meters.decode().record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * @param bytes 响应体字节数
+     */
+    public void responseSize(long bytes) {
+        meters.responseSize().record(bytes);
+    }
+
+
+    /**
+     * resultMap 返回值判断不成功
+     */
+    public void mismatch() {
+        outcome = OUTCOME_MISMATCH;
+        meters.mismatches().increment();
+    }
+
+
+    /**
+     * 请求异常：有响应时按状态码记录，否则记为 CLIENT_ERROR
+     *
+     * @param e 异常
+     */
+    public void error(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RestClientResponseException) {
+            status = String.valueOf(((RestClientResponseException) cause).getRawStatusCode());
+            outcome = OUTCOME_HTTP_ERROR;
+        } else if (cause instanceof WebClientResponseException) {
+            status = String.valueOf(((WebClientResponseException) cause).getRawStatusCode());
+            outcome = OUTCOME_HTTP_ERROR;
+        } else {
+            status = OUTCOME_CLIENT_ERROR;
+            outcome = OUTCOME_CLIENT_ERROR;
+        }
+
+        meters.httpErrors(status).increment();
+    }
+
+
+    /**
+     * 记录总耗时，重复调用无效
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        meters.requests(status, outcome).record(elapsed(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,196 @@
+package com.zcgk.httpplus.core.page;
+
+import com.zcgk.httpplus.core.decode.ResponseEnvelope;
+import com.zcgk.httpplus.core.engine.VirtualThreadExecutor;
+import com.zcgk.httpplus.core.utils.HClientUtils;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/****************************************************
+ *
+ * 一次分页遍历
+ *      请求中的页按页的顺序排队，消费到某页时等待该页完成；取出一页后即补足预取的页，与消费本页并行。
+ *      非线程安全，与 Stream 的顺序消费一致
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 02:50
+ * @version 1.0
+ **************************************************/
+final class PageIterator<T> implements Iterator<T> {
+
+    private final Paginator<T> paginator;
+    private final Map<String, Object> paramMap;
+
+    /**
+     * 请求中的页，按页的顺序
+     */
+    private final Deque<CompletableFuture<ResponseEnvelope<List<T>>>> inFlight = new ArrayDeque<>();
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    /**
+     * 没有更多的页需要请求
+     */
+    private boolean exhausted;
+
+    /**
+     * 页码分页：下一个要请求的页码；最后一页的页码，总数未知时为 -1
+     */
+    private long nextPage;
+    private long lastPage = -1L;
+
+    /**
+     * 页码分页：等待第一页返回总数。总数缺失时按未指定总数字段处理
+     */
+    private boolean awaitingTotal;
+
+
+    PageIterator(Paginator<T> paginator, Map<String, Object> paramMap) {
+        this.paginator = paginator;
+        this.paramMap = paramMap;
+        this.nextPage = paginator.getFirstPage();
+        this.awaitingTotal = paginator.getTotalField() != null;
+        if (paginator.isCursorMode()) {
+            inFlight.add(fetch(paginator.cursorParams(paramMap, null)));
+        }
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (!advance()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+
+    /**
+     * 取消请求中的页。尚未开始的请求不再发出，已发出的请求完成后丢弃
+     */
+    void close() {
+        exhausted = true;
+        current = Collections.emptyIterator();
+        cancelAll();
+    }
+
+
+    /**
+     * 等待下一页
+     *
+     * @return 是否还有页
+     */
+    private boolean advance() {
+        if (!paginator.isCursorMode()) {
+            fill();
+        }
+        CompletableFuture<ResponseEnvelope<List<T>>> future = inFlight.pollFirst();
+        if (future == null) {
+            return false;
+        }
+
+        ResponseEnvelope<List<T>> page;
+        try {
+            page = future.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        List<T> data = page.getData() == null ? Collections.emptyList() : page.getData();
+
+        if (paginator.isCursorMode()) {
+            Object cursor = page.getStateValue(paginator.getNextCursorField());
+            if (!data.isEmpty() && cursor != null && !cursor.toString().isEmpty()) {
+                inFlight.add(fetch(paginator.cursorParams(paramMap, cursor.toString())));
+            }
+        } else {
+            if (awaitingTotal) {
+                awaitingTotal = false;
+                onTotal(page.getStateValue(paginator.getTotalField()));
+            }
+            if (data.size() < paginator.getPageSize()) {
+                // 不足一页即最后一页，之后请求的页不再需要
+                exhausted = true;
+                cancelAll();
+            }
+            // 消费本页的同时请求之后的页，第一页返回总数后即开始预取
+            fill();
+        }
+        current = data.iterator();
+        return true;
+    }
+
+
+    /**
+     * 页码分页：补足请求中的页。指定总数字段而总数未知时只请求第一页
+     */
+    private void fill() {
+        while (!exhausted && inFlight.size() < paginator.getPrefetch()) {
+            if (lastPage >= 0L && nextPage > lastPage) {
+                exhausted = true;
+                return;
+            }
+            if (awaitingTotal && nextPage > paginator.getFirstPage()) {
+                return;
+            }
+            inFlight.add(fetch(paginator.pageParams(paramMap, nextPage++)));
+        }
+    }
+
+
+    /**
+     * 由总数计算最后一页。总数缺失或无法解析时按不足一页结束
+     */
+    private void onTotal(Object value) {
+        long total;
+        if (value instanceof Number) {
+            total = ((Number) value).longValue();
+        } else if (value != null) {
+            try {
+                total = Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException e) {
+                return;
+            }
+        } else {
+            return;
+        }
+        long pages = (Math.max(0L, total) + paginator.getPageSize() - 1) / paginator.getPageSize();
+        lastPage = paginator.getFirstPage() + Math.max(1L, pages) - 1;
+    }
+
+
+    private CompletableFuture<ResponseEnvelope<List<T>>> fetch(Map<String, Object> params) {
+        return VirtualThreadExecutor.supply(() -> HClientUtils.callEnvelope(paginator.getEndpoint(), params));
+    }
+
+
+    private void cancelAll() {
+        CompletableFuture<ResponseEnvelope<List<T>>> future;
+        while ((future = inFlight.pollFirst()) != null) {
+            future.cancel(false);
+        }
+    }
+}
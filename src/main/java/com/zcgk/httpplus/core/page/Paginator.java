@@ -0,0 +1,140 @@
+package com.zcgk.httpplus.core.page;
+
+import com.zcgk.httpplus.core.endpoint.Endpoint;
+import org.springframework.http.HttpMethod;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/****************************************************
+ *
+ * 自动分页
+ *      按页请求分页接口，将各页的元素按顺序合并为一个 Stream。消费当前页时后续页已在虚拟线程上请求：
+ *      页码分页同时请求 prefetch 页（指定总数字段时先请求第一页，取得总数后只请求到最后一页），游标分页收到一页后立即请求下一页。
+ *      每页的请求经过超时、重试、熔断、负载均衡等，与 {@link Endpoint#call} 一致；返回值判断不成功时抛出 EnvelopeMismatchException。
+ *      Stream 关闭时不再发出后续页的请求，提前结束消费时须关闭 Stream（在 try-with-resources 中使用）。
+ *      通过 {@link PaginatorBuilder} 构建，应保存为常量重复使用
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 02:50
+ * @version 1.0
+ **************************************************/
+public final class Paginator<T> {
+
+    private final Endpoint<T> endpoint;
+
+    private final boolean cursorMode;
+
+    private final String pageNoParam;
+    private final String pageSizeParam;
+    private final int pageSize;
+    private final int firstPage;
+    private final String totalField;
+
+    private final String cursorParam;
+    private final String nextCursorField;
+
+    private final int prefetch;
+
+
+    Paginator(Endpoint<T> endpoint, boolean cursorMode, String pageNoParam, String pageSizeParam, int pageSize,
+              int firstPage, String totalField, String cursorParam, String nextCursorField, int prefetch) {
+        this.endpoint = endpoint;
+        this.cursorMode = cursorMode;
+        this.pageNoParam = pageNoParam;
+        this.pageSizeParam = pageSizeParam;
+        this.pageSize = pageSize;
+        this.firstPage = firstPage;
+        this.totalField = totalField;
+        this.cursorParam = cursorParam;
+        this.nextCursorField = nextCursorField;
+        this.prefetch = prefetch;
+    }
+
+
+    /**
+     * 请求所有页
+     *
+     * @return 各页的元素，按页的顺序
+     */
+    public Stream<T> stream() {
+        return stream(Collections.emptyMap());
+    }
+
+
+    /**
+     * 请求所有页
+     *
+     * @param paramMap 分页参数以外的参数，含义同 {@link Endpoint#call} 的 paramMap
+     * @return 各页的元素，按页的顺序。请求失败时在消费到该页时抛出异常
+     */
+    public Stream<T> stream(Map<String, Object> paramMap) {
+        PageIterator<T> iterator = new PageIterator<>(this, paramMap == null ? Collections.emptyMap() : paramMap);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+
+    /**
+     * @param paramMap 调用方的参数
+     * @param pageNo 页码
+     * @return 第 pageNo 页的参数
+     */
+    Map<String, Object> pageParams(Map<String, Object> paramMap, long pageNo) {
+        Map<String, Object> params = new HashMap<>(paramMap);
+        params.put(pageNoParam, pageNo);
+        params.put(pageSizeParam, pageSize);
+        return params;
+    }
+
+
+    /**
+     * @param paramMap 调用方的参数
+     * @param cursor 游标，第一页为 null
+     * @return 该游标对应页的参数。第一页 get 请求的游标为空字符串（url 中须有该参数），post 请求不带游标
+     */
+    Map<String, Object> cursorParams(Map<String, Object> paramMap, String cursor) {
+        Map<String, Object> params = new HashMap<>(paramMap);
+        if (cursor != null) {
+            params.put(cursorParam, cursor);
+        } else if (HttpMethod.GET.equals(endpoint.getMethod())) {
+            params.putIfAbsent(cursorParam, "");
+        }
+        return params;
+    }
+
+
+    Endpoint<T> getEndpoint() {
+        return endpoint;
+    }
+
+    boolean isCursorMode() {
+        return cursorMode;
+    }
+
+    int getPageSize() {
+        return pageSize;
+    }
+
+    int getFirstPage() {
+        return firstPage;
+    }
+
+    String getTotalField() {
+        return totalField;
+    }
+
+    String getNextCursorField() {
+        return nextCursorField;
+    }
+
+    int getPrefetch() {
+        return prefetch;
+    }
+}
@@ -0,0 +1,141 @@
+package com.zcgk.httpplus.core.page;
+
+import com.zcgk.httpplus.core.endpoint.Endpoint;
+import org.springframework.util.StringUtils;
+
+import java.util.Objects;
+
+/****************************************************
+ *
+ * 自动分页 构建器
+ *      页码分页：HClientUtils.paginate(endpoint).offset("pageNo", "pageSize", 500).total("total").prefetch(4).build()
+ *      游标分页：HClientUtils.paginate(endpoint).cursor("cursor", "nextCursor").build()
+ *      分页接口须返回多个（list）；总数、下一页游标须是返回值中与 code 同层的字段，须以 capture(field) 构建 endpoint。构建器本身非线程安全
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 02:50
+ * @version 1.0
+ **************************************************/
+public final class PaginatorBuilder<T> {
+
+    private final Endpoint<T> endpoint;
+
+    private boolean cursorMode;
+
+    private String pageNoParam;
+    private String pageSizeParam;
+    private int pageSize;
+    private int firstPage = 1;
+    private String totalField;
+
+    private String cursorParam;
+    private String nextCursorField;
+
+    private int prefetch = 4;
+
+
+    public PaginatorBuilder(Endpoint<T> endpoint) {
+        this.endpoint = Objects.requireNonNull(endpoint, "endpoint");
+    }
+
+
+    /**
+     * 页码分页。get 请求时页码、每页条数作为 url 参数（如：?pageNo={pageNo}&pageSize={pageSize}），post 请求时作为请求体参数
+     *
+     * @param pageNoParam 页码参数名。如：pageNo
+     * @param pageSizeParam 每页条数参数名。如：pageSize
+     * @param pageSize 每页条数
+     */
+    public PaginatorBuilder<T> offset(String pageNoParam, String pageSizeParam, int pageSize) {
+        this.cursorMode = false;
+        this.pageNoParam = pageNoParam;
+        this.pageSizeParam = pageSizeParam;
+        this.pageSize = pageSize;
+        return this;
+    }
+
+
+    /**
+     * 第一页的页码，默认 1
+     */
+    public PaginatorBuilder<T> firstPage(int firstPage) {
+        this.firstPage = firstPage;
+        return this;
+    }
+
+
+    /**
+     * 总条数字段。指定时先请求第一页，取得总数后并发请求其余各页；
+     *      未指定时按顺序预取，返回不足一页时结束
+     *
+     * @param totalField 字段名。如：total
+     */
+    public PaginatorBuilder<T> total(String totalField) {
+        this.totalField = totalField;
+        return this;
+    }
+
+
+    /**
+     * 游标分页。第一页不带游标，之后以上一页返回的游标请求下一页，游标为空或返回空列表时结束
+     *
+     * @param cursorParam 游标参数名。如：cursor
+     * @param nextCursorField 下一页游标字段名。如：nextCursor
+     */
+    public PaginatorBuilder<T> cursor(String cursorParam, String nextCursorField) {
+        this.cursorMode = true;
+        this.cursorParam = cursorParam;
+        this.nextCursorField = nextCursorField;
+        return this;
+    }
+
+
+    /**
+     * 页码分页时同时请求中的最多页数（含正在消费的下一页），默认 4。游标分页只能逐页请求，收到一页后立即请求下一页
+     */
+    public PaginatorBuilder<T> prefetch(int prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+
+    /**
+     * 构建。配置不符合规范时抛出 IllegalStateException
+     *
+     * @return paginator
+     */
+    public Paginator<T> build() {
+        if (endpoint.isSingle()) {
+            throw new IllegalStateException("分页接口须返回多个，须以 list(clazz) 构建 endpoint");
+        }
+        if (cursorMode) {
+            if (!StringUtils.hasText(cursorParam) || !StringUtils.hasText(nextCursorField)) {
+                throw new IllegalStateException("游标分页须指定游标参数名及下一页游标字段名");
+            }
+            checkCaptured(nextCursorField);
+        } else {
+            if (!StringUtils.hasText(pageNoParam) || !StringUtils.hasText(pageSizeParam)) {
+                throw new IllegalStateException("未指定分页方式，须调用 offset(pageNoParam, pageSizeParam, pageSize) 或 cursor(cursorParam, nextCursorField)");
+            }
+            if (pageSize <= 0) {
+                throw new IllegalStateException("pageSize 须大于0");
+            }
+            if (StringUtils.hasText(totalField)) {
+                checkCaptured(totalField);
+            }
+        }
+        if (prefetch <= 0) {
+            throw new IllegalStateException("prefetch 须大于0");
+        }
+        return new Paginator<>(endpoint, cursorMode, pageNoParam, pageSizeParam, pageSize, firstPage,
+                StringUtils.hasText(totalField) ? totalField : null, cursorParam, nextCursorField, prefetch);
+    }
+
+
+    private void checkCaptured(String field) {
+        if (endpoint.getSuccess().rule(field) == null) {
+            throw new IllegalStateException("返回值未读取字段 " + field + "，须以 capture(\"" + field + "\") 构建 endpoint");
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.zcgk.httpplus.core.resilience;
+
+import com.zcgk.httpplus.config.CircuitBreakerConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/****************************************************
+ *
+ * 单个 host 的熔断器
+ *      CLOSED：正常放行，统计最近 slidingWindowSize 次请求的失败比例；
+ *      OPEN：直接拒绝，openMillis 后转为 HALF_OPEN；
+ *      HALF_OPEN：放行 permittedCallsInHalfOpen 个试探请求，全部成功转为 CLOSED，任一失败转为 OPEN
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final CircuitBreakerConfig config;
+
+    /**
+     * 最近请求的结果，true 为失败
+     */
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+
+    public CircuitBreaker(CircuitBreakerConfig config) {
+        this.config = config;
+        this.window = new boolean[Math.max(1, config.getSlidingWindowSize())];
+    }
+
+
+    /**
+     * @return 是否放行。放行后须调用 onSuccess、onFailure 或 release 之一
+     */
+    public boolean tryAcquire() {
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < TimeUnit.MILLISECONDS.toNanos(config.getOpenMillis())) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                halfOpenInFlight = 0;
+                halfOpenSuccesses = 0;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight >= config.getPermittedCallsInHalfOpen()) {
+                    return false;
+                }
+                halfOpenInFlight++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    public void onSuccess() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+                if (++halfOpenSuccesses >= config.getPermittedCallsInHalfOpen()) {
+                    toClosed();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    public void onFailure() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                toOpen();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (windowCount >= config.getMinimumNumberOfCalls()
+                        && windowFailures * 100 >= config.getFailureRateThreshold() * windowCount) {
+                    toOpen();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * 放行后请求被取消，不计结果
+     */
+    public void release() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+
+    private void toOpen() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+
+    private void toClosed() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
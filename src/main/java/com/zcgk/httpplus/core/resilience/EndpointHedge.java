@@ -0,0 +1,116 @@
+package com.zcgk.httpplus.core.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * 单个接口的对冲延迟与对冲预算
+ *      延迟：记录最近 SAMPLES 个请求的耗时，每 RECOMPUTE_INTERVAL 个请求重新计算百分位，不低于 hedgeDelayMillis；
+ *      预算：令牌桶，每个请求存入 hedgeBudgetPercent / 100 个令牌，每次对冲取出 1 个，最多存 BUDGET_CAPACITY 个
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 00:30
+ * @version 1.0
+ **************************************************/
+final class EndpointHedge {
+
+    private static final int SAMPLES = 128;
+
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private static final double BUDGET_CAPACITY = 10D;
+
+    private final EndpointPolicy policy;
+
+    private final long[] latencies = new long[SAMPLES];
+    private int sampleCount;
+    private int nextSample;
+    private long delayNanos;
+
+    private double budget;
+
+    private long requests;
+    private long hedged;
+    private long hedgeWins;
+    private long skipped;
+
+
+    EndpointHedge(EndpointPolicy policy) {
+        this.policy = policy;
+        this.delayNanos = minDelayNanos();
+        this.budget = 1D;
+    }
+
+
+    /**
+     * 请求开始，存入预算
+     *
+     * @return 对冲延迟（纳秒）
+     */
+    synchronized long onRequest() {
+        requests++;
+        budget = Math.min(BUDGET_CAPACITY, budget + Math.max(0D, policy.getHedgeBudgetPercent()) / 100D);
+        return delayNanos;
+    }
+
+
+    /**
+     * @return 是否有预算发出对冲请求，有则取出
+     */
+    synchronized boolean tryHedge() {
+        if (budget < 1D) {
+            skipped++;
+            return false;
+        }
+        budget -= 1D;
+        hedged++;
+        return true;
+    }
+
+
+    synchronized void onSkipped() {
+        skipped++;
+    }
+
+
+    /**
+     * 请求完成
+     *
+     * @param latency 耗时（纳秒），以先完成的请求计
+     * @param hedgeWon 是否对冲请求先完成
+     */
+    synchronized void onComplete(long latency, boolean hedgeWon) {
+        if (hedgeWon) {
+            hedgeWins++;
+        }
+
+        latencies[nextSample] = latency;
+        nextSample = (nextSample + 1) % SAMPLES;
+        sampleCount++;
+        if (sampleCount % RECOMPUTE_INTERVAL == 0) {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(sampleCount, SAMPLES));
+            Arrays.sort(sorted);
+            double percentile = Math.min(100D, Math.max(0D, policy.getHedgePercentile()));
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100D * sorted.length) - 1);
+            delayNanos = Math.max(minDelayNanos(), sorted[Math.max(0, index)]);
+        }
+    }
+
+
+    synchronized HedgeStats stats() {
+        HedgeStats stats = new HedgeStats();
+        stats.setDelayMillis(delayNanos / 1_000_000D);
+        stats.setRequests(requests);
+        stats.setHedged(hedged);
+        stats.setHedgeWins(hedgeWins);
+        stats.setSkipped(skipped);
+        return stats;
+    }
+
+
+    private long minDelayNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, policy.getHedgeDelayMillis()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.zcgk.httpplus.core.resilience;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 接口级的超时、重试与对冲策略，通过 {@link HClientResilience#register} 按接口 url 模板注册
+ *      超时小于等于0 时使用引擎配置；重试、对冲仅对 get 请求生效
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+@Data
+public class EndpointPolicy {
+
+    /**
+     * 建立连接超时时间（毫秒）
+     */
+    private int connectTimeout = -1;
+
+    /**
+     * 读取超时时间（毫秒）。非阻塞请求为单次请求（收到完整响应）的超时时间
+     */
+    private int readTimeout = -1;
+
+    /**
+     * 总时限（毫秒），含全部重试及退避等待，到期中止进行中的请求。小于等于0 不限制
+     */
+    private long deadlineMillis = -1L;
+
+    /**
+     * get 请求最大重试次数。连接失败、超时、502/503/504 时重试
+     */
+    private int maxRetries = 2;
+
+    /**
+     * 首次重试的退避基数（毫秒），之后每次翻倍，实际等待时间为 [0, 退避值] 间的随机数
+     */
+    private long retryBackoffMillis = 100L;
+
+    /**
+     * 退避值上限（毫秒）
+     */
+    private long maxRetryBackoffMillis = 2000L;
+
+    /**
+     * 是否开启对冲请求（仅阻塞 get 请求）：请求在对冲延迟内未完成时再发送一个相同的请求，取先完成的结果，中止另一个。
+     *      对冲是单次尝试内的行为，对冲请求也失败时才按重试策略重试
+     */
+    private boolean hedge = false;
+
+    /**
+     * 对冲延迟取最近请求耗时的该百分位
+     */
+    private double hedgePercentile = 95D;
+
+    /**
+     * 对冲延迟下限（毫秒），样本不足时即为对冲延迟
+     */
+    private long hedgeDelayMillis = 50L;
+
+    /**
+     * 对冲请求改发到的 base url，只替换 scheme、host、port。如：http://127.0.0.2:8080。为空时发到原 url
+     */
+    private String hedgeBaseUrl;
+
+    /**
+     * 对冲预算：对冲请求数最多为请求数的百分之几，上游故障、普遍变慢时对冲不会成倍放大负载
+     */
+    private double hedgeBudgetPercent = 10D;
+
+}
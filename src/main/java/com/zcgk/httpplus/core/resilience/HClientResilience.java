@@ -0,0 +1,592 @@
+package com.zcgk.httpplus.core.resilience;
+
+import com.zcgk.httpplus.config.CircuitBreakerConfig;
+import com.zcgk.httpplus.config.RateLimitConfig;
+import com.zcgk.httpplus.core.exception.CircuitBreakerOpenException;
+import com.zcgk.httpplus.core.exception.DeadlineExceededException;
+import com.zcgk.httpplus.core.exception.RateLimitedException;
+import com.zcgk.httpplus.core.metrics.HClientMetrics;
+import com.zcgk.httpplus.core.utils.UrlTemplateUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/****************************************************
+ *
+ * 超时、重试、对冲、熔断、限流
+ *      按接口 url 模板注册超时、重试与对冲策略，未注册的接口使用默认策略；按 host:port 熔断、限流（见 {@link HostLimiter}）。
+ *      get 请求在 连接失败、超时、502/503/504 时按指数退避（随机抖动）重试，其余请求不重试；
+ *      总时限覆盖全部重试及退避等待，到期中止进行中的请求并抛出 {@link DeadlineExceededException}；
+ *      host 熔断期间直接抛出 {@link CircuitBreakerOpenException}，超出限流时抛出 {@link RateLimitedException}，均不重试
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+public final class HClientResilience {
+
+    /**
+     * url 模板 -> 策略
+     */
+    private static final Map<String, EndpointPolicy> POLICY_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * host:port -> 熔断器
+     */
+    private static final Map<String, CircuitBreaker> BREAKER_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * host:port -> 限流配置，未注册的 host 使用默认配置
+     */
+    private static final Map<String, RateLimitConfig> LIMIT_CONFIG_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * host:port -> 限流器
+     */
+    private static final Map<String, HostLimiter> LIMITER_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * url 模板 -> 对冲延迟与预算
+     */
+    private static final Map<String, EndpointHedge> HEDGE_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程正在执行的阻塞请求
+     */
+    private static final ThreadLocal<RequestScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 总时限到期时中止请求
+     */
+    private static final ScheduledThreadPoolExecutor SCHEDULER = scheduler();
+
+    private static volatile EndpointPolicy defaultPolicy = new EndpointPolicy();
+
+    private static volatile CircuitBreakerConfig breakerConfig = new CircuitBreakerConfig();
+
+    private static volatile RateLimitConfig limitConfig = new RateLimitConfig();
+
+    private HClientResilience() {
+    }
+
+
+    /**
+     * 注册接口策略
+     *
+     * @param url 接口url，与 getApi / postApi 的 url 参数一致。如：http://127.0.0.1:8080/user?args={args}
+     * @param policy 策略
+     */
+    public static void register(String url, EndpointPolicy policy) {
+        POLICY_MAP.put(url, policy);
+        HEDGE_MAP.remove(url);
+    }
+
+
+    public static void unregister(String url) {
+        POLICY_MAP.remove(url);
+        HEDGE_MAP.remove(url);
+    }
+
+
+    /**
+     * 设置未注册接口使用的策略
+     *
+     * @param policy 策略
+     */
+    public static void setDefaultPolicy(EndpointPolicy policy) {
+        defaultPolicy = policy;
+        HEDGE_MAP.keySet().removeIf(url -> !POLICY_MAP.containsKey(url));
+    }
+
+
+    /**
+     * 设置熔断配置，已有的熔断状态全部丢弃
+     *
+     * @param config 熔断配置
+     */
+    public static void configure(CircuitBreakerConfig config) {
+        breakerConfig = config;
+        BREAKER_MAP.clear();
+    }
+
+
+    /**
+     * 设置默认限流配置，已有的限流状态全部丢弃
+     *
+     * @param config 限流配置
+     */
+    public static void configure(RateLimitConfig config) {
+        limitConfig = config;
+        LIMITER_MAP.clear();
+    }
+
+
+    /**
+     * 按 host 注册限流配置，该 host 已有的限流状态丢弃
+     *
+     * @param host host:port。如：127.0.0.1:8080
+     * @param config 限流配置
+     */
+    public static void registerLimit(String host, RateLimitConfig config) {
+        LIMIT_CONFIG_MAP.put(host, config);
+        LIMITER_MAP.remove(host);
+    }
+
+
+    public static void unregisterLimit(String host) {
+        LIMIT_CONFIG_MAP.remove(host);
+        LIMITER_MAP.remove(host);
+    }
+
+
+    /**
+     * @param host host:port
+     * @return 限流器。该 host 未开启限流时为 null
+     */
+    public static HostLimiter limiter(String host) {
+        RateLimitConfig config = LIMIT_CONFIG_MAP.getOrDefault(host, limitConfig);
+        if (!config.isEnabled()) {
+            return null;
+        }
+        return LIMITER_MAP.computeIfAbsent(host, key -> {
+            registerGauges(key);
+            return new HostLimiter(key, config);
+        });
+    }
+
+
+    /**
+     * 注册限流 gauge，读取当前的限流器，限流器重建后无需重新注册
+     */
+    private static void registerGauges(String host) {
+        MeterRegistry registry = HClientMetrics.registry();
+        registerGauge(registry, host, "limit", LimiterStats::getLimit);
+        registerGauge(registry, host, "inflight", LimiterStats::getInFlight);
+    }
+
+
+    private static void registerGauge(MeterRegistry registry, String host, String state, ToIntFunction<LimiterStats> value) {
+        Gauge.builder(HClientMetrics.LIMITER, () -> {
+                    HostLimiter limiter = LIMITER_MAP.get(host);
+                    return limiter == null ? Double.NaN : value.applyAsInt(limiter.stats());
+                })
+                .tag("client", host)
+                .tag("state", state)
+                .register(registry);
+    }
+
+
+    /**
+     * @return host:port -> 当前限流状态，仅含已发出过请求的 host
+     */
+    public static Map<String, LimiterStats> limiterStats() {
+        Map<String, LimiterStats> stats = new LinkedHashMap<>();
+        LIMITER_MAP.forEach((host, limiter) -> stats.put(host, limiter.stats()));
+        return stats;
+    }
+
+
+    /**
+     * @return url 模板 -> 当前对冲状态，仅含已发出过请求的开启对冲的接口
+     */
+    public static Map<String, HedgeStats> hedgeStats() {
+        Map<String, HedgeStats> stats = new LinkedHashMap<>();
+        HEDGE_MAP.forEach((url, hedge) -> stats.put(url, hedge.stats()));
+        return stats;
+    }
+
+
+    /**
+     * @param url 接口url
+     * @return 策略
+     */
+    public static EndpointPolicy policy(String url) {
+        return POLICY_MAP.getOrDefault(url, defaultPolicy);
+    }
+
+
+    /**
+     * @param host host:port
+     * @return 熔断器
+     */
+    public static CircuitBreaker breaker(String host) {
+        return BREAKER_MAP.computeIfAbsent(host, key -> new CircuitBreaker(breakerConfig));
+    }
+
+
+    /**
+     * @return 当前线程正在执行的阻塞请求。没有时为 null
+     */
+    public static RequestScope current() {
+        return CURRENT.get();
+    }
+
+
+    static void bind(RequestScope scope) {
+        CURRENT.set(scope);
+    }
+
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+
+    /**
+     * 阻塞执行请求，不对冲
+     *
+     * @param url 接口url
+     * @param method 请求方式
+     * @param call 单次请求，重试时重复调用
+     * @param <T> 泛型
+     * @return call 的返回值
+     */
+    public static <T> T execute(String url, HttpMethod method, Supplier<T> call) {
+        return execute(url, method, null, uri -> call.get());
+    }
+
+
+    /**
+     * 阻塞执行请求，接口开启对冲时 get 请求可能对冲
+     *
+     * @param url 接口url
+     * @param method 请求方式
+     * @param uri 展开后的 url
+     * @param call 单次请求，重试、对冲时以要请求的 url 重复调用，可能在其他线程上并发调用
+     * @param <T> 泛型
+     * @return call 的返回值
+     */
+    public static <T> T execute(String url, HttpMethod method, URI uri, Function<URI, T> call) {
+        EndpointPolicy policy = policy(url);
+        String host = UrlTemplateUtils.host(url);
+        CircuitBreaker breaker = breaker(host);
+        HostLimiter limiter = limiter(host);
+
+        EndpointHedge hedge = null;
+        URI hedgeUri = null;
+        String hedgeHost = host;
+        if (uri != null && HttpMethod.GET.equals(method) && policy.isHedge()) {
+            hedge = HEDGE_MAP.computeIfAbsent(url, key -> new EndpointHedge(policy));
+            hedgeUri = hedgeUri(uri, policy.getHedgeBaseUrl());
+            if (StringUtils.hasText(policy.getHedgeBaseUrl())) {
+                hedgeHost = UrlTemplateUtils.host(policy.getHedgeBaseUrl());
+            }
+        }
+
+        long deadlineNanos = policy.getDeadlineMillis() > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.getDeadlineMillis()) : Long.MAX_VALUE;
+        int maxAttempts = HttpMethod.GET.equals(method) ? Math.max(0, policy.getMaxRetries()) + 1 : 1;
+
+        RuntimeException lastError = null;
+        for (int attempt = 0; ; attempt++) {
+            if (System.nanoTime() >= deadlineNanos) {
+                throw new DeadlineExceededException(url, policy.getDeadlineMillis());
+            }
+            long permit = 0L;
+            if (limiter != null) {
+                try {
+                    permit = limiter.acquire();
+                } catch (RateLimitedException e) {
+                    // 重试期间超出限流，抛出上次请求的异常
+                    throw lastError != null ? lastError : e;
+                }
+            }
+            if (!breaker.tryAcquire()) {
+                if (limiter != null) {
+                    limiter.release();
+                    limiter.unreserve();
+                }
+                // 重试期间熔断，抛出上次请求的异常
+                throw lastError != null ? lastError : new CircuitBreakerOpenException(host);
+            }
+
+            RequestScope scope = new RequestScope(policy, deadlineNanos, SCHEDULER);
+            CURRENT.set(scope);
+            boolean recorded = false;
+            try {
+                HedgedCall<T> hedged = hedge == null ? null
+                        : new HedgedCall<>(hedge, policy, scope, deadlineNanos, SCHEDULER, uri, hedgeUri, call,
+                        breaker(hedgeHost), limiter(hedgeHost));
+                T result = hedged == null ? call.apply(uri) : hedged.run();
+                RuntimeException primaryError = hedged == null ? null : hedged.getPrimaryError();
+                if (primaryError == null) {
+                    breaker.onSuccess();
+                    if (limiter != null) {
+                        limiter.onSuccess(permit);
+                    }
+                } else if (!hedged.isPrimaryCancelled()) {
+                    // 对冲请求挽救了本次调用，原 host 仍按原请求自身的失败计
+                    recordFailure(breaker, primaryError);
+                    recordLimit(limiter, permit, primaryError);
+                } else {
+                    // 原请求被对冲请求中止，不计结果
+                    breaker.release();
+                    if (limiter != null) {
+                        limiter.release();
+                    }
+                }
+                recorded = true;
+                return result;
+            } catch (RuntimeException e) {
+                recordFailure(breaker, e);
+                recordLimit(limiter, permit, e);
+                recorded = true;
+
+                if (scope.isExpired()) {
+                    throw new DeadlineExceededException(url, policy.getDeadlineMillis(),
+                            e.getCause() instanceof IOException ? (IOException) e.getCause() : null);
+                }
+                if (attempt + 1 >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+
+                long backoff = backoff(policy, attempt);
+                if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) >= deadlineNanos) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                lastError = e;
+            } finally {
+                if (!recorded) {
+                    breaker.release();
+                    if (limiter != null) {
+                        limiter.release();
+                    }
+                }
+                scope.close();
+                CURRENT.remove();
+            }
+        }
+    }
+
+
+    /**
+     * 非阻塞执行请求
+     *      单次请求超时为策略中的 readTimeout（收到完整响应），连接、读取超时由引擎配置。
+     *      限流时只等待限速（不占用线程），并发已达上限时直接拒绝
+     *
+     * @param url 接口url
+     * @param method 请求方式
+     * @param call 单次请求，须为冷 Mono，重试时重新订阅
+     * @param <T> 泛型
+     * @return mono
+     */
+    public static <T> Mono<T> executeAsync(String url, HttpMethod method, Mono<T> call) {
+        EndpointPolicy policy = policy(url);
+        String host = UrlTemplateUtils.host(url);
+        CircuitBreaker breaker = breaker(host);
+        HostLimiter limiter = limiter(host);
+        int maxAttempts = HttpMethod.GET.equals(method) ? Math.max(0, policy.getMaxRetries()) + 1 : 1;
+
+        Mono<T> guarded = Mono.defer(() -> {
+            if (!breaker.tryAcquire()) {
+                return Mono.error(new CircuitBreakerOpenException(host));
+            }
+
+            Mono<T> single = call;
+            if (policy.getReadTimeout() > 0) {
+                single = single.timeout(Duration.ofMillis(policy.getReadTimeout()));
+            }
+            return single
+                    .onErrorMap(TimeoutException.class, e -> readTimedOut(url, e))
+                    // 引擎的 ReadTimeoutHandler 两次读取间隔超时，不是 IOException，按与阻塞请求一致的读取超时处理
+                    .onErrorMap(io.netty.handler.timeout.TimeoutException.class, e -> readTimedOut(url, e))
+                    .doOnSuccess(value -> breaker.onSuccess())
+                    .doOnError(e -> recordFailure(breaker, e))
+                    .doOnCancel(breaker::release);
+        });
+        Mono<T> attempt = limiter == null ? guarded : limitAsync(limiter, guarded);
+
+        Mono<T> result = retryAsync(attempt, policy, 0, maxAttempts);
+        if (policy.getDeadlineMillis() > 0) {
+            result = result.timeout(Duration.ofMillis(policy.getDeadlineMillis()),
+                    Mono.defer(() -> Mono.error(new DeadlineExceededException(url, policy.getDeadlineMillis()))));
+        }
+        return result;
+    }
+
+
+    /**
+     * 非阻塞请求读取超时，与阻塞请求的 SocketTimeoutException 一样计为 host 失败、可重试
+     */
+    private static ResourceAccessException readTimedOut(String url, Throwable e) {
+        SocketTimeoutException cause = new SocketTimeoutException("Read timed out");
+        cause.initCause(e);
+        return new ResourceAccessException("Read timed out for \"" + url + "\"", cause);
+    }
+
+
+    /**
+     * 非阻塞请求的限流：等待预约的令牌后获取并发名额，请求结束时记录耗时。
+     * 未取得并发名额或等待期间被取消时归还令牌
+     */
+    private static <T> Mono<T> limitAsync(HostLimiter limiter, Mono<T> attempt) {
+        return Mono.defer(() -> {
+            long wait = limiter.reserve();
+            Mono<Long> delay = wait > 0 ? Mono.delay(Duration.ofNanos(wait)).doOnCancel(limiter::unreserve) : Mono.just(0L);
+            return delay.then(Mono.defer(() -> {
+                long permit;
+                try {
+                    permit = limiter.tryAcquire();
+                } catch (RateLimitedException e) {
+                    limiter.unreserve();
+                    return Mono.error(e);
+                }
+                return attempt
+                        .doOnSuccess(value -> limiter.onSuccess(permit))
+                        .doOnError(e -> recordLimit(limiter, permit, e))
+                        .doOnCancel(limiter::release);
+            }));
+        });
+    }
+
+
+    private static <T> Mono<T> retryAsync(Mono<T> attempt, EndpointPolicy policy, int attemptNo, int maxAttempts) {
+        return attempt.onErrorResume(e -> {
+            if (attemptNo + 1 >= maxAttempts || !isRetryable(e)) {
+                return Mono.error(e);
+            }
+            // 重试期间熔断或超出限流，以本次请求的异常结束
+            return Mono.delay(Duration.ofMillis(backoff(policy, attemptNo)))
+                    .then(retryAsync(attempt, policy, attemptNo + 1, maxAttempts))
+                    .onErrorMap(CircuitBreakerOpenException.class, open -> e)
+                    .onErrorMap(RateLimitedException.class, limited -> e);
+        });
+    }
+
+
+    /**
+     * 连接失败、超时、5xx 计为失败；4xx、解码异常等说明 host 可用，计为成功
+     */
+    static void recordFailure(CircuitBreaker breaker, Throwable e) {
+        if (isHostFailure(e)) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+
+    /**
+     * 连接失败、超时、5xx 降低并发上限；熔断时请求未发送，不计耗时并归还令牌
+     */
+    static void recordLimit(HostLimiter limiter, long permit, Throwable e) {
+        if (limiter == null) {
+            return;
+        }
+        if (e instanceof CircuitBreakerOpenException) {
+            limiter.release();
+            limiter.unreserve();
+        } else if (isHostFailure(e)) {
+            limiter.onDropped(permit);
+        } else {
+            limiter.onSuccess(permit);
+        }
+    }
+
+
+    private static boolean isHostFailure(Throwable e) {
+        if (e instanceof CircuitBreakerOpenException || e instanceof RateLimitedException) {
+            return false;
+        }
+        if (e instanceof ResourceAccessException || e instanceof HttpServerErrorException || e instanceof IOException) {
+            return true;
+        }
+        if (e instanceof WebClientResponseException) {
+            return ((WebClientResponseException) e).getRawStatusCode() >= 500;
+        }
+        // 非阻塞请求连接失败时为 netty 的异常
+        return !(e instanceof RestClientException) && e.getCause() instanceof IOException;
+    }
+
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof CircuitBreakerOpenException || e instanceof RateLimitedException
+                || e instanceof DeadlineExceededException) {
+            return false;
+        }
+        if (e instanceof ResourceAccessException || e instanceof IOException) {
+            return true;
+        }
+
+        int status;
+        if (e instanceof HttpServerErrorException) {
+            status = ((HttpServerErrorException) e).getRawStatusCode();
+        } else if (e instanceof WebClientResponseException) {
+            status = ((WebClientResponseException) e).getRawStatusCode();
+        } else {
+            return !(e instanceof RestClientException) && e.getCause() instanceof IOException;
+        }
+        return status == 502 || status == 503 || status == 504;
+    }
+
+
+    /**
+     * 指数退避，在 [0, min(上限, 基数 * 2^attempt)] 间随机
+     */
+    private static long backoff(EndpointPolicy policy, int attempt) {
+        long cap = policy.getRetryBackoffMillis() << Math.min(attempt, 30);
+        cap = Math.min(policy.getMaxRetryBackoffMillis(), cap < 0 ? Long.MAX_VALUE : cap);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+
+    /**
+     * 对冲请求的 url：以 base url 的 scheme、host、port 替换原 url 的
+     *
+     * @param uri 原 url
+     * @param baseUrl 对冲请求的 base url。为空时即原 url
+     * @return url
+     */
+    private static URI hedgeUri(URI uri, String baseUrl) {
+        if (!StringUtils.hasText(baseUrl)) {
+            return uri;
+        }
+        URI base = URI.create(baseUrl);
+        StringBuilder builder = new StringBuilder()
+                .append(base.getScheme()).append("://").append(base.getRawAuthority())
+                .append(uri.getRawPath());
+        if (uri.getRawQuery() != null) {
+            builder.append('?').append(uri.getRawQuery());
+        }
+        return URI.create(builder.toString());
+    }
+
+
+    private static ScheduledThreadPoolExecutor scheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "hclient-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
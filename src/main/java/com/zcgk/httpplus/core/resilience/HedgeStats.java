@@ -0,0 +1,42 @@
+package com.zcgk.httpplus.core.resilience;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 单个接口的对冲状态（快照），见 {@link EndpointPolicy#isHedge()}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 00:30
+ * @version 1.0
+ **************************************************/
+@Data
+public class HedgeStats {
+
+    /**
+     * 当前对冲延迟（毫秒）
+     */
+    private double delayMillis;
+
+    /**
+     * 累计请求数（单次尝试计一次）
+     */
+    private long requests;
+
+    /**
+     * 累计发出的对冲请求数
+     */
+    private long hedged;
+
+    /**
+     * 对冲请求先完成的次数
+     */
+    private long hedgeWins;
+
+    /**
+     * 到达对冲延迟但因预算不足、熔断或限流而未对冲的次数
+     */
+    private long skipped;
+
+}
@@ -0,0 +1,268 @@
+package com.zcgk.httpplus.core.resilience;
+
+import com.zcgk.httpplus.core.engine.VirtualThreadExecutor;
+import com.zcgk.httpplus.core.exception.RateLimitedException;
+
+import java.net.URI;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/****************************************************
+ *
+ * 阻塞请求的一次对冲尝试
+ *      原请求在调用方线程执行；到达对冲延迟仍未完成时，在虚拟线程上发出对冲请求，先完成的一方中止另一方。
+ *      原请求失败而对冲请求仍在进行时，以对冲请求的结果为准；两者都失败时抛出原请求的异常。
+ *      以对冲请求的结果返回时，原请求自身的结果见 {@link #getPrimaryError()}、{@link #isPrimaryCancelled()}，由调用方计入原 host 的熔断与限流。
+ *      对冲请求经过目标 host 的熔断与限流，被拒绝时不对冲
+ *
+ *
+ * @author Francis
+ * @date 2026/10/19 00:30
+ * @version 1.0
+ **************************************************/
+final class HedgedCall<T> {
+
+    private static final int PENDING = 0;
+    private static final int LAUNCHED = 1;
+    private static final int SKIPPED = 2;
+
+    /**
+     * 对冲请求是否已发出。原请求先结束时置为 SKIPPED，不再发出
+     */
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    /**
+     * 先完成的一方置为 true 并中止另一方
+     */
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    /**
+     * 对冲请求的结果。未发出时以 CancellationException 结束
+     */
+    private final CompletableFuture<T> hedgeResult = new CompletableFuture<>();
+
+    private final EndpointHedge hedge;
+    private final EndpointPolicy policy;
+    private final RequestScope primary;
+    private final long deadlineNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final URI uri;
+    private final URI hedgeUri;
+    private final Function<URI, T> call;
+
+    private final CircuitBreaker hedgeBreaker;
+    private final HostLimiter hedgeLimiter;
+
+    /**
+     * 原请求的异常，以对冲请求的结果返回时有效。只在调用方线程读写
+     */
+    private RuntimeException primaryError;
+
+    /**
+     * 原请求因对冲请求先完成而被中止
+     */
+    private boolean primaryCancelled;
+
+
+    HedgedCall(EndpointHedge hedge, EndpointPolicy policy, RequestScope primary, long deadlineNanos,
+               ScheduledExecutorService scheduler, URI uri, URI hedgeUri, Function<URI, T> call,
+               CircuitBreaker hedgeBreaker, HostLimiter hedgeLimiter) {
+        this.hedge = hedge;
+        this.policy = policy;
+        this.primary = primary;
+        this.deadlineNanos = deadlineNanos;
+        this.scheduler = scheduler;
+        this.uri = uri;
+        this.hedgeUri = hedgeUri;
+        this.call = call;
+        this.hedgeBreaker = hedgeBreaker;
+        this.hedgeLimiter = hedgeLimiter;
+    }
+
+
+    /**
+     * 在调用方线程执行原请求，原请求的 RequestScope 已绑定到当前线程
+     *
+     * @return 先完成的请求的结果
+     */
+    T run() {
+        long start = System.nanoTime();
+        ScheduledFuture<?> timer = scheduler.schedule(this::launch, hedge.onRequest(), TimeUnit.NANOSECONDS);
+
+        T result;
+        try {
+            result = call.apply(uri);
+        } catch (RuntimeException e) {
+            timer.cancel(false);
+            if (state.compareAndSet(PENDING, SKIPPED)) {
+                throw e;
+            }
+            // 原请求被中止（对冲请求先完成）或自身失败，以对冲请求的结果为准
+            primaryCancelled = primary.isCancelled();
+            T hedged = awaitHedge(e);
+            primaryError = e;
+            hedge.onComplete(System.nanoTime() - start, true);
+            return hedged;
+        }
+
+        timer.cancel(false);
+        state.compareAndSet(PENDING, SKIPPED);
+        if (settled.compareAndSet(false, true)) {
+            hedgeResult.cancel(false);
+        }
+        hedge.onComplete(System.nanoTime() - start, false);
+        return result;
+    }
+
+
+    /**
+     * @return 原请求的异常。原请求成功，或未以对冲请求的结果返回时为 null
+     */
+    RuntimeException getPrimaryError() {
+        return primaryError;
+    }
+
+
+    /**
+     * @return 原请求是否因对冲请求先完成而被中止，此时原请求的异常不说明原 host 不可用
+     */
+    boolean isPrimaryCancelled() {
+        return primaryCancelled;
+    }
+
+
+    /**
+     * 到达对冲延迟，发出对冲请求
+     */
+    private void launch() {
+        if (settled.get() || !state.compareAndSet(PENDING, LAUNCHED)) {
+            return;
+        }
+
+        long permit = 0L;
+        if (hedgeLimiter != null) {
+            if (!hedgeLimiter.tryReserve()) {
+                skip();
+                return;
+            }
+            try {
+                permit = hedgeLimiter.tryAcquire();
+            } catch (RateLimitedException e) {
+                hedgeLimiter.unreserve();
+                skip();
+                return;
+            }
+        }
+        if (!hedgeBreaker.tryAcquire()) {
+            releaseUnsent();
+            skip();
+            return;
+        }
+        if (!hedge.tryHedge()) {
+            hedgeBreaker.release();
+            releaseUnsent();
+            hedgeResult.cancel(false);
+            return;
+        }
+
+        RequestScope scope = new RequestScope(policy, deadlineNanos, scheduler);
+        long hedgePermit = permit;
+        try {
+            VirtualThreadExecutor.executor().execute(() -> callHedge(scope, hedgePermit));
+        } catch (RejectedExecutionException e) {
+            hedgeBreaker.release();
+            releaseUnsent();
+            hedgeResult.cancel(false);
+        }
+    }
+
+
+    private void callHedge(RequestScope scope, long permit) {
+        if (settled.get()) {
+            // 排队期间原请求已完成
+            hedgeBreaker.release();
+            releaseUnsent();
+            hedgeResult.cancel(false);
+            return;
+        }
+
+        hedgeResult.whenComplete((value, e) -> {
+            if (e instanceof CancellationException) {
+                scope.cancel();
+            }
+        });
+        HClientResilience.bind(scope);
+        try {
+            T result = call.apply(hedgeUri);
+            hedgeBreaker.onSuccess();
+            if (hedgeLimiter != null) {
+                hedgeLimiter.onSuccess(permit);
+            }
+            if (hedgeResult.complete(result) && settled.compareAndSet(false, true)) {
+                primary.cancel();
+            }
+        } catch (RuntimeException e) {
+            if (hedgeResult.isCancelled()) {
+                // 原请求先完成，对冲请求被中止，不计结果
+                hedgeBreaker.release();
+                releaseLimiter();
+            } else {
+                HClientResilience.recordFailure(hedgeBreaker, e);
+                HClientResilience.recordLimit(hedgeLimiter, permit, e);
+                hedgeResult.completeExceptionally(e);
+            }
+        } finally {
+            scope.close();
+            HClientResilience.unbind();
+        }
+    }
+
+
+    /**
+     * @param primaryError 原请求的异常，对冲请求也失败时抛出
+     */
+    private T awaitHedge(RuntimeException primaryError) {
+        try {
+            return hedgeResult.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            hedgeResult.cancel(false);
+            throw primaryError;
+        } catch (ExecutionException | CancellationException e) {
+            throw primaryError;
+        }
+    }
+
+
+    private void skip() {
+        hedge.onSkipped();
+        hedgeResult.cancel(false);
+    }
+
+
+    private void releaseLimiter() {
+        if (hedgeLimiter != null) {
+            hedgeLimiter.release();
+        }
+    }
+
+
+    /**
+     * 对冲请求未发送，归还并发名额及令牌
+     */
+    private void releaseUnsent() {
+        if (hedgeLimiter != null) {
+            hedgeLimiter.release();
+            hedgeLimiter.unreserve();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.zcgk.httpplus.core.resilience;
+
+import com.zcgk.httpplus.config.RateLimitConfig;
+import com.zcgk.httpplus.core.exception.RateLimitedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/****************************************************
+ *
+ * 单个 host 的限流器
+ *      限速：令牌桶，令牌可预约（允许为负），请求按预约顺序等待到各自的发送时间，等待时间超过 maxWaitMillis 时拒绝，
+ *      预约后因并发或熔断未发送的请求归还令牌；
+ *      并发：AIMD。请求结束时 耗时未超过 无负载耗时 * latencyTolerance，且并发已用到上限的一半以上时，上限增加 1/上限，
+ *      即每一轮请求约增加 1；过载或失败时上限乘以 backoffRatio。降低上限前发出的请求反映的是旧的负载，不再重复降低。
+ *      无负载耗时取最近 LATENCY_WINDOW 个请求的最小耗时，上游的基准耗时变化后随之更新
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 23:40
+ * @version 1.0
+ **************************************************/
+public class HostLimiter {
+
+    /**
+     * 每隔多少个请求重新统计无负载耗时
+     */
+    private static final int LATENCY_WINDOW = 100;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 有请求结束或上限增加时通知等待的线程。在 Condition 上等待不占用虚拟线程的载体线程
+     */
+    private final Condition released = lock.newCondition();
+
+    private final String host;
+
+    private final RateLimitConfig config;
+
+    private final long maxWaitNanos;
+
+    /**
+     * 令牌桶，每纳秒产生的令牌数。不限速时为 0
+     */
+    private final double permitsPerNano;
+    private final double burst;
+    private double tokens;
+    private long refilledAt;
+
+    private double limit;
+    private int inFlight;
+
+    private long noLoadLatency;
+    private long windowMinLatency = Long.MAX_VALUE;
+    private int windowCount;
+
+    /**
+     * 最近一次降低上限的时间，此前发出的请求不再触发降低
+     */
+    private long decreasedAt;
+
+    private long rejected;
+
+
+    public HostLimiter(String host, RateLimitConfig config) {
+        this.host = host;
+        this.config = config;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, config.getMaxWaitMillis()));
+        this.permitsPerNano = Math.max(0D, config.getPermitsPerSecond()) / TimeUnit.SECONDS.toNanos(1);
+        this.burst = config.getBurst() > 0 ? config.getBurst() : Math.max(1D, config.getPermitsPerSecond());
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+        this.limit = Math.max(minLimit(), Math.min(config.getInitialLimit(), config.getMaxLimit()));
+        this.decreasedAt = refilledAt;
+    }
+
+
+    /**
+     * 阻塞获取：等待限速及并发名额，合计不超过 maxWaitMillis
+     *
+     * @return 请求开始时间，结束时传给 onSuccess / onDropped
+     * @throws RateLimitedException 超出限制，或等待时被中断
+     */
+    public long acquire() {
+        long start = System.nanoTime();
+        long wait = reserve();
+        try {
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            if (!acquire(maxWaitNanos - (System.nanoTime() - start))) {
+                unreserve();
+                throw new RateLimitedException(host, "并发数已达上限 " + (int) limit);
+            }
+        } catch (InterruptedException e) {
+            unreserve();
+            Thread.currentThread().interrupt();
+            throw new RateLimitedException(host, "等待时被中断");
+        }
+        return System.nanoTime();
+    }
+
+
+    /**
+     * 预约一个令牌
+     *
+     * @return 需等待的纳秒数，到时后再发送请求
+     * @throws RateLimitedException 需等待的时间超过 maxWaitMillis，此时不预约
+     */
+    public long reserve() {
+        if (permitsPerNano <= 0D) {
+            return 0L;
+        }
+
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+
+            double remaining = tokens - 1D;
+            long wait = remaining >= 0D ? 0L : (long) Math.ceil(-remaining / permitsPerNano);
+            if (wait > maxWaitNanos) {
+                rejected++;
+                throw new RateLimitedException(host, "超出限速 " + config.getPermitsPerSecond() + "/s");
+            }
+            tokens = remaining;
+            return wait;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * 不等待取得一个令牌，用于可有可无的请求（如对冲请求）
+     *
+     * @return 是否取得
+     */
+    public boolean tryReserve() {
+        if (permitsPerNano <= 0D) {
+            return true;
+        }
+
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+            if (tokens < 1D) {
+                return false;
+            }
+            tokens -= 1D;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * 归还 reserve / tryReserve 取得的令牌，用于取得令牌后请求未发送（并发数已达上限、熔断等）。
+     * 令牌桶不超过 burst
+     */
+    public void unreserve() {
+        if (permitsPerNano <= 0D) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            tokens = Math.min(burst, tokens + 1D);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * 不等待获取并发名额
+     *
+     * @return 请求开始时间
+     * @throws RateLimitedException 并发数已达上限
+     */
+    public long tryAcquire() {
+        try {
+            if (!acquire(0L)) {
+                throw new RateLimitedException(host, "并发数已达上限 " + (int) limit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitedException(host, "等待时被中断");
+        }
+        return System.nanoTime();
+    }
+
+
+    /**
+     * 请求结束，耗时计入自适应并发
+     *
+     * @param start acquire 返回的开始时间
+     */
+    public void onSuccess(long start) {
+        complete(start, false);
+    }
+
+
+    /**
+     * 请求失败（连接失败、超时、5xx），降低并发上限
+     *
+     * @param start acquire 返回的开始时间
+     */
+    public void onDropped(long start) {
+        complete(start, true);
+    }
+
+
+    /**
+     * 获取后请求未发送或被取消，不计结果
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - 1);
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    public LimiterStats stats() {
+        lock.lock();
+        try {
+            LimiterStats stats = new LimiterStats();
+            stats.setLimit(config.isAdaptive() ? (int) limit : 0);
+            stats.setInFlight(inFlight);
+            stats.setPermitsPerSecond(Math.max(0D, config.getPermitsPerSecond()));
+            if (permitsPerNano > 0D) {
+                stats.setAvailablePermits(Math.min(burst, tokens + (System.nanoTime() - refilledAt) * permitsPerNano));
+            }
+            stats.setNoLoadLatencyMillis(noLoadLatency / 1_000_000D);
+            stats.setRejected(rejected);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * @param timeoutNanos 最长等待时间。小于等于0 不等待
+     * @return 是否取得并发名额
+     */
+    private boolean acquire(long timeoutNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long nanos = timeoutNanos;
+            while (config.isAdaptive() && inFlight >= (int) limit) {
+                if (nanos <= 0L) {
+                    rejected++;
+                    return false;
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private void complete(long start, boolean dropped) {
+        long now = System.nanoTime();
+        long latency = now - start;
+
+        lock.lock();
+        try {
+            int used = inFlight;
+            inFlight = Math.max(0, inFlight - 1);
+            if (!config.isAdaptive()) {
+                released.signal();
+                return;
+            }
+
+            sample(latency);
+            int before = (int) limit;
+            boolean overloaded = dropped || latency > noLoadLatency * config.getLatencyTolerance();
+            if (overloaded) {
+                if (start - decreasedAt >= 0L) {
+                    limit = Math.max(minLimit(), limit * config.getBackoffRatio());
+                    decreasedAt = now;
+                }
+            } else if (used * 2 >= (int) limit) {
+                limit = Math.min(config.getMaxLimit(), limit + 1D / limit);
+            }
+
+            if ((int) limit > before) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private void sample(long latency) {
+        windowMinLatency = Math.min(windowMinLatency, latency);
+        noLoadLatency = noLoadLatency == 0L ? latency : Math.min(noLoadLatency, latency);
+        if (++windowCount >= LATENCY_WINDOW) {
+            noLoadLatency = windowMinLatency;
+            windowMinLatency = Long.MAX_VALUE;
+            windowCount = 0;
+        }
+    }
+
+
+    private int minLimit() {
+        return Math.max(1, config.getMinLimit());
+    }
+}
@@ -0,0 +1,47 @@
+package com.zcgk.httpplus.core.resilience;
+
+import lombok.Data;
+
+/****************************************************
+ *
+ * 单个 host 的限流状态（快照），见 {@link HostLimiter}
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 23:40
+ * @version 1.0
+ **************************************************/
+@Data
+public class LimiterStats {
+
+    /**
+     * 当前并发上限。未开启自适应并发时为 0
+     */
+    private int limit;
+
+    /**
+     * 正在进行的请求数
+     */
+    private int inFlight;
+
+    /**
+     * 每秒请求数。不限速时为 0
+     */
+    private double permitsPerSecond;
+
+    /**
+     * 令牌桶中可用的令牌数，为负时表示已预约的请求在等待
+     */
+    private double availablePermits;
+
+    /**
+     * 无负载耗时（毫秒），即最近一段时间内的最小耗时。尚无样本时为 0
+     */
+    private double noLoadLatencyMillis;
+
+    /**
+     * 累计拒绝的请求数
+     */
+    private long rejected;
+
+}
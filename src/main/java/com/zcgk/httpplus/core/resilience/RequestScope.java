@@ -0,0 +1,180 @@
+package com.zcgk.httpplus.core.resilience;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************
+ *
+ * 阻塞请求单次尝试的超时设置，执行期间绑定到当前线程
+ *      由请求工厂读取：按接口策略及剩余时限设置连接、读取超时，并在总时限到期或对冲请求先完成时中止请求
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+public class RequestScope {
+
+    private final EndpointPolicy policy;
+
+    /**
+     * 总时限到期时刻（System.nanoTime），不限制时为 Long.MAX_VALUE
+     */
+    private final long deadlineNanos;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean expired;
+    private ScheduledFuture<?> abortTask;
+
+    private volatile Runnable abort;
+    private volatile boolean cancelled;
+
+    /**
+     * 本次尝试结束时执行，在执行请求的线程上注册及执行
+     */
+    private List<Runnable> closeActions;
+
+
+    RequestScope(EndpointPolicy policy, long deadlineNanos, ScheduledExecutorService scheduler) {
+        this.policy = policy;
+        this.deadlineNanos = deadlineNanos;
+        this.scheduler = scheduler;
+    }
+
+
+    /**
+     * @param base 引擎默认的请求配置
+     * @return 请求配置。无需调整时为 null
+     */
+    public RequestConfig requestConfig(RequestConfig base) {
+        int connectTimeout = policy.getConnectTimeout() > 0 ? policy.getConnectTimeout() : base.getConnectTimeout();
+        int readTimeout = policy.getReadTimeout() > 0 ? policy.getReadTimeout() : base.getSocketTimeout();
+        int connectionRequestTimeout = base.getConnectionRequestTimeout();
+
+        if (deadlineNanos != Long.MAX_VALUE) {
+            int remaining = (int) Math.max(1L, Math.min(Integer.MAX_VALUE,
+                    TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+            connectTimeout = cap(connectTimeout, remaining);
+            readTimeout = cap(readTimeout, remaining);
+            connectionRequestTimeout = cap(connectionRequestTimeout, remaining);
+        }
+
+        if (connectTimeout == base.getConnectTimeout() && readTimeout == base.getSocketTimeout()
+                && connectionRequestTimeout == base.getConnectionRequestTimeout()) {
+            return null;
+        }
+        return RequestConfig.copy(base)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+    }
+
+
+    /**
+     * 总时限到期或被取消时中止请求，正在进行的读写以 IOException 结束
+     *
+     * @param request 请求
+     */
+    public void abortOnDeadline(HttpUriRequest request) {
+        abortOnDeadline(request::abort);
+    }
+
+
+    /**
+     * 总时限到期或被取消时执行 abort，用于非 httpclient 的请求
+     *
+     * @param abort 中止请求，正在进行的读写应以 IOException 结束
+     */
+    public void abortOnDeadline(Runnable abort) {
+        this.abort = abort;
+        if (cancelled) {
+            abort.run();
+            return;
+        }
+        if (deadlineNanos == Long.MAX_VALUE) {
+            return;
+        }
+
+        abortTask = scheduler.schedule(() -> {
+            expired = true;
+            abort.run();
+        }, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * @return 是否因总时限到期而中止
+     */
+    public boolean isExpired() {
+        return expired;
+    }
+
+
+    /**
+     * @return 是否因对冲请求先完成而被取消
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+
+    /**
+     * 本次尝试结束（无论成功、失败）时执行 action，用于释放请求创建后可能未执行时占用的资源
+     *
+     * @param action 须可重复执行
+     */
+    public void onClose(Runnable action) {
+        if (closeActions == null) {
+            closeActions = new ArrayList<>(1);
+        }
+        closeActions.add(action);
+    }
+
+
+    /**
+     * 中止请求。请求尚未发出时，发出后立即中止
+     */
+    void cancel() {
+        cancelled = true;
+        abort();
+    }
+
+
+    /**
+     * 中止已发出的请求，连接随之关闭。用于提前结束读取响应体：直接关闭响应会读完剩余的响应体以复用连接
+     */
+    public void abort() {
+        Runnable current = abort;
+        if (current != null) {
+            current.run();
+        }
+    }
+
+
+    void close() {
+        if (abortTask != null) {
+            abortTask.cancel(false);
+        }
+        if (closeActions != null) {
+            for (Runnable action : closeActions) {
+                action.run();
+            }
+        }
+    }
+
+
+    /**
+     * 超时值小于等于0 表示不超时，与剩余时间取较小值
+     */
+    private static int cap(int timeout, int remaining) {
+        return timeout > 0 ? Math.min(timeout, remaining) : remaining;
+    }
+}
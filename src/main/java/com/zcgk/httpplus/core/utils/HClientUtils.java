@@ -1,24 +1,73 @@
 package com.zcgk.httpplus.core.utils;
 
-import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONArray;
-import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.TypeReference;
 import com.zcgk.httpplus.config.Constants4Http;
-import com.zcgk.httpplus.core.domain.vo.resp.JavaBean4Integer;
-import com.zcgk.httpplus.core.domain.vo.resp.JavaBean4String;
+import com.zcgk.httpplus.core.batch.BatchScheduler;
+import com.zcgk.httpplus.core.batch.CollapserBuilder;
+import com.zcgk.httpplus.core.cache.CacheKey;
+import com.zcgk.httpplus.core.cache.HClientCache;
+import com.zcgk.httpplus.core.cache.Validated;
+import com.zcgk.httpplus.core.decode.BindingTypes;
+import com.zcgk.httpplus.core.decode.EnvelopeCodec;
+import com.zcgk.httpplus.core.decode.EnvelopeCodecs;
+import com.zcgk.httpplus.core.decode.EnvelopeResponseExtractor;
+import com.zcgk.httpplus.core.decode.EnvelopeStream;
+import com.zcgk.httpplus.core.decode.ResponseEnvelope;
+import com.zcgk.httpplus.core.decode.SuccessPredicate;
+import com.zcgk.httpplus.core.domain.vo.req.BatchRequest;
+import com.zcgk.httpplus.core.domain.vo.resp.BatchResult;
+import com.zcgk.httpplus.core.download.FileDownloader;
+import com.zcgk.httpplus.core.encode.MultipartBody;
+import com.zcgk.httpplus.core.encode.RequestBodyEncoder;
+import com.zcgk.httpplus.core.encode.UploadFile;
+import com.zcgk.httpplus.core.encode.UploadProgressListener;
+import com.zcgk.httpplus.core.endpoint.Endpoint;
+import com.zcgk.httpplus.core.endpoint.EndpointBuilder;
+import com.zcgk.httpplus.core.engine.HClientAsyncEngine;
+import com.zcgk.httpplus.core.engine.HClientEngine;
+import com.zcgk.httpplus.core.engine.VirtualThreadExecutor;
+import com.zcgk.httpplus.core.exception.EnvelopeMismatchException;
+import com.zcgk.httpplus.core.metrics.HClientMetrics;
+import com.zcgk.httpplus.core.metrics.RequestSample;
+import com.zcgk.httpplus.core.page.PaginatorBuilder;
+import com.zcgk.httpplus.core.resilience.HClientResilience;
+import com.zcgk.httpplus.core.resilience.RequestScope;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
-
-import java.nio.charset.StandardCharsets;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /****************************************************
  *
@@ -32,6 +81,11 @@ import java.util.*;
 @Slf4j
 public class HClientUtils {
 
+    /**
+     * 请求头 Accept：json 返回值
+     */
+    private static final List<MediaType> ACCEPT_TYPES = EnvelopeCodecs.acceptTypes(EnvelopeCodecs.JSON);
+
     /**
      * http-get 请求 api 封装
      *
@@ -41,55 +95,157 @@ public class HClientUtils {
      * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
      * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
      * @param dataFieldName 返回值的字段名。如：data
-     * @param responseType 返回类型。json or string。此处固定。不可自定义
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
      * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
      * @param <T> 泛型
      * @return tList 若返回值仅一个，调用方 tList.get(0) 取值即可。
+     *              url 已通过 HClientCache.register 注册时，优先返回缓存值；
+     *              通过 HClientCache.registerConditional 注册时，以 ETag / Last-Modified 条件请求，未修改则复用上次结果
      */
     public static <T> List<T> getApi (String url, Class<T> clazz, Map<String, Object> paramMap,
                                       Map<String, String> resultMap, String dataFieldName,
                                       String responseType, String responseDataType) {
+        return getApi(url, (Type) clazz, paramMap, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-get 请求 api 封装，返回值类型可带泛型
+     *      如：getApi(url, new TypeReference<Map<String, User>>() {}, paramMap, resultMap, "data", "json", "obj")
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user?args={args} 此处的{args}与paramMap中的key对应
+     * @param typeReference 返回值类型。如：new TypeReference<List<User>>() {}
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return tList 同 {@link #getApi(String, Class, Map, Map, String, String, String)}
+     */
+    public static <T> List<T> getApi (String url, TypeReference<T> typeReference, Map<String, Object> paramMap,
+                                      Map<String, String> resultMap, String dataFieldName,
+                                      String responseType, String responseDataType) {
+        return getApi(url, typeReference.getType(), paramMap, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-get 请求：已注册缓存的接口经过缓存。参数同 {@link #getApi}
+     *
+     * @param type 返回值类型
+     */
+    private static <T> List<T> getApi (String url, Type type, Map<String, Object> paramMap,
+                                       Map<String, String> resultMap, String dataFieldName,
+                                       String responseType, String responseDataType) {
+        // 已注册缓存 或 条件请求的接口
+        Duration ttl = HClientCache.ttl(url);
+        boolean conditional = HClientCache.isConditional(url);
+        if (Objects.nonNull(ttl) || conditional) {
+            // key 持有副本，调用方之后修改参数不影响已缓存的条目
+            Map<String, Object> params = CollectionUtils.isEmpty(paramMap) ? new HashMap<>() : new HashMap<>(paramMap);
+            Map<String, String> result = CollectionUtils.isEmpty(resultMap) ? new HashMap<>() : new HashMap<>(resultMap);
+            String expandedUrl = HClientEngine.get().getRestTemplate().getUriTemplateHandler().expand(url, params).toString();
+
+            CacheKey key = new CacheKey(expandedUrl, params, BindingTypes.canonical(type), result, dataFieldName, responseDataType);
+            Supplier<List<T>> loader = conditional
+                    ? () -> conditionalGetApi(key, url, type, params, result, dataFieldName, responseType, responseDataType)
+                    : () -> doGetApi(url, type, params, result, dataFieldName, responseType, responseDataType);
+            return Objects.isNull(ttl) ? loader.get() : HClientCache.get(key, ttl, loader);
+        }
+
+        return doGetApi(url, type, paramMap, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-get 请求，不经过缓存。参数同 {@link #getApi}
+     */
+    private static <T> List<T> doGetApi (String url, Type type, Map<String, Object> paramMap,
+                                         Map<String, String> resultMap, String dataFieldName,
+                                         String responseType, String responseDataType) {
         List<T> tList = null;
 
         // 处理请求参数
         paramMap = CollectionUtils.isEmpty(paramMap) ? new HashMap<>() : paramMap;
 
-        switch (responseType) {
-            case Constants4Http.RESPONSE_TYPE_4_JSON:
-                if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
-                    // 返回单个
-                    T t = get4Json2Obj(url, clazz, paramMap, resultMap, dataFieldName);
-
-                    List<T> tempList = new ArrayList<>();
-                    tempList.add(t);
-                    tList = tempList;
-                } else if (Constants4Http.RESPONSE_DATA_TYPE_4_LIST.equals(responseDataType)){
-                    // 返回多个
-                    tList = get4Json2List(url, clazz, paramMap, resultMap, dataFieldName);
-                }
+        // json、string、smile 等均直接从响应流解码
+        EnvelopeCodec codec = EnvelopeCodecs.of(responseType);
+        if (Objects.isNull(codec)) {
+            return null;
+        }
 
-                break;
-            case Constants4Http.RESPONSE_TYPE_4_STRING:
-                if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
-                    // 返回单个
-                    T t = get4String2Obj(url, clazz, paramMap, resultMap, dataFieldName);
-
-                    List<T> tempList = new ArrayList<>();
-                    tempList.add(t);
-                    tList = tempList;
-                } else if (Constants4Http.RESPONSE_DATA_TYPE_4_LIST.equals(responseDataType)) {
-                    // 返回多个
-                    tList = get4String2List(url, clazz, paramMap, resultMap, dataFieldName);
-                }
-                break;
-            default:
-                break;
+        if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
+            // 返回单个
+            T t = get2Obj(url, type, paramMap, resultMap, dataFieldName, codec);
+
+            List<T> tempList = new ArrayList<>();
+            tempList.add(t);
+            tList = tempList;
+        } else if (Constants4Http.RESPONSE_DATA_TYPE_4_LIST.equals(responseDataType)) {
+            // 返回多个
+            tList = get2List(url, type, paramMap, resultMap, dataFieldName, codec);
         }
 
         return tList;
     }
 
 
+    /**
+     * http-get 条件请求。参数同 {@link #getApi}
+     *      带上次响应的 ETag / Last-Modified 请求，服务端返回 304 时复用上次的解码结果
+     *
+     * @param key 缓存key
+     * @param <T> 泛型
+     * @return tList
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> conditionalGetApi (CacheKey key, String url, Type type, Map<String, Object> paramMap,
+                                                  Map<String, String> resultMap, String dataFieldName,
+                                                  String responseType, String responseDataType) {
+        EnvelopeResponseExtractor<List<T>> extractor = listExtractor(type, resultMap, dataFieldName, responseType, responseDataType);
+        if (Objects.isNull(extractor)) {
+            return null;
+        }
+
+        Validated validated = HClientCache.validated(key);
+        RestTemplate client = HClientEngine.get().getRestTemplate();
+        RequestCallback delegate = requestCallback(client, null, extractor.getAcceptTypes());
+        RequestCallback callback = clientRequest -> {
+            delegate.doWithRequest(clientRequest);
+            if (Objects.nonNull(validated)) {
+                if (Objects.nonNull(validated.getEtag())) {
+                    clientRequest.getHeaders().setIfNoneMatch(validated.getEtag());
+                }
+                if (Objects.nonNull(validated.getLastModified())) {
+                    clientRequest.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, validated.getLastModified());
+                }
+            }
+        };
+
+        try (RequestSample sample = HClientMetrics.start(url, HttpMethod.GET)) {
+            ResponseEnvelope<List<T>> envelope = execute(sample, client, HttpMethod.GET, url,
+                    client.getUriTemplateHandler().expand(url, paramMap), callback, extractor);
+            if (Objects.nonNull(envelope) && envelope.isNotModified() && Objects.nonNull(validated)) {
+                // 未修改，复用上次结果
+                return new ArrayList<>((List<T>) validated.getData());
+            }
+
+            boolean single = Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType);
+            List<T> tList = handleEnvelope(envelope, extractor.getPredicate(), dataFieldName, sample);
+            if (Objects.isNull(tList) && single) {
+                // 返回单个时，与 getApi 一致返回 [null]
+                tList = new ArrayList<>();
+                tList.add(null);
+            } else if (Objects.nonNull(tList)) {
+                HClientCache.putValidated(key, envelope.getEtag(), envelope.getLastModified(), new ArrayList<>(tList));
+            }
+
+            return tList;
+        }
+    }
+
+
     /**
      * http-post 请求 api 封装
      *      传参方式： form表单 或 url参数
@@ -100,7 +256,7 @@ public class HClientUtils {
      * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
      * @param dataFieldName 返回值的字段名。如：data
      * @param requestParamType 传参方式。form表单/url参数 or json。此处固定。不可自定义
-     * @param responseType 返回类型。json or string。此处固定。不可自定义
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
      * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
      * @param <T> 泛型
      * @return tList 若返回值仅一个，调用方 tList.get(0) 取值即可。
@@ -125,7 +281,7 @@ public class HClientUtils {
      * @param dataFieldName 返回值的字段名。如：data
      * @param header 请求头
      * @param requestParamType 传参方式。form表单/url参数 or json。此处固定。不可自定义
-     * @param responseType 返回类型。json or string。此处固定。不可自定义
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
      * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
      * @param <T> 泛型
      * @return tList 若返回值仅一个，调用方 tList.get(0) 取值即可。
@@ -133,87 +289,712 @@ public class HClientUtils {
     public static <T> List<T> postApi (String url, Class<T> clazz, Map<String, Object> paramMap,
                                        Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
                                        String requestParamType, String responseType, String responseDataType) {
+        return postApi(url, (Type) clazz, paramMap, resultMap, dataFieldName, header, requestParamType, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装，返回值类型可带泛型
+     *      传参方式： form表单 或 url参数
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param typeReference 返回值类型。如：new TypeReference<Map<String, User>>() {}
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头
+     * @param requestParamType 传参方式。form表单/url参数 or json。此处固定。不可自定义
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return tList 同 {@link #postApi}
+     */
+    public static <T> List<T> postApi (String url, TypeReference<T> typeReference, Map<String, Object> paramMap,
+                                       Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                       String requestParamType, String responseType, String responseDataType) {
+        return postApi(url, typeReference.getType(), paramMap, resultMap, dataFieldName, header, requestParamType, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求：封装请求体后按返回类型解码。参数同 {@link #postApi}
+     *
+     * @param type 返回值类型
+     */
+    private static <T> List<T> postApi (String url, Type type, Map<String, Object> paramMap,
+                                        Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                        String requestParamType, String responseType, String responseDataType) {
+        // 封装请求体
+        HttpEntity<?> request = buildRequest(paramMap, header, requestParamType);
+        if (Objects.isNull(request)) {
+            log.error("post请求，传参方式 值不符合规范");
+            return null;
+        }
+
+        return doPostApi(url, type, request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装
+     *      传参方式固定为 json。请求对象直接序列化为请求体，不复制为参数键值对
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param body 请求对象。任意 JavaBean、Map、List
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return tList 同 {@link #postApi}
+     */
+    public static <T> List<T> postApi (String url, Class<T> clazz, Object body,
+                                       Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                       String responseType, String responseDataType) {
+        HttpEntity<byte[]> request = RequestBodyEncoder.json(body, Objects.isNull(header) ? new HttpHeaders() : header);
+        return doPostApi(url, clazz, request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装，返回值类型可带泛型
+     *      传参方式固定为 json，见 {@link #postApi(String, Class, Object, Map, String, HttpHeaders, String, String)}
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param typeReference 返回值类型。如：new TypeReference<Map<String, User>>() {}
+     * @param body 请求对象。任意 JavaBean、Map、List
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return tList 同 {@link #postApi}
+     */
+    public static <T> List<T> postApi (String url, TypeReference<T> typeReference, Object body,
+                                       Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                       String responseType, String responseDataType) {
+        HttpEntity<byte[]> request = RequestBodyEncoder.json(body, Objects.isNull(header) ? new HttpHeaders() : header);
+        return doPostApi(url, typeReference.getType(), request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装
+     *      请求体为已序列化的 json，原样发送。header 未设置 Content-Type 时为 application/json
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param body 请求体
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return tList 同 {@link #postApi}
+     */
+    public static <T> List<T> postApi (String url, Class<T> clazz, byte[] body,
+                                       Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                       String responseType, String responseDataType) {
+        return postApi(url, clazz, (Object) body, resultMap, dataFieldName, header, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 上传文件 api 封装
+     *      传参方式固定为 file。paramMap 中的文件（见 {@link UploadFile}）在发送时边读边写，不在内存中缓存；
+     *      各部分长度均已知时以 Content-Length 发送，否则以 chunked 方式发送
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/upload
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。值可为 UploadFile、Path、File、FileChannel、InputStream、Resource 或普通值
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头
+     * @param listener 上传进度回调。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return tList 同 {@link #postApi}
+     */
+    public static <T> List<T> uploadApi (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                         Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                         UploadProgressListener listener, String responseType, String responseDataType) {
+        HttpEntity<?> request = buildUpload(paramMap, header, listener);
+        return doPostApi(url, clazz, request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 上传文件 api 封装（非阻塞）
+     *      参数同 {@link #uploadApi}。明文 http 时文件由内核直接发送到 socket
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/upload
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。值可为 UploadFile、Path、File、FileChannel、InputStream、Resource 或普通值
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头
+     * @param listener 上传进度回调。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #uploadApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> uploadApiAsync (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                                                 Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                                                 UploadProgressListener listener, String responseType, String responseDataType) {
+        HttpEntity<?> request = buildUpload(paramMap, header, listener);
+        return doPostApiAsync(url, clazz, request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * post 请求：按返回类型解码
+     *
+     * @param url url
+     * @param type 返回值类型
+     * @param request 请求体
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param responseType 返回类型
+     * @param responseDataType 返回值有一个还是多个
+     * @param <T> 泛型
+     * @return tList
+     */
+    private static <T> List<T> doPostApi (String url, Type type, HttpEntity<?> request,
+                                          Map<String, String> resultMap, String dataFieldName,
+                                          String responseType, String responseDataType) {
         List<T> tList = null;
-        HttpEntity request = null;
 
+        // 接口返回类型为json、string、smile 等，均直接从响应流解码
+        EnvelopeCodec codec = EnvelopeCodecs.of(responseType);
+        if (Objects.isNull(codec)) {
+            return null;
+        }
+
+        if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
+            // 返回单个
+            T t = post2Obj(url, type, request, resultMap, dataFieldName, codec);
+
+            List<T> tempList = new ArrayList<>();
+            tempList.add(t);
+            tList = tempList;
+        } else if (Constants4Http.RESPONSE_DATA_TYPE_4_LIST.equals(responseDataType)) {
+            // 返回多个
+            tList = post2List(url, type, request, resultMap, dataFieldName, codec);
+        }
+
+        return tList;
+    }
+
+
+
+
+
+    /**
+     * http-get 请求 api 封装（非阻塞）
+     *      参数及返回值判断方式与 {@link #getApi} 一致。请求在事件循环线程上执行，不占用调用方线程
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user?args={args} 此处的{args}与paramMap中的key对应
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #getApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> getApiAsync (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                                              Map<String, String> resultMap, String dataFieldName,
+                                                              String responseType, String responseDataType) {
+        return getApiAsync(url, (Type) clazz, paramMap, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-get 请求 api 封装（非阻塞），返回值类型可带泛型
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user?args={args} 此处的{args}与paramMap中的key对应
+     * @param typeReference 返回值类型。如：new TypeReference<Map<String, User>>() {}
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #getApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> getApiAsync (String url, TypeReference<T> typeReference, Map<String, Object> paramMap,
+                                                              Map<String, String> resultMap, String dataFieldName,
+                                                              String responseType, String responseDataType) {
+        return getApiAsync(url, typeReference.getType(), paramMap, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    private static <T> CompletableFuture<List<T>> getApiAsync (String url, Type type, Map<String, Object> paramMap,
+                                                               Map<String, String> resultMap, String dataFieldName,
+                                                               String responseType, String responseDataType) {
+        EnvelopeResponseExtractor<List<T>> extractor = listExtractor(type, resultMap, dataFieldName, responseType, responseDataType);
+        if (Objects.isNull(extractor)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // 处理请求参数
+        paramMap = CollectionUtils.isEmpty(paramMap) ? new HashMap<>() : paramMap;
+
+        RequestSample sample = HClientMetrics.start(url, HttpMethod.GET);
+        Mono<ClientResponse> response = getAsync(url, paramMap, extractor.getAcceptTypes());
+        return exchangeAsync(url, HttpMethod.GET, sample, response, extractor, dataFieldName,
+                Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType));
+    }
+
+
+    /**
+     * http-post 请求 api 封装（非阻塞）
+     *      参数及返回值判断方式与 {@link #postApi} 一致
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param requestParamType 传参方式。form表单/url参数 or json。此处固定。不可自定义
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #postApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> postApiAsync (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                                               Map<String, String> resultMap, String dataFieldName,
+                                                               String requestParamType, String responseType, String responseDataType) {
+        HttpHeaders header = new HttpHeaders();
+        return postApiAsync(url, clazz, paramMap, resultMap, dataFieldName, header, requestParamType, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装（非阻塞）
+     *      参数及返回值判断方式与 {@link #postApi} 一致
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头
+     * @param requestParamType 传参方式。form表单/url参数 or json。此处固定。不可自定义
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #postApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> postApiAsync (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                                               Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                                               String requestParamType, String responseType, String responseDataType) {
         // 封装请求体
+        HttpEntity<?> request = buildRequest(paramMap, header, requestParamType);
+        if (Objects.isNull(request)) {
+            log.error("post请求，传参方式 值不符合规范");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return doPostApiAsync(url, clazz, request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装（非阻塞）
+     *      参数同 {@link #postApi(String, Class, Object, Map, String, HttpHeaders, String, String)}
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param body 请求对象。任意 JavaBean、Map、List
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #postApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> postApiAsync (String url, Class<T> clazz, Object body,
+                                                               Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                                               String responseType, String responseDataType) {
+        HttpEntity<byte[]> request = RequestBodyEncoder.json(body, Objects.isNull(header) ? new HttpHeaders() : header);
+        return doPostApiAsync(url, clazz, request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装（非阻塞），返回值类型可带泛型。传参方式固定为 json
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param typeReference 返回值类型。如：new TypeReference<Map<String, User>>() {}
+     * @param body 请求对象。任意 JavaBean、Map、List
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #postApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> postApiAsync (String url, TypeReference<T> typeReference, Object body,
+                                                               Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                                               String responseType, String responseDataType) {
+        HttpEntity<byte[]> request = RequestBodyEncoder.json(body, Objects.isNull(header) ? new HttpHeaders() : header);
+        return doPostApiAsync(url, typeReference.getType(), request, resultMap, dataFieldName, responseType, responseDataType);
+    }
+
+
+    /**
+     * http-post 请求 api 封装（非阻塞）
+     *      请求体为已序列化的 json，原样发送
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param body 请求体
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头。可为 null
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #postApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> postApiAsync (String url, Class<T> clazz, byte[] body,
+                                                               Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                                               String responseType, String responseDataType) {
+        return postApiAsync(url, clazz, (Object) body, resultMap, dataFieldName, header, responseType, responseDataType);
+    }
+
+
+    /**
+     * 非阻塞 post 请求：按返回类型解码
+     *
+     * @param url url
+     * @param type 返回值类型
+     * @param request 请求体
+     * @param resultMap 返回是否成功的标志
+     * @param dataFieldName 返回的 值字段名
+     * @param responseType 返回类型
+     * @param responseDataType 返回值有一个还是多个
+     * @param <T> 泛型
+     * @return future
+     */
+    private static <T> CompletableFuture<List<T>> doPostApiAsync (String url, Type type, HttpEntity<?> request,
+                                                                  Map<String, String> resultMap, String dataFieldName,
+                                                                  String responseType, String responseDataType) {
+        EnvelopeResponseExtractor<List<T>> extractor = listExtractor(type, resultMap, dataFieldName, responseType, responseDataType);
+        if (Objects.isNull(extractor)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        RequestSample sample = HClientMetrics.start(url, HttpMethod.POST);
+        Mono<ClientResponse> response = postAsync(url, request, extractor.getAcceptTypes());
+        return exchangeAsync(url, HttpMethod.POST, sample, response, extractor, dataFieldName,
+                Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType));
+    }
+
+
+    /**
+     * http-get 请求 api 封装（虚拟线程）
+     *      在虚拟线程上执行 {@link #getApi}，调用方线程不阻塞，可同时发起数万个请求而无需改写为响应式；
+     *      JDK 21 以下退化为与连接池等大的平台线程池，见 {@link VirtualThreadExecutor}。
+     *      与 {@link #getApiAsync} 不同：经过 HClientCache，http 错误以 RestTemplate 的异常结束
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user?args={args} 此处的{args}与paramMap中的key对应
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #getApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> getApiVirtual (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                                                Map<String, String> resultMap, String dataFieldName,
+                                                                String responseType, String responseDataType) {
+        return VirtualThreadExecutor.supply(
+                () -> getApi(url, clazz, paramMap, resultMap, dataFieldName, responseType, responseDataType));
+    }
+
+
+    /**
+     * http-post 请求 api 封装（虚拟线程）
+     *      在虚拟线程上执行 {@link #postApi}，见 {@link #getApiVirtual}
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头
+     * @param requestParamType 传参方式。form表单/url参数 or json。此处固定。不可自定义
+     * @param responseType 返回类型。json or string or smile。此处固定。不可自定义
+     * @param responseDataType 返回值有一个还是多个。obj or list。此处固定，不可自定义
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #postApi} 的返回值
+     */
+    public static <T> CompletableFuture<List<T>> postApiVirtual (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                                                 Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                                                 String requestParamType, String responseType, String responseDataType) {
+        return VirtualThreadExecutor.supply(() -> postApi(url, clazz, paramMap, resultMap, dataFieldName,
+                Objects.isNull(header) ? new HttpHeaders() : header, requestParamType, responseType, responseDataType));
+    }
+
+
+    /**
+     * 批量请求 api 封装（并发执行）
+     *      按 总并发数、单 host 并发数 限制并发执行，全部完成后按请求顺序返回每个请求的结果
+     *
+     * @param requests 请求列表。见 {@link BatchRequest#get}、{@link BatchRequest#post}
+     * @param maxInFlight 总并发数。小于等于0 不限制
+     * @param maxPerHost 单 host 并发数。小于等于0 不限制
+     * @param <T> 泛型
+     * @return results 与 requests 一一对应。返回值判断不成功时 msgMap 同 getApi 日志中的错误详情
+     */
+    public static <T> List<BatchResult<T>> batchApi (List<BatchRequest<T>> requests, int maxInFlight, int maxPerHost) {
+        return batchApiAsync(requests, maxInFlight, maxPerHost).join();
+    }
+
+
+    /**
+     * 批量请求 api 封装（并发执行，非阻塞）
+     *
+     * @param requests 请求列表。见 {@link BatchRequest#get}、{@link BatchRequest#post}
+     * @param maxInFlight 总并发数。小于等于0 不限制
+     * @param maxPerHost 单 host 并发数。小于等于0 不限制
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #batchApi}
+     */
+    public static <T> CompletableFuture<List<BatchResult<T>>> batchApiAsync (List<BatchRequest<T>> requests, int maxInFlight, int maxPerHost) {
+        List<String> hosts = new ArrayList<>(requests.size());
+        for (BatchRequest<T> request : requests) {
+            hosts.add(hostOf(request.getUrl()));
+        }
+
+        return BatchScheduler.run(hosts,
+                index -> batchAsync(requests.get(index)).thenApply(result -> {
+                    result.setIndex(index);
+                    return result;
+                }),
+                (index, e) -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    BatchResult<T> result = BatchResult.error(String.valueOf(cause.getMessage()));
+                    result.setIndex(index);
+                    return result;
+                },
+                maxInFlight, maxPerHost);
+    }
+
+
+    /**
+     * http-get 请求 api 封装（流式读取）
+     *      返回值为大数组时使用：边读取响应边逐个绑定元素，不在内存中生成完整的 List。
+     *      resultMap 中的状态字段需位于 dataFieldName 之前，否则视为判断不成功
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user?args={args} 此处的{args}与paramMap中的key对应
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对。如：[{"args": "自定义值"}] 此处的key与paramMap中的key对应
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]  or [{"state": "true"}] 等。根据实际情况填写
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param <T> 泛型
+     * @return stream 持有连接，调用方须关闭（try-with-resources）。返回值判断不成功时为 null
+     */
+    public static <T> Stream<T> getApiStream (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                              Map<String, String> resultMap, String dataFieldName) {
         paramMap = CollectionUtils.isEmpty(paramMap) ? new HashMap<>() : paramMap;
+        return openStream(HttpMethod.GET, url, null, paramMap, clazz, resultMap, dataFieldName);
+    }
 
-        if (Constants4Http.REQUEST_PARAM_TYPE_4_FORM_OR_URL.equals(requestParamType)
-                || Constants4Http.REQUEST_PARAM_TYPE_4_FILE.equals(requestParamType)
-                || Constants4Http.REQUEST_PARAM_TYPE_4_APPLICATION_FORM_URLENCODED.equals(requestParamType)) {
-            if (Constants4Http.REQUEST_PARAM_TYPE_4_FILE.equals(requestParamType)) {
-                // 上传文件 处理请求头
-                header.setContentType(MediaType.MULTIPART_FORM_DATA);
-            }
-            if (Constants4Http.REQUEST_PARAM_TYPE_4_APPLICATION_FORM_URLENCODED.equals(requestParamType)) {
-                // x-www-form-urlencoded
-                header.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-            }
 
-            // 处理请求参数
-            MultiValueMap<String, Object> requestParamMap = new LinkedMultiValueMap<>();
-            // 此处避免用foreach 安卓调用会出问题
-            for (Map.Entry<String, Object> entry : paramMap.entrySet()) {
-                requestParamMap.add(entry.getKey(), entry.getValue());
-            }
+    /**
+     * http-post 请求 api 封装（流式读取）
+     *      见 {@link #getApiStream}
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user
+     * @param clazz 返回值的泛型。 t.class
+     * @param paramMap 参数键值对
+     * @param resultMap 返回成功的判断标识。如：[{"code": "200"}]
+     * @param dataFieldName 返回值的字段名。如：data
+     * @param header 请求头
+     * @param requestParamType 传参方式。form表单/url参数 or json。此处固定。不可自定义
+     * @param <T> 泛型
+     * @return stream 持有连接，调用方须关闭（try-with-resources）。返回值判断不成功时为 null
+     */
+    public static <T> Stream<T> postApiStream (String url, Class<T> clazz, Map<String, Object> paramMap,
+                                               Map<String, String> resultMap, String dataFieldName, HttpHeaders header,
+                                               String requestParamType) {
+        HttpEntity<?> request = buildRequest(paramMap, header, requestParamType);
+        if (Objects.isNull(request)) {
+            log.error("post请求，传参方式 值不符合规范");
+            return null;
+        }
+
+        return openStream(HttpMethod.POST, url, request, Collections.emptyMap(), clazz, resultMap, dataFieldName);
+    }
+
+
+
+
+    /**
+     * http-get 下载文件
+     *      响应体直接写入文件，不在内存中缓存；中断后再次调用时从已下载处续传
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/file?id={id} 此处的{id}与paramMap中的key对应
+     * @param paramMap 参数键值对
+     * @param target 目标文件，已存在时覆盖
+     * @return target 见 {@link FileDownloader#download}
+     */
+    public static Path download (String url, Map<String, Object> paramMap, Path target) {
+        return FileDownloader.download(url, paramMap, null, target, 1);
+    }
+
+
+    /**
+     * http-get 下载文件
+     *      服务端支持 Range 且文件足够大时，按 segments 分段并发下载
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/file?id={id} 此处的{id}与paramMap中的key对应
+     * @param paramMap 参数键值对
+     * @param header 请求头。可为 null
+     * @param target 目标文件，已存在时覆盖
+     * @param segments 并发分段数。小于等于1 不分段
+     * @return target 见 {@link FileDownloader#download}
+     */
+    public static Path download (String url, Map<String, Object> paramMap, HttpHeaders header, Path target, int segments) {
+        return FileDownloader.download(url, paramMap, header, target, segments);
+    }
+
+
+
+
+    /**
+     * 构建预编译的接口描述
+     *      如：HClientUtils.endpoint(url).get().json().list(User.class).success("code", "200").data("data").build()
+     *
+     * @param url 接口url。如：http://127.0.0.1:8080/user?args={args}
+     * @return builder
+     */
+    public static EndpointBuilder<Object> endpoint (String url) {
+        return new EndpointBuilder<>(url);
+    }
+
 
-            request = new HttpEntity<MultiValueMap<String, Object>>(requestParamMap, header);
-        } else if (Constants4Http.REQUEST_PARAM_TYPE_4_JSON.equals(requestParamType)){
-            // 处理请求头
-            header.setContentType(MediaType.APPLICATION_JSON);
+    /**
+     * 构建请求合并：按单个 key 的请求在短时间内合并为一次批量请求
+     *      如：HClientUtils.collapser(usersEndpoint, User::getId).param("ids").windowMillis(2).build().get(7L)
+     *
+     * @param endpoint 批量接口，须返回多个。如：http://127.0.0.1:8080/users?ids={ids}
+     * @param keyExtractor 从返回的元素中取出 key
+     * @param <K> key 类型
+     * @param <T> 泛型
+     * @return builder
+     */
+    public static <K, T> CollapserBuilder<K, T> collapser (Endpoint<T> endpoint, Function<T, K> keyExtractor) {
+        return new CollapserBuilder<>(endpoint, keyExtractor);
+    }
 
-            // 处理请求参数
-            JSONObject requestParamMap = new JSONObject();
-            // 此处避免用foreach 安卓调用会出问题
-            for (Map.Entry<String, Object> entry : paramMap.entrySet()) {
-                requestParamMap.put(entry.getKey(), entry.getValue());
-            }
-//            paramMap.forEach(requestParamMap::put);
 
-            request = new HttpEntity<JSONObject>(requestParamMap, header);
-        } else {
-            log.error("post请求，传参方式 值不符合规范");
-            return null;
+    /**
+     * 按预编译的接口描述请求。不经过 HClientCache
+     *
+     * @param endpoint 接口描述
+     * @param paramMap get 请求为 url 参数，post 请求为请求体参数
+     * @param <T> 泛型
+     * @return tList 同 {@link #getApi} / {@link #postApi}
+     */
+    public static <T> List<T> call (Endpoint<T> endpoint, Map<String, Object> paramMap) {
+        HttpMethod method = endpoint.getMethod();
+        URI uri = endpoint.expand(HttpMethod.GET.equals(method) ? paramMap : Collections.emptyMap());
+        HttpEntity<?> request = endpoint.request(paramMap);
+        RestTemplate client = restTemplate(request);
+
+        try (RequestSample sample = HClientMetrics.start(endpoint.getUrl(), method)) {
+            ResponseEnvelope<List<T>> envelope = execute(sample, client, method, endpoint.getUrl(), uri,
+                    requestCallback(client, request, endpoint.getExtractor().getAcceptTypes()), endpoint.getExtractor());
+            List<T> tList = handleEnvelope(envelope, endpoint.getSuccess(), endpoint.getDataFieldName(), sample);
+            if (Objects.isNull(tList) && endpoint.isSingle()) {
+                // 返回单个时，与 getApi 一致返回 [null]
+                tList = new ArrayList<>();
+                tList.add(null);
+            }
+            return tList;
         }
+    }
 
-        switch (responseType) {
-            case Constants4Http.RESPONSE_TYPE_4_JSON:
-                // 接口返回类型为json
-                if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
-                    // 返回单个
-                    T t = post4Json2Obj(url, clazz, request, resultMap, dataFieldName);
 
-                    List<T> tempList = new ArrayList<>();
-                    tempList.add(t);
-                    tList = tempList;
-                } else if (Constants4Http.RESPONSE_DATA_TYPE_4_LIST.equals(responseDataType)){
-                    // 返回多个
-                    tList = post4Json2List(url, clazz, request, resultMap, dataFieldName);
-                }
-                break;
-            case Constants4Http.RESPONSE_TYPE_4_STRING:
-                // 接口返回类型为string
-                if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
-                    // 返回单个
-                    T t = post4String2Obj(url, clazz, request, resultMap, dataFieldName);
-
-                    List<T> tempList = new ArrayList<>();
-                    tempList.add(t);
-                    tList = tempList;
-                } else if (Constants4Http.RESPONSE_DATA_TYPE_4_LIST.equals(responseDataType)) {
-                    // 返回多个
-                    tList = post4String2List(url, clazz, request, resultMap, dataFieldName);
-                }
-                break;
-            default:
-                break;
+    /**
+     * 按预编译的接口描述请求，返回完整的解码结果。不经过 HClientCache
+     *      与 {@link #call} 的区别：state 含 capture 读取的字段；返回值判断不成功时抛出异常，而不是返回 null
+     *
+     * @param endpoint 接口描述
+     * @param paramMap get 请求为 url 参数，post 请求为请求体参数
+     * @param <T> 泛型
+     * @return envelope
+     * @throws EnvelopeMismatchException 返回值判断不成功
+     */
+    public static <T> ResponseEnvelope<List<T>> callEnvelope (Endpoint<T> endpoint, Map<String, Object> paramMap) {
+        HttpMethod method = endpoint.getMethod();
+        URI uri = endpoint.expand(HttpMethod.GET.equals(method) ? paramMap : Collections.emptyMap());
+        HttpEntity<?> request = endpoint.request(paramMap);
+        RestTemplate client = restTemplate(request);
+
+        try (RequestSample sample = HClientMetrics.start(endpoint.getUrl(), method)) {
+            ResponseEnvelope<List<T>> envelope = execute(sample, client, method, endpoint.getUrl(), uri,
+                    requestCallback(client, request, endpoint.getExtractor().getAcceptTypes()), endpoint.getExtractor());
+            if (Objects.isNull(envelope)) {
+                return new ResponseEnvelope<>();
+            }
+            Map<String, String> msgMap = checkState(endpoint.getSuccess(), endpoint.getDataFieldName(), envelope);
+            if (!msgMap.isEmpty()) {
+                sample.mismatch();
+                throw new EnvelopeMismatchException(endpoint.getUrl(), msgMap, envelope.getState());
+            }
+            return envelope;
         }
+    }
 
-        return tList;
+
+    /**
+     * 构建自动分页：按页请求并预取后续页，结果以 Stream 逐个返回
+     *      如：HClientUtils.paginate(endpoint).offset("pageNo", "pageSize", 500).total("total").prefetch(4).build().stream(paramMap)
+     *
+     * @param endpoint 分页接口，须返回多个。如：http://127.0.0.1:8080/users?pageNo={pageNo}&pageSize={pageSize}
+     * @param <T> 泛型
+     * @return builder
+     */
+    public static <T> PaginatorBuilder<T> paginate (Endpoint<T> endpoint) {
+        return new PaginatorBuilder<>(endpoint);
     }
 
 
+    /**
+     * 按预编译的接口描述请求（非阻塞）
+     *
+     * @param endpoint 接口描述
+     * @param paramMap get 请求为 url 参数，post 请求为请求体参数
+     * @param <T> 泛型
+     * @return future 完成值同 {@link #call}
+     */
+    public static <T> CompletableFuture<List<T>> callAsync (Endpoint<T> endpoint, Map<String, Object> paramMap) {
+        HttpMethod method = endpoint.getMethod();
+        URI uri = endpoint.expand(HttpMethod.GET.equals(method) ? paramMap : Collections.emptyMap());
+        HttpEntity<?> request = endpoint.request(paramMap);
+
+        RequestSample sample = HClientMetrics.start(endpoint.getUrl(), method);
+        Mono<ClientResponse> response = sendAsync(method, uri, request, endpoint.getExtractor().getAcceptTypes());
+        return exchangeAsync(endpoint.getUrl(), method, sample, response, endpoint.getExtractor(),
+                endpoint.getDataFieldName(), endpoint.isSingle());
+    }
+
 
 
 
@@ -222,63 +1003,40 @@ public class HClientUtils {
      ******************************************************************************************************************/
     /**
      * 请求方式： http-get
-     * 返回方式：json
+     * 返回方式：json or string
      * 返回值：obj
      * 带参数请求示例： url: http://127.0.0.1:8080/queryTest?args={args}
      *                paramMap: [{"args": "自定义值"}]
      *                resultMap: [{"code": "200"}]
      *                备注： {args} 与 paramMap中的key 对应
-     *                      若返回值是String，则参数传 JavaBean4String.class
+     *                      返回值是String、Integer 等标量时直接传 String.class、Integer.class
      *
      * @param <T> 泛型
      * @param url url
-     * @param clazz t.class
+     * @param type 返回值类型
      * @param paramMap 参数
      * @param resultMap 返回是否成功的标志
      * @param dataFieldName 返回的 值字段名
-     * @return tList
+     * @param codec 解码方式
+     * @return t
      */
-    private static <T> T get4Json2Obj (String url, Class<T> clazz, Map<String, Object> paramMap, Map<String, String> resultMap, String dataFieldName) {
-        JSONObject result = null;
-        RestTemplate client = new RestTemplate();
-
-        JSONObject body = client.getForEntity(url, JSONObject.class, paramMap).getBody();
-        assert body != null;
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            result = body;
-        } else {
-            // 有 code、msg 等一系列值
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, body);
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, body);
-                return null;
-            }
-
-            if (clazz.equals(JavaBean4String.class)) {
-                // 返回值是String
-                result = (JSONObject) JSON.toJSON(new JavaBean4String(body.getString(dataFieldName)));
-            } else if (clazz.equals(JavaBean4Integer.class)) {
-                // 返回值是Integer
-                result = (JSONObject) JSON.toJSON(new JavaBean4Integer(body.getInteger(dataFieldName)));
-            } else {
-                result = body.getJSONObject(dataFieldName);
-            }
-        }
-
-        if (Objects.isNull(result)) {
-            return null;
-        } else {
-            return result.toJavaObject(clazz);
+    private static <T> T get2Obj (String url, Type type, Map<String, Object> paramMap, Map<String, String> resultMap, String dataFieldName,
+                                  EnvelopeCodec codec) {
+        RestTemplate client = HClientEngine.get().getRestTemplate();
+        SuccessPredicate predicate = SuccessPredicate.of(resultMap);
+
+        try (RequestSample sample = HClientMetrics.start(url, HttpMethod.GET)) {
+            ResponseEnvelope<T> envelope = execute(sample, client, HttpMethod.GET, url,
+                    client.getUriTemplateHandler().expand(url, paramMap), requestCallback(client, null, EnvelopeCodecs.acceptTypes(codec)),
+                    EnvelopeResponseExtractor.<T>obj(type, predicate, dataFieldName, codec));
+            return handleEnvelope(envelope, predicate, dataFieldName, sample);
         }
     }
 
 
     /**
      * 请求方式： http-get
-     * 返回方式：json
+     * 返回方式：json or string
      * 返回值：List<obj>
      * 带参数请求示例： url: http://127.0.0.1:8080/queryTest?args={args}
      *                paramMap: [{"args": "自定义值"}]
@@ -286,384 +1044,605 @@ public class HClientUtils {
      *                备注： {args} 与 paramMap中的key 对应
      *
      * @param url url
-     * @param clazz t.class
+     * @param type 返回值类型
      * @param paramMap 参数
      * @param resultMap 返回是否成功的标志
      * @param dataFieldName 返回的 值字段名
+     * @param codec 解码方式
      * @param <T> 泛型
      * @return tList
      */
-    private static <T> List<T> get4Json2List (String url, Class<T> clazz, Map<String, Object> paramMap, Map<String, String> resultMap, String dataFieldName) {
-        RestTemplate client = new RestTemplate();
-
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            JSONArray body = client.getForEntity(url, JSONArray.class, paramMap).getBody();
-
-            assert body != null;
-            return body.toJavaList(clazz);
-        } else {
-            // 有 code、msg 等一系列值
-            JSONObject body = client.getForEntity(url, JSONObject.class, paramMap).getBody();
-            assert body != null;
-            JSONArray result = null;
-
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, body);
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, body);
-                return null;
-            }
-
-            result = body.getJSONArray(dataFieldName);
-
-            if (Objects.isNull(result)) {
-                return null;
-            } else {
-                return result.toJavaList(clazz);
-            }
+    private static <T> List<T> get2List (String url, Type type, Map<String, Object> paramMap, Map<String, String> resultMap, String dataFieldName,
+                                         EnvelopeCodec codec) {
+        RestTemplate client = HClientEngine.get().getRestTemplate();
+        SuccessPredicate predicate = SuccessPredicate.of(resultMap);
+
+        try (RequestSample sample = HClientMetrics.start(url, HttpMethod.GET)) {
+            ResponseEnvelope<List<T>> envelope = execute(sample, client, HttpMethod.GET, url,
+                    client.getUriTemplateHandler().expand(url, paramMap), requestCallback(client, null, EnvelopeCodecs.acceptTypes(codec)),
+                    EnvelopeResponseExtractor.<T>list(type, predicate, dataFieldName, codec));
+            return handleEnvelope(envelope, predicate, dataFieldName, sample);
         }
     }
 
 
     /**
-     * 请求方式： http-get
-     * 返回方式：string
-     * 返回值：obj
-     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest?args={args}
+     * 请求方式： http-post
+     * 传参方式： form表单 or url后面跟参数 or json
+     * 返回方式： json or string
+     * 返回值：   obj
+     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest
      *                paramMap: [{"args": "自定义值"}]
      *                resultMap: [{"code": "200"}]
-     *                备注： {args} 与 paramMap中的key 对应
      *
      * @param url url
-     * @param clazz t.class
-     * @param paramMap 参数
+     * @param type 返回值类型
+     * @param request 请求体
      * @param resultMap 返回是否成功的标志
      * @param dataFieldName 返回的 值字段名
+     * @param codec 解码方式
      * @param <T> 泛型
-     * @return tList
+     * @return t
      */
-    private static <T> T get4String2Obj (String url, Class<T> clazz, Map<String, Object> paramMap, Map<String, String> resultMap , String dataFieldName) {
-        JSONObject result = null;
-        RestTemplate client = new RestTemplate();
-        client.getMessageConverters().set(1, new StringHttpMessageConverter(StandardCharsets.UTF_8));
-
-        String body = client.getForEntity(url, String.class, paramMap).getBody();
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            result = (JSONObject) JSONObject.parse(body);
-        } else {
-            // 有 code、msg 等一系列值
-            JSONObject jsonBody = JSONObject.parseObject(body);
-
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, jsonBody);
-
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, jsonBody);
-                return null;
-            }
-
-            if (clazz.equals(JavaBean4String.class)) {
-                // 返回值是String
-                result = (JSONObject) JSON.toJSON(new JavaBean4String(jsonBody.getString(dataFieldName)));
-            } else if (clazz.equals(JavaBean4Integer.class)) {
-                // 返回值是Integer
-                result = (JSONObject) JSON.toJSON(new JavaBean4Integer(jsonBody.getInteger(dataFieldName)));
-            } else {
-                result = JSONObject.parseObject(jsonBody.get(dataFieldName).toString());
-            }
-        }
-
-        if (Objects.isNull(result)) {
-            return null;
-        } else {
-            return result.toJavaObject(clazz);
+    private static <T> T post2Obj (String url, Type type, HttpEntity<?> request, Map<String, String> resultMap, String dataFieldName,
+                                   EnvelopeCodec codec) {
+        RestTemplate client = restTemplate(request);
+        SuccessPredicate predicate = SuccessPredicate.of(resultMap);
+
+        try (RequestSample sample = HClientMetrics.start(url, HttpMethod.POST)) {
+            ResponseEnvelope<T> envelope = execute(sample, client, HttpMethod.POST, url,
+                    client.getUriTemplateHandler().expand(url, Collections.emptyMap()), requestCallback(client, request, EnvelopeCodecs.acceptTypes(codec)),
+                    EnvelopeResponseExtractor.<T>obj(type, predicate, dataFieldName, codec));
+            return handleEnvelope(envelope, predicate, dataFieldName, sample);
         }
     }
 
 
     /**
-     * 请求方式： http-get
-     * 返回方式：string
-     * 返回值：List<obj>
-     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest?args={args}
+     * 请求方式： http-post
+     * 传参方式： form表单 or url后面跟参数 or json
+     * 返回方式： json or string
+     * 返回值：   list
+     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest
      *                paramMap: [{"args": "自定义值"}]
      *                resultMap: [{"code": "200"}]
-     *                备注： {args} 与 paramMap中的key 对应
      *
      * @param url url
-     * @param clazz t.class
-     * @param paramMap 参数
+     * @param type 返回值类型
+     * @param request 请求体
      * @param resultMap 返回是否成功的标志
      * @param dataFieldName 返回的 值字段名
+     * @param codec 解码方式
      * @param <T> 泛型
      * @return tList
      */
-    private static <T> List<T> get4String2List (String url, Class<T> clazz, Map<String, Object> paramMap, Map<String, String> resultMap, String dataFieldName) {
-        JSONArray result = null;
-        RestTemplate client = new RestTemplate();
-        client.getMessageConverters().set(1, new StringHttpMessageConverter(StandardCharsets.UTF_8));
-
-        String body = client.getForEntity(url, String.class, paramMap).getBody();
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            result = (JSONArray) JSONArray.parse(body);
-        } else {
-            // 有code、msg等一系列值
-            JSONObject jsonBody = JSONObject.parseObject(body);
-
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, jsonBody);
-
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, jsonBody);
-                return null;
-            }
-
-            result = (JSONArray) jsonBody.get(dataFieldName);
+    private static <T> List<T> post2List (String url, Type type, HttpEntity<?> request, Map<String, String> resultMap, String dataFieldName,
+                                          EnvelopeCodec codec) {
+        RestTemplate client = restTemplate(request);
+        SuccessPredicate predicate = SuccessPredicate.of(resultMap);
+
+        try (RequestSample sample = HClientMetrics.start(url, HttpMethod.POST)) {
+            ResponseEnvelope<List<T>> envelope = execute(sample, client, HttpMethod.POST, url,
+                    client.getUriTemplateHandler().expand(url, Collections.emptyMap()), requestCallback(client, request, EnvelopeCodecs.acceptTypes(codec)),
+                    EnvelopeResponseExtractor.<T>list(type, predicate, dataFieldName, codec));
+            return handleEnvelope(envelope, predicate, dataFieldName, sample);
         }
+    }
 
-        if (Objects.isNull(result)) {
-            return null;
-        } else {
-            return result.toJavaList(clazz);
+
+    /**
+     * 阻塞请求：执行期间绑定 sample，记录解码耗时及请求异常。
+     *      按接口策略设置超时、重试、对冲，host 熔断时直接失败，见 {@link HClientResilience}
+     *
+     * @param sample 指标
+     * @param client restTemplate
+     * @param method 请求方式
+     * @param url url 模板
+     * @param uri 展开后的 url
+     * @param callback 请求回调
+     * @param extractor 解码方式
+     * @param <T> 泛型
+     * @return envelope
+     */
+    private static <T> ResponseEnvelope<T> execute(RequestSample sample, RestTemplate client, HttpMethod method, String url, URI uri,
+                                                   RequestCallback callback, ResponseExtractor<ResponseEnvelope<T>> extractor) {
+        HClientMetrics.bind(sample);
+        try {
+            return HClientResilience.execute(url, method, uri, target -> client.execute(target, method, callback, response -> {
+                long start = sample.now();
+                try {
+                    return extractor.extractData(response);
+                } finally {
+                    sample.decode(sample.now() - start);
+                }
+            }));
+        } catch (RuntimeException e) {
+            sample.error(e);
+            throw e;
+        } finally {
+            HClientMetrics.unbind();
         }
     }
 
 
     /**
-     * 请求方式： http-post
-     * 传参方式： form表单 or url后面跟参数
-     * 返回方式： string
-     * 返回值：   obj
-     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest
-     *                paramMap: [{"args": "自定义值"}]
-     *                resultMap: [{"code": "200"}]
+     * 发送请求并定位到返回值数组，不读取数组元素
+     *      与 RestTemplate.execute 的区别：响应在 stream 关闭时才释放。
+     *      发送请求至收到响应头经过接口策略的超时、总时限、重试及 host 的熔断、限流（见 {@link HClientResilience}），
+     *      读取响应体不受总时限限制，也不计入并发；不对冲，避免未采用的一方的响应无人关闭
      *
+     * @param method 请求方式
      * @param url url
+     * @param request 请求体。get 请求为 null
+     * @param uriVariables url 参数
      * @param clazz t.class
      * @param resultMap 返回是否成功的标志
      * @param dataFieldName 返回的 值字段名
      * @param <T> 泛型
-     * @return tList
+     * @return stream
      */
-    private static <T> T post4String2Obj (String url, Class<T> clazz, HttpEntity request, Map<String, String> resultMap, String dataFieldName) {
-        JSONObject result = null;
-        RestTemplate client = new RestTemplate();
-
-        String body = client.postForEntity(url, request, String.class).getBody();
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            result = (JSONObject) JSONObject.parse(body);
-        } else {
-            // 有 code、msg 等一系列值
-            JSONObject jsonBody = JSONObject.parseObject(body);
-
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, jsonBody);
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, jsonBody);
+    private static <T> Stream<T> openStream (HttpMethod method, String url, HttpEntity<?> request, Map<String, ?> uriVariables,
+                                             Class<T> clazz, Map<String, String> resultMap, String dataFieldName) {
+        RestTemplate client = restTemplate(request);
+        URI uri = client.getUriTemplateHandler().expand(url, uriVariables);
+        RequestCallback callback = requestCallback(client, request, ACCEPT_TYPES);
+
+        // 总耗时记录到 stream 关闭
+        RequestSample sample = HClientMetrics.start(url, method);
+        HClientMetrics.bind(sample);
+
+        // 提前关闭 stream 时中止请求，不读取剩余的响应体
+        AtomicReference<RequestScope> scope = new AtomicReference<>();
+        ClientHttpResponse response = null;
+        try {
+            response = HClientResilience.execute(url, method, () -> {
+                scope.set(HClientResilience.current());
+                return exchange(client, method, url, uri, callback);
+            });
+
+            SuccessPredicate predicate = SuccessPredicate.of(resultMap);
+            ResponseEnvelope<Stream<T>> envelope = EnvelopeStream.open(response, clazz, predicate, dataFieldName, scope.get()::abort);
+            Stream<T> stream = handleEnvelope(envelope, predicate, dataFieldName, sample);
+            if (stream == null) {
+                if (envelope.getData() != null) {
+                    envelope.getData().close();
+                }
+                sample.close();
                 return null;
             }
+            return stream.onClose(sample::close);
+        } catch (IOException e) {
+            closeQuietly(response);
+            ResourceAccessException ex = new ResourceAccessException("I/O error on " + method + " request for \"" + url + "\": " + e.getMessage(), e);
+            sample.error(ex);
+            sample.close();
+            throw ex;
+        } catch (RuntimeException e) {
+            closeQuietly(response);
+            sample.error(e);
+            sample.close();
+            throw e;
+        } finally {
+            HClientMetrics.unbind();
+        }
+    }
+
 
-            if (clazz.equals(JavaBean4String.class)) {
-                // 返回值是String
-                result = (JSONObject) JSON.toJSON(new JavaBean4String(jsonBody.getString(dataFieldName)));
-            } else if (clazz.equals(JavaBean4Integer.class)) {
-                // 返回值是Integer
-                result = (JSONObject) JSON.toJSON(new JavaBean4Integer(jsonBody.getInteger(dataFieldName)));
-            } else {
-                result = (JSONObject) jsonBody.get(dataFieldName);
+    /**
+     * 发送请求，返回未读取的响应。状态码为错误时关闭响应并抛出异常
+     *
+     * @param client restTemplate
+     * @param method 请求方式
+     * @param url url 模板
+     * @param uri 展开后的 url
+     * @param callback 请求回调
+     * @return response
+     */
+    private static ClientHttpResponse exchange (RestTemplate client, HttpMethod method, String url, URI uri, RequestCallback callback) {
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest clientRequest = client.getRequestFactory().createRequest(uri, method);
+            callback.doWithRequest(clientRequest);
+            response = clientRequest.execute();
+            if (client.getErrorHandler().hasError(response)) {
+                client.getErrorHandler().handleError(uri, method, response);
             }
+            return response;
+        } catch (IOException e) {
+            closeQuietly(response);
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + url + "\": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            closeQuietly(response);
+            throw e;
+        }
+    }
+
+
+    private static void closeQuietly(ClientHttpResponse response) {
+        if (response != null) {
+            response.close();
         }
+    }
 
-        if (Objects.isNull(result)) {
+
+    /**
+     * 封装 post 请求体
+     *
+     * @param paramMap 参数
+     * @param header 请求头
+     * @param requestParamType 传参方式
+     * @return request 传参方式不符合规范时为 null
+     */
+    private static HttpEntity<?> buildRequest(Map<String, Object> paramMap, HttpHeaders header, String requestParamType) {
+        RequestBodyEncoder encoder = RequestBodyEncoder.of(requestParamType);
+        if (Objects.isNull(encoder)) {
             return null;
-        } else {
-            return result.toJavaObject(clazz);
         }
+
+        // 处理请求参数
+        paramMap = CollectionUtils.isEmpty(paramMap) ? new HashMap<>() : paramMap;
+        return encoder.entity(paramMap, header);
     }
 
 
     /**
-     * 请求方式： http-post
-     * 传参方式： form表单 or url后面跟参数
-     * 返回方式： string
-     * 返回值：   list
-     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest
-     *                paramMap: [{"args": "自定义值"}]
-     *                resultMap: [{"code": "200"}]
+     * 封装上传文件的请求体，Content-Type 在发送时设置
      *
-     * @param url url
-     * @param clazz t.class
-     * @param resultMap 返回是否成功的标志
-     * @param dataFieldName 返回的 值字段名
-     * @param <T> 泛型
-     * @return tList
+     * @param paramMap 参数
+     * @param header 请求头
+     * @param listener 上传进度回调
+     * @return request
      */
-    private static <T> List<T> post4String2List (String url, Class<T> clazz, HttpEntity request, Map<String, String> resultMap, String dataFieldName) {
-        JSONArray result = null;
-        RestTemplate client = new RestTemplate();
+    private static HttpEntity<?> buildUpload(Map<String, Object> paramMap, HttpHeaders header, UploadProgressListener listener) {
+        paramMap = CollectionUtils.isEmpty(paramMap) ? new HashMap<>() : paramMap;
+        return new HttpEntity<>(MultipartBody.of(paramMap, listener), Objects.isNull(header) ? new HttpHeaders() : header);
+    }
 
-        String body = client.postForEntity(url, request, String.class).getBody();
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            result = (JSONArray) JSONArray.parse(body);
-        } else {
-            // 有 code、msg 等一系列值
-            JSONObject jsonBody = JSONObject.parseObject(body);
 
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, jsonBody);
+    /**
+     * 请求体为流式 multipart 时使用不缓冲请求体的 restTemplate
+     *
+     * @param request 请求体。可为 null
+     * @return restTemplate
+     */
+    private static RestTemplate restTemplate(HttpEntity<?> request) {
+        HClientEngine engine = HClientEngine.get();
+        return Objects.nonNull(request) && request.getBody() instanceof MultipartBody
+                ? engine.getStreamingRestTemplate() : engine.getRestTemplate();
+    }
 
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, jsonBody);
-                return null;
-            }
 
-            result = (JSONArray) jsonBody.get(dataFieldName);
+    /**
+     * 非阻塞 get 请求
+     *
+     * @param url url
+     * @param paramMap url 参数
+     * @param accept 请求头 Accept
+     * @return response
+     */
+    private static Mono<ClientResponse> getAsync(String url, Map<String, Object> paramMap, List<MediaType> accept) {
+        return HClientAsyncEngine.get().getWebClient().get()
+                .uri(url, CollectionUtils.isEmpty(paramMap) ? new HashMap<>() : paramMap)
+                .headers(headers -> headers.setAccept(accept))
+                .exchange();
+    }
+
+
+    /**
+     * 非阻塞 post 请求
+     *
+     * @param url url
+     * @param request 请求体
+     * @param accept 请求头 Accept
+     * @return response
+     */
+    private static Mono<ClientResponse> postAsync(String url, HttpEntity<?> request, List<MediaType> accept) {
+        if (request.getBody() instanceof MultipartBody) {
+            // 与 WebClient 一致的 url 编码方式
+            URI uri = URI.create(UriComponentsBuilder.fromUriString(url).build()
+                    .expand(Collections.emptyMap()).encode().toUriString());
+            return sendAsync(HttpMethod.POST, uri, request, accept);
         }
+        HClientAsyncEngine engine = HClientAsyncEngine.get();
+        HttpEntity<?> compressed = engine.compress(request);
+        return engine.getWebClient().post()
+                .uri(url)
+                .headers(headers -> {
+                    headers.setAccept(accept);
+                    headers.putAll(compressed.getHeaders());
+                })
+                .body(BodyInserters.fromValue(compressed.getBody()))
+                .exchange();
+    }
 
-        if (Objects.isNull(result)) {
-            return null;
-        } else {
-            return result.toJavaList(clazz);
+
+    /**
+     * 非阻塞请求，url 已展开
+     *
+     * @param method 请求方式
+     * @param uri url
+     * @param request 请求头及请求体。可为 null
+     * @param accept 请求头 Accept
+     * @return response
+     */
+    private static Mono<ClientResponse> sendAsync(HttpMethod method, URI uri, HttpEntity<?> request, List<MediaType> accept) {
+        if (Objects.nonNull(request) && request.getBody() instanceof MultipartBody) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(accept);
+            headers.putAll(request.getHeaders());
+            return HClientAsyncEngine.get().upload(uri, headers, (MultipartBody) request.getBody());
         }
+        HClientAsyncEngine engine = HClientAsyncEngine.get();
+        HttpEntity<?> compressed = engine.compress(request);
+        WebClient.RequestBodySpec spec = engine.getWebClient()
+                .method(method)
+                .uri(uri)
+                .headers(headers -> {
+                    headers.setAccept(accept);
+                    if (Objects.nonNull(compressed)) {
+                        headers.putAll(compressed.getHeaders());
+                    }
+                });
+        if (Objects.isNull(compressed) || Objects.isNull(compressed.getBody())) {
+            return spec.exchange();
+        }
+        return spec.body(BodyInserters.fromValue(compressed.getBody())).exchange();
     }
 
 
     /**
-     * 请求方式： http-post
-     * 传参方式： form表单 or url后面跟参数
-     * 返回方式： json
-     * 返回值：   obj
-     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest
-     *                paramMap: [{"args": "自定义值"}]
-     *                resultMap: [{"code": "200"}]
+     * 非阻塞请求：解码并判断返回值，返回值与 getApi / postApi 一致
      *
      * @param url url
-     * @param clazz t.class
-     * @param resultMap 返回是否成功的标志
+     * @param method 请求方式
+     * @param sample 指标
+     * @param response 响应
+     * @param extractor 解码方式
      * @param dataFieldName 返回的 值字段名
+     * @param single 返回单个
      * @param <T> 泛型
-     * @return tList
+     * @return future
      */
-    private static <T> T post4Json2Obj (String url, Class<T> clazz, HttpEntity request, Map<String, String> resultMap, String dataFieldName) {
-        JSONObject result = null;
-        RestTemplate client = new RestTemplate();
+    private static <T> CompletableFuture<List<T>> exchangeAsync(String url, HttpMethod method, RequestSample sample,
+                                                                Mono<ClientResponse> response, EnvelopeResponseExtractor<List<T>> extractor,
+                                                                String dataFieldName, boolean single) {
+        Mono<ResponseEnvelope<List<T>>> envelope = decodeAsync(sample, response, extractor);
+        return HClientResilience.executeAsync(url, method, envelope)
+                .flatMap(e -> {
+                    List<T> tList = handleEnvelope(e, extractor.getPredicate(), dataFieldName, sample);
+                    if (Objects.isNull(tList) && single) {
+                        // 返回单个时，与 getApi 一致返回 [null]
+                        tList = new ArrayList<>();
+                        tList.add(null);
+                    }
+                    // 返回 null 时为空 Mono，future 以 null 完成
+                    return Mono.justOrEmpty(tList);
+                })
+                .toFuture()
+                .whenComplete((tList, e) -> closeSample(sample, e));
+    }
 
-        JSONObject body = client.postForEntity(url, request, JSONObject.class).getBody();
-        assert body != null;
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            result = body;
-        } else {
-            // 有 code、msg 等一系列值
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, body);
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, body);
-                return null;
-            }
 
-            if (clazz.equals(JavaBean4String.class)) {
-                // 返回值是String
-                result = (JSONObject) JSON.toJSON(new JavaBean4String(body.getString(dataFieldName)));
-            } else if (clazz.equals(JavaBean4Integer.class)) {
-                // 返回值是Integer
-                result = (JSONObject) JSON.toJSON(new JavaBean4Integer(body.getInteger(dataFieldName)));
-            } else {
-                result = body.getJSONObject(dataFieldName);
-            }
+    /**
+     * 批量请求中的单个请求：返回值判断不成功时不记录日志，失败详情写入结果
+     *
+     * @param batchRequest 请求
+     * @param <T> 泛型
+     * @return future
+     */
+    private static <T> CompletableFuture<BatchResult<T>> batchAsync(BatchRequest<T> batchRequest) {
+        EnvelopeResponseExtractor<List<T>> extractor = listExtractor(batchRequest.getClazz(), batchRequest.getResultMap(),
+                batchRequest.getDataFieldName(), batchRequest.getResponseType(), batchRequest.getResponseDataType());
+        if (Objects.isNull(extractor)) {
+            return CompletableFuture.completedFuture(BatchResult.error("返回类型 值不符合规范"));
         }
 
-        if (Objects.isNull(result)) {
-            return null;
+        Mono<ClientResponse> response;
+        if (HttpMethod.GET.equals(batchRequest.getMethod())) {
+            response = getAsync(batchRequest.getUrl(), batchRequest.getParamMap(), extractor.getAcceptTypes());
+        } else if (HttpMethod.POST.equals(batchRequest.getMethod())) {
+            HttpHeaders header = Objects.isNull(batchRequest.getHeader()) ? new HttpHeaders() : batchRequest.getHeader();
+            HttpEntity<?> request = buildRequest(batchRequest.getParamMap(), header, batchRequest.getRequestParamType());
+            if (Objects.isNull(request)) {
+                return CompletableFuture.completedFuture(BatchResult.error("post请求，传参方式 值不符合规范"));
+            }
+            response = postAsync(batchRequest.getUrl(), request, extractor.getAcceptTypes());
         } else {
-            return result.toJavaObject(clazz);
+            return CompletableFuture.completedFuture(BatchResult.error("请求方式不支持：" + batchRequest.getMethod()));
         }
+
+        RequestSample sample = HClientMetrics.start(batchRequest.getUrl(), batchRequest.getMethod());
+        Mono<ResponseEnvelope<List<T>>> envelope = decodeAsync(sample, response, extractor);
+        boolean single = Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(batchRequest.getResponseDataType());
+
+        return HClientResilience.executeAsync(batchRequest.getUrl(), batchRequest.getMethod(), envelope)
+                .map(e -> {
+                    Map<String, String> msgMap = checkState(SuccessPredicate.of(batchRequest.getResultMap()),
+                            batchRequest.getDataFieldName(), e);
+                    if (msgMap.isEmpty()) {
+                        List<T> tList = e.getData();
+                        if (Objects.isNull(tList) && single) {
+                            // 返回单个时，与 getApi 一致返回 [null]
+                            tList = new ArrayList<>();
+                            tList.add(null);
+                        }
+                        return BatchResult.success(tList);
+                    }
+                    sample.mismatch();
+                    return BatchResult.<T>mismatch(msgMap);
+                })
+                .toFuture()
+                .whenComplete((result, e) -> closeSample(sample, e));
     }
 
 
     /**
-     * 请求方式： http-post
-     * 传参方式： form表单 or url后面跟参数
-     * 返回方式： json
-     * 返回值：   list
-     * 带参数请求示例： url: http://127.0.0.1:8080/queryTest
-     *                paramMap: [{"args": "自定义值"}]
-     *                resultMap: [{"code": "200"}]
+     * 按返回类型选择解码方式，返回单个时解码为仅含一个元素的 list
      *
-     * @param url url
-     * @param clazz t.class
+     * @param type 返回值类型
      * @param resultMap 返回是否成功的标志
      * @param dataFieldName 返回的 值字段名
+     * @param responseType 返回类型
+     * @param responseDataType 返回值有一个还是多个
      * @param <T> 泛型
-     * @return tList
+     * @return extractor 返回类型不符合规范时为 null
      */
-    private static <T> List<T> post4Json2List (String url, Class<T> clazz, HttpEntity request, Map<String, String> resultMap, String dataFieldName) {
-        RestTemplate client = new RestTemplate();
+    private static <T> EnvelopeResponseExtractor<List<T>> listExtractor(Type type, Map<String, String> resultMap, String dataFieldName,
+                                                                        String responseType, String responseDataType) {
+        EnvelopeCodec codec = EnvelopeCodecs.of(responseType);
+        if (Objects.isNull(codec)) {
+            return null;
+        }
+
+        SuccessPredicate predicate = SuccessPredicate.of(resultMap);
+        if (Constants4Http.RESPONSE_DATA_TYPE_4_OBJ.equals(responseDataType)) {
+            // 返回单个
+            return EnvelopeResponseExtractor.<T>objAsList(type, predicate, dataFieldName, codec);
+        } else if (Constants4Http.RESPONSE_DATA_TYPE_4_LIST.equals(responseDataType)) {
+            // 返回多个
+            return EnvelopeResponseExtractor.<T>list(type, predicate, dataFieldName, codec);
+        }
 
-        if (CollectionUtils.isEmpty(resultMap) || StringUtils.isEmpty(dataFieldName)) {
-            // 直接返回data
-            JSONArray body = client.postForEntity(url, request, JSONArray.class).getBody();
+        return null;
+    }
 
-            assert body != null;
-            return body.toJavaList(clazz);
-        } else {
-            // 有 code、msg 等一系列值
-            JSONObject body = client.postForEntity(url, request, JSONObject.class).getBody();
-            assert body != null;
-            JSONArray result = null;
-
-            // 判断结果返回值
-            Map<String, String> msgMap = handleResponseState(resultMap, body);
-            if (!CollectionUtils.isEmpty(msgMap)) {
-                // 返回值判断不成功
-                log.error("接口返回错误：{}。\n接口返回完整信息：{}", msgMap, body);
-                return null;
-            }
 
-            result = body.getJSONArray(dataFieldName);
+    /**
+     * 非阻塞请求：读取完整响应体后，在 parallel 线程上解码，不阻塞事件循环线程
+     *      http 状态码为 4xx、5xx 时以 WebClientResponseException 结束。
+     *      首字节耗时自每次订阅（即每次尝试发出请求）起计，不含限流等待、重试退避及此前的尝试
+     *
+     * @param sample 指标
+     * @param response 响应
+     * @param extractor 解码方式
+     * @param <T> 泛型
+     * @return envelope
+     */
+    private static <T> Mono<ResponseEnvelope<T>> decodeAsync(RequestSample sample, Mono<ClientResponse> response,
+                                                             EnvelopeResponseExtractor<T> extractor) {
+        return Mono.defer(() -> {
+            long sent = sample.now();
+            return response.flatMap(clientResponse -> {
+                sample.ttfb(sample.now() - sent, clientResponse.rawStatusCode());
+                if (clientResponse.statusCode().isError()) {
+                    return clientResponse.createException().flatMap(Mono::<ResponseEnvelope<T>>error);
+                }
+
+                MediaType contentType = clientResponse.headers().contentType().orElse(null);
+                return DataBufferUtils.join(clientResponse.body(BodyExtractors.toDataBuffers()))
+                        .publishOn(Schedulers.parallel())
+                        .map(buffer -> {
+                            sample.responseSize(buffer.readableByteCount());
+                            long start = sample.now();
+                            try {
+                                return extractor.extractData(buffer.asInputStream(), contentType);
+                            } finally {
+                                // 解码器打开前失败时不会关闭输入流，在此释放
+                                DataBufferUtils.release(buffer);
+                                sample.decode(sample.now() - start);
+                            }
+                        })
+                        // 切换线程前被取消时，释放已合并的响应体
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                        .defaultIfEmpty(new ResponseEnvelope<>());
+            });
+        });
+    }
+
 
-            if (Objects.isNull(result)) {
-                return null;
-            } else {
-                return result.toJavaList(clazz);
-            }
+    /**
+     * 非阻塞请求结束：记录异常及总耗时
+     *
+     * @param sample 指标
+     * @param e 异常。成功时为 null
+     */
+    private static void closeSample(RequestSample sample, Throwable e) {
+        if (Objects.nonNull(e)) {
+            sample.error(e);
         }
+        sample.close();
     }
 
 
     /**
-     * 判断接口返回值
+     * 请求回调：写入请求体，并按返回类型声明 Accept
      *
-     * @param resultMap 要求返回值的键值对 如：[{"code": "200"}]
-     * @param body http接口返回的JSONObject。 如：判断 body 中， key=code时，value是否为200。如果不是，组装msg信息返回
-     * @return msg 接口返回值失败匹配的详情。如：code, 要求返回200，实际返回500
+     * @param client restTemplate
+     * @param request 请求体。get 请求为 null
+     * @param accept 请求头 Accept，按返回类型
+     * @return callback
      */
-    private static Map<String, String> handleResponseState(Map<String, String> resultMap, JSONObject body) {
-        Map<String, String> msgMap = new HashMap<>();
-//        resultMap.forEach((key, value) -> {
-//            String conditionValue = String.valueOf(body.get(key));
-//            if (!value.equals(conditionValue)) {
-//                msgMap.put(key, "返回的值为：" + conditionValue + "; 要求的值为：" + value);
-//            }
-//        });
-        for (Map.Entry<String, String> entry : resultMap.entrySet()) {
-            String conditionValue = String.valueOf(body.get(entry.getKey()));
-            if (!entry.getValue().equals(conditionValue)) {
-                msgMap.put(entry.getKey(), "返回的值为：" + conditionValue + "; 要求的值为：" + entry.getValue());
-            }
+    private static RequestCallback requestCallback(RestTemplate client, HttpEntity<?> request, List<MediaType> accept) {
+        if (Objects.nonNull(request) && request.getBody() instanceof MultipartBody) {
+            MultipartBody body = (MultipartBody) request.getBody();
+            return clientRequest -> {
+                clientRequest.getHeaders().putAll(request.getHeaders());
+                clientRequest.getHeaders().setAccept(accept);
+                body.writeTo(clientRequest);
+            };
+        }
+
+        RequestCallback delegate = client.httpEntityCallback(request);
+        return clientRequest -> {
+            clientRequest.getHeaders().setAccept(accept);
+            delegate.doWithRequest(clientRequest);
+        };
+    }
+
+
+    /**
+     * 判断解码结果，不成功时记录日志并返回 null
+     *
+     * @param envelope 解码结果
+     * @param predicate 返回是否成功的判断条件
+     * @param dataFieldName 返回的 值字段名
+     * @param sample 指标
+     * @param <T> 泛型
+     * @return data
+     */
+    private static <T> T handleEnvelope(ResponseEnvelope<T> envelope, SuccessPredicate predicate, String dataFieldName,
+                                        RequestSample sample) {
+        if (Objects.isNull(envelope)) {
+            return null;
+        }
+
+        // 判断结果返回值
+        Map<String, String> msgMap = checkState(predicate, dataFieldName, envelope);
+        if (!msgMap.isEmpty()) {
+            // 返回值判断不成功
+            sample.mismatch();
+            log.error("接口返回错误：{}。\n接口返回状态信息：{}", msgMap, envelope.getState());
+            return null;
+        }
+
+        return envelope.getData();
+    }
+
+
+    /**
+     * 判断解码结果的状态字段。predicate 或 dataFieldName 为空时不判断；成功时不产生对象
+     *
+     * @param predicate 返回是否成功的判断条件
+     * @param dataFieldName 返回的 值字段名
+     * @param envelope 解码结果
+     * @return msg 为空表示成功。如：code, 返回的值为：500; 要求的值为：200
+     */
+    private static Map<String, String> checkState(SuccessPredicate predicate, String dataFieldName, ResponseEnvelope<?> envelope) {
+        if (predicate.isEmpty() || StringUtils.isEmpty(dataFieldName) || envelope.matches(predicate)) {
+            return Collections.emptyMap();
         }
+        return predicate.diagnose(envelope.getState());
+    }
+
 
-        return msgMap;
+    /**
+     * 取 url 的 host:port，用于单 host 并发数限制
+     *
+     * @param url url
+     * @return host
+     */
+    private static String hostOf(String url) {
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build();
+        return uri.getHost() + ":" + uri.getPort();
     }
 }
@@ -0,0 +1,56 @@
+package com.zcgk.httpplus.core.utils;
+
+/****************************************************
+ *
+ * url 模板解析
+ *      不展开模板变量，仅按字符位置截取，供指标标签、熔断 key 等高频调用使用
+ *
+ *
+ * @author Francis
+ * @date 2026/10/18 18:40
+ * @version 1.0
+ **************************************************/
+public final class UrlTemplateUtils {
+
+    private UrlTemplateUtils() {
+    }
+
+
+    /**
+     * url 模板的 path 部分。如：http://127.0.0.1:8080/user?args={args} 为 /user
+     *
+     * @param url url 模板
+     * @return path
+     */
+    public static String path(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : url.indexOf('/', start + 3);
+        if (start < 0) {
+            return "/";
+        }
+
+        int end = url.indexOf('?', start);
+        return end < 0 ? url.substring(start) : url.substring(start, end);
+    }
+
+
+    /**
+     * url 模板的 host:port 部分。如：http://127.0.0.1:8080/user 为 127.0.0.1:8080
+     *
+     * @param url url 模板
+     * @return host 无法解析时为 none
+     */
+    public static String host(String url) {
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return "none";
+        }
+        start += 3;
+
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        return url.substring(start, end);
+    }
+}